@@ -0,0 +1,146 @@
+package comprehensive;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Class that splits UTF-8 text into cleaned up words directly on bytes, giving each word's id in a WordArena.
+ * Words are cleaned the same way as TextGenerator.FileToTextCleanup: tokens are separated by whitespace, made lowercase,
+ * and cut off at the first punctuation or symbol other than an underscore, and empty words are skipped.
+ * Tokens made only of ASCII characters (nearly all of them in English text) are cleaned in place without creating
+ * a String. Tokens with other characters fall back to TextGenerator's cleaning so Unicode rules match exactly.
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class ArenaTokenizer {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final boolean[] ASCII_WHITESPACE = new boolean[128];
+    private static final boolean[] ASCII_PUNCTUATION = new boolean[128];
+
+    static {
+        // the ASCII characters matched by \p{javaWhitespace}, which is what Scanner splits tokens on
+        for(char c : new char[] {' ', '\t', '\n', 0x0B, '\f', '\r', 0x1C, 0x1D, 0x1E, 0x1F}){
+            ASCII_WHITESPACE[c] = true;
+        }
+
+        // the ASCII characters matched by [\p{P}\p{S}&&[^_]], which is what cleanWord cuts words off at
+        for(char c = '!'; c <= '~'; c++){
+            ASCII_PUNCTUATION[c] = !Character.isLetterOrDigit(c) && c != '_';
+        }
+    }
+
+    private final WordArena arena;
+    private byte[] token = new byte[64];
+    private int tokenLength;
+
+    /**
+     * Creates a tokenizer that adds words to the given arena
+     *
+     * @param arena WordArena that words are looked up in and added to
+     */
+    public ArenaTokenizer(WordArena arena){
+        this.arena = arena;
+    }
+
+    /**
+     * Reads the stream to the end, passing the arena id of every cleaned up word to the output in order
+     *
+     * @param in InputStream of UTF-8 text, which is not closed
+     * @param output IntConsumer receiving the id of each word
+     * @throws IOException if the stream cannot be read
+     */
+    public void tokenize(InputStream in, IntConsumer output) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        tokenLength = 0;
+
+        while((read = in.read(buffer)) >= 0){
+            for(int i = 0; i < read; i++){
+                byte b = buffer[i];
+
+                // whitespace ends the current token, every other byte is added to it
+                if(b >= 0 && ASCII_WHITESPACE[b]){
+                    endToken(output);
+                }
+                else{
+                    if(tokenLength == token.length){
+                        token = Arrays.copyOf(token, token.length * 2);
+                    }
+                    token[tokenLength++] = b;
+                }
+            }
+        }
+        endToken(output);
+    }
+
+    /**
+     * Cleans the token collected so far and passes its id to the output if it is not empty
+     *
+     * @param output IntConsumer receiving the id of the word
+     */
+    private void endToken(IntConsumer output){
+        if(tokenLength == 0){
+            return;
+        }
+
+        int length = cleanAscii();
+        if(length < 0){
+            cleanUnicode(output);
+        }
+        else if(length > 0){
+            output.accept(arena.intern(token, 0, length));
+        }
+        tokenLength = 0;
+    }
+
+    /**
+     * Cleans the token in place if it only has ASCII characters: lowercases it and cuts it off at the first punctuation
+     *
+     * @return int length of the cleaned word, or -1 if the token has non-ASCII characters
+     */
+    private int cleanAscii(){
+        int length = -1;
+
+        for(int i = 0; i < tokenLength; i++){
+            byte b = token[i];
+            if(b < 0){
+                return -1;
+            }
+
+            // remembers where the word ends, but keeps checking the rest of the token for non-ASCII bytes
+            if(length < 0){
+                if(ASCII_PUNCTUATION[b]){
+                    length = i;
+                }
+                else if(b >= 'A' && b <= 'Z'){
+                    token[i] = (byte) (b + ('a' - 'A'));
+                }
+            }
+        }
+        return length < 0 ? tokenLength : length;
+    }
+
+    /**
+     * Cleans a token with non-ASCII characters using the same String based rules as TextGenerator
+     *
+     * @param output IntConsumer receiving the id of each word
+     */
+    private void cleanUnicode(IntConsumer output){
+        String text = new String(token, 0, tokenLength, StandardCharsets.UTF_8);
+
+        // non-ASCII whitespace can still split the token into several words
+        for(String part : text.split("\\p{javaWhitespace}+")){
+            String cleaned = part.isEmpty() ? null : TextGenerator.cleanWord(part);
+            if(cleaned != null && !cleaned.isEmpty()){
+                byte[] encoded = cleaned.getBytes(StandardCharsets.UTF_8);
+                output.accept(arena.intern(encoded, 0, encoded.length));
+            }
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package comprehensive;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Class that answers type-ahead queries: the k most probable words after a seed word that start with a given prefix.
+ * For a seed that has been queried often enough, the words following it are put in a path compressed prefix trie
+ * whose nodes with more than maxK words store their precomputed top maxK words, so a query for k up to maxK takes
+ * O(prefix length + maxK).
+ * Tries are only built for hot seeds and at most maxIndexedVertices are kept, dropping the least recently used,
+ * which caps memory. Query counts toward the threshold are kept for a bounded number of recently queried seeds,
+ * so a seed whose count is dropped starts again from zero. Other seeds are answered by scanning their following words.
+ * A trie is rebuilt if words have been added after its seed since it was built.
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class AutocompleteIndex {
+
+    private static final int COUNTED_SEEDS_PER_TRIE = 8; // seeds whose queries are counted, per trie kept
+
+    private final MarkovGraph graph;
+    private final int maxK;
+    private final int hotThreshold;
+    private final int maxIndexedVertices;
+
+    private final LinkedHashMap<String, Integer> queryCounts;
+    private final LinkedHashMap<String, PrefixTrie> tries;
+
+    /**
+     * Creates an index over a graph
+     *
+     * @param graph MarkovGraph to suggest words from
+     * @param maxK int number of words precomputed per trie node
+     * @param hotThreshold int number of queries for a seed before a trie is built for it
+     * @param maxIndexedVertices int maximum number of tries kept at once
+     */
+    public AutocompleteIndex(MarkovGraph graph, int maxK, int hotThreshold, int maxIndexedVertices){
+        if(maxK < 1 || hotThreshold < 1 || maxIndexedVertices < 1){
+            throw new IllegalArgumentException("Index sizes must be positive");
+        }
+        this.graph = graph;
+        this.maxK = maxK;
+        this.hotThreshold = hotThreshold;
+        this.maxIndexedVertices = maxIndexedVertices;
+
+        // access ordered, so the eldest entry is the least recently queried trie
+        this.tries = new LinkedHashMap<>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PrefixTrie> eldest){
+                return size() > AutocompleteIndex.this.maxIndexedVertices;
+            }
+        };
+
+        // access ordered too, so the counts dropped are those of the seeds least recently queried
+        int maxCountedSeeds = (int) Math.min(Integer.MAX_VALUE, (long) maxIndexedVertices * COUNTED_SEEDS_PER_TRIE);
+        this.queryCounts = new LinkedHashMap<>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest){
+                return size() > maxCountedSeeds;
+            }
+        };
+    }
+
+    /**
+     * Returns the k most probable words that follow the seed and start with the prefix, ties broken lexicographically
+     *
+     * @param seed String the previous word
+     * @param prefix String the start of the next word
+     * @param k int the number of words to return
+     * @return List of at most k words in descending order of probability
+     */
+    public synchronized List<String> suggest(String seed, String prefix, int k){
+        if(k < 0){
+            throw new IllegalArgumentException("k is out of bounds");
+        }
+        VertexNode node = graph.getVertex(seed);
+        if(node == null){
+            throw new NoSuchElementException("Seed word is not in graph");
+        }
+
+        PrefixTrie trie = tries.get(seed);
+
+        // rebuilds a trie built before more words were added after the seed, the seed is still hot
+        if(trie != null && trie.numAfterWords != node.getNumAfterWords()){
+            trie = new PrefixTrie(node, maxK);
+            tries.put(seed, trie);
+        }
+
+        if(trie == null && queryCounts.merge(seed, 1, Integer::sum) >= hotThreshold){
+            trie = new PrefixTrie(node, maxK);
+            tries.put(seed, trie);
+            queryCounts.remove(seed);
+        }
+
+        if(trie == null){
+            return scan(node, prefix, k);
+        }
+        return trie.suggest(prefix, k);
+    }
+
+    /**
+     * Returns the number of seeds that currently have a trie
+     *
+     * @return int number of tries held
+     */
+    public synchronized int indexedVertexCount(){
+        return tries.size();
+    }
+
+    /**
+     * Returns the number of seeds whose queries are being counted toward the threshold
+     *
+     * @return int number of counted seeds
+     */
+    synchronized int countedSeedCount(){
+        return queryCounts.size();
+    }
+
+    /**
+     * Answers a query without a trie, by filtering every following word of the seed
+     *
+     * @param node VertexNode of the seed
+     * @param prefix String the start of the next word
+     * @param k int the number of words to return
+     * @return List of at most k words in descending order of probability
+     */
+    private static List<String> scan(VertexNode node, String prefix, int k){
+        Map<String, Integer> outWords = node.getOutWords();
+        List<String> matches = new ArrayList<>();
+        for(String word : outWords.keySet()){
+            if(word.startsWith(prefix)){
+                matches.add(word);
+            }
+        }
+
+        matches.sort((s1, s2) -> {
+            int comparison = outWords.get(s2).compareTo(outWords.get(s1));
+            return comparison == 0 ? s1.compareTo(s2) : comparison;
+        });
+        return new ArrayList<>(matches.subList(0, Math.min(k, matches.size())));
+    }
+
+    /**
+     * Path compressed prefix trie over the words following one seed. The words are kept in a sorted array, and each
+     * trie node covers the range of the array that starts with its prefix. A node only exists where words branch or
+     * end, and the label of the edge into it is read from the first word of its range, so edges store no characters.
+     * Because the array is sorted, a smaller index means a lexicographically smaller word, so packing (count, index)
+     * into a long orders words the same way as kMostProbable.
+     */
+    private static class PrefixTrie {
+
+        private final String[] words;
+        private final int[] counts;
+        private final int numAfterWords;
+        private final TrieNode root;
+
+        /**
+         * Builds the trie for the words following a vertex
+         *
+         * @param node VertexNode of the seed
+         * @param maxK int number of words precomputed per trie node
+         */
+        private PrefixTrie(VertexNode node, int maxK){
+            Map<String, Integer> outWords = node.getOutWords();
+            words = outWords.keySet().toArray(new String[0]);
+            Arrays.sort(words);
+            counts = new int[words.length];
+            for(int i = 0; i < words.length; i++){
+                counts[i] = outWords.get(words[i]);
+            }
+            numAfterWords = node.getNumAfterWords();
+            root = build(0, words.length, 0, maxK);
+        }
+
+        /**
+         * Builds the node for the words in [low, high), which all share their first depth characters
+         *
+         * @param low int index of the first word
+         * @param high int index after the last word
+         * @param depth int length of the prefix already known to be shared
+         * @param maxK int number of words to precompute
+         * @return TrieNode for the range
+         */
+        private TrieNode build(int low, int high, int depth, int maxK){
+
+            // skips the characters every word of the range shares, which in sorted order are those the first and
+            // last word share, so the node sits where the words branch or the only word ends
+            if(high - low == 1){
+                depth = words[low].length();
+            }
+            else if(high - low > 1){
+                depth = sharedPrefixLength(words[low], words[high - 1]);
+            }
+            TrieNode node = new TrieNode(low, high, depth);
+            List<long[]> candidates = new ArrayList<>();
+
+            // a word exactly as long as the prefix sorts first in the range and ends at this node
+            int next = low;
+            if(next < high && words[next].length() == depth){
+                candidates.add(new long[] {LongDaryMaxHeap.pack(counts[next], next)});
+                next++;
+            }
+
+            // splits the rest of the range by the character after the prefix
+            List<TrieNode> children = new ArrayList<>();
+            StringBuilder labels = new StringBuilder();
+            while(next < high){
+                char label = words[next].charAt(depth);
+                int end = next;
+                while(end < high && words[end].charAt(depth) == label){
+                    end++;
+                }
+                TrieNode child = build(next, end, depth + 1, maxK);
+                children.add(child);
+                labels.append(label);
+                candidates.add(child.top != null ? child.top : rangeKeys(child.low, child.high));
+                next = end;
+            }
+            node.labels = labels.toString().toCharArray();
+            node.children = children.toArray(new TrieNode[0]);
+
+            // keeps the best maxK of this node's own word and its children's words, unless the node holds no more
+            // than maxK words, which a query can then select from the range directly
+            if(high - low > maxK){
+                long[] merged = candidates.stream().flatMapToLong(Arrays::stream).toArray();
+                node.top = new LongDaryMaxHeap(merged).topK(maxK);
+            }
+            return node;
+        }
+
+        /**
+         * Returns the k most probable words starting with the prefix
+         *
+         * @param prefix String the start of the next word
+         * @param k int the number of words to return
+         * @return List of at most k words in descending order of probability
+         */
+        private List<String> suggest(String prefix, int k){
+            if(root.high == root.low){
+                return new ArrayList<>();
+            }
+
+            // matches the prefix against each node's label, then steps to the child for the next character
+            TrieNode node = root;
+            int matched = 0;
+            while(true){
+                String word = words[node.low];
+                int end = Math.min(prefix.length(), node.depth);
+                for(; matched < end; matched++){
+                    if(word.charAt(matched) != prefix.charAt(matched)){
+                        return new ArrayList<>();
+                    }
+                }
+                if(matched == prefix.length()){
+                    break;
+                }
+                node = node.child(prefix.charAt(matched));
+                if(node == null){
+                    return new ArrayList<>();
+                }
+            }
+
+            // uses the precomputed words when enough were stored, otherwise selects from the node's whole range
+            long[] top = node.top;
+            if(top == null || (k > top.length && node.high - node.low > top.length)){
+                top = new LongDaryMaxHeap(rangeKeys(node.low, node.high)).topK(k);
+            }
+
+            List<String> output = new ArrayList<>();
+            for(int i = 0; i < Math.min(k, top.length); i++){
+                output.add(words[LongDaryMaxHeap.unpackId(top[i])]);
+            }
+            return output;
+        }
+
+        /**
+         * Returns the packed (count, index) keys of the words in [low, high)
+         *
+         * @param low int index of the first word
+         * @param high int index after the last word
+         * @return long array of packed keys
+         */
+        private long[] rangeKeys(int low, int high){
+            long[] keys = new long[high - low];
+            for(int i = low; i < high; i++){
+                keys[i - low] = LongDaryMaxHeap.pack(counts[i], i);
+            }
+            return keys;
+        }
+
+        /**
+         * Returns the number of leading characters two words share
+         *
+         * @param first String the first word
+         * @param second String the second word
+         * @return int length of their shared prefix
+         */
+        private static int sharedPrefixLength(String first, String second){
+            int length = Math.min(first.length(), second.length());
+            int i = 0;
+            while(i < length && first.charAt(i) == second.charAt(i)){
+                i++;
+            }
+            return i;
+        }
+    }
+
+    /**
+     * One node of a PrefixTrie: the range of sorted words under it, the length of the prefix they share, its children
+     * by the character after that prefix, and, if it holds more than maxK words, its precomputed most probable words
+     * as packed (count, index) keys in descending order
+     */
+    private static class TrieNode {
+
+        private final int low;
+        private final int high;
+        private final int depth;
+        private char[] labels;
+        private TrieNode[] children;
+        private long[] top;
+
+        /**
+         * Creates a node covering a range of the sorted words
+         *
+         * @param low int index of the first word
+         * @param high int index after the last word
+         * @param depth int length of the prefix the words share
+         */
+        private TrieNode(int low, int high, int depth){
+            this.low = low;
+            this.high = high;
+            this.depth = depth;
+        }
+
+        /**
+         * Returns the child for the next character, using a binary search since labels are sorted
+         *
+         * @param label char the next character of the prefix
+         * @return TrieNode child, or null if no word continues with that character
+         */
+        private TrieNode child(char label){
+            int index = Arrays.binarySearch(labels, label);
+            return index < 0 ? null : children[index];
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package comprehensive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutocompleteIndexTest {
+
+    private MarkovGraph graph;
+
+    @BeforeEach
+    void setup(){
+        graph = new MarkovGraph(List.of("I", "Am", "Angieeeee", "I", "Am", "Happy", "I", "Am", "Happy", "I", "Am", "Sad",
+                "I", "Am", "Hungry", "I", "Am", "Ha"));
+    }
+
+    @Test
+    void testAutocompleteMatchesFilteredKLargest(){
+        AutocompleteIndex index = new AutocompleteIndex(graph, 2, 2, 1);
+
+        // the first query scans, the second builds the trie for "Am"
+        assertEquals(List.of("Happy","Ha"), index.suggest("Am", "H", 2));
+        assertEquals(0, index.indexedVertexCount());
+        assertEquals(List.of("Happy","Ha"), index.suggest("Am", "H", 2));
+        assertEquals(1, index.indexedVertexCount());
+
+        // asking for more than the precomputed words falls back to the prefix's whole range
+        assertEquals(List.of("Happy","Ha","Hungry"), index.suggest("Am", "H", 5));
+        assertEquals(List.of("Happy","Ha"), index.suggest("Am", "Ha", 2));
+        assertEquals(List.of(), index.suggest("Am", "Hx", 2));
+        assertEquals(List.of("Happy","Angieeeee"), index.suggest("Am", "", 2));
+
+        // new edges after the seed rebuild its trie on the next query
+        graph.addWords(List.of("I", "Am", "Hungry", "I", "Am", "Hungry", "I", "Am", "Hungry"));
+        assertEquals(List.of("Hungry","Happy"), index.suggest("Am", "H", 2));
+        assertEquals(1, index.indexedVertexCount());
+    }
+
+    @Test
+    void testCompressedPathsMatchScan(){
+        List<String> words = new ArrayList<>();
+        String[] after = {"in", "inter", "internal", "internals", "interest", "into", "intoxicated", "a", "ab", "abc"};
+        for(int i = 0; i < after.length; i++){
+            for(int j = 0; j <= i % 3; j++){
+                words.add("seed");
+                words.add(after[i]);
+            }
+        }
+        graph.addWords(words);
+        AutocompleteIndex scanned = new AutocompleteIndex(graph, 2, Integer.MAX_VALUE, 1);
+        AutocompleteIndex indexed = new AutocompleteIndex(graph, 2, 1, 1);
+
+        // prefixes that end inside an edge, on a node, past every word and before the first branch
+        for(String prefix : List.of("", "i", "in", "int", "inte", "interx", "internal", "internalsx", "into", "x", "a", "abcd")){
+            for(int k = 0; k <= 4; k++){
+                assertEquals(scanned.suggest("seed", prefix, k), indexed.suggest("seed", prefix, k));
+            }
+        }
+        assertEquals(1, indexed.indexedVertexCount());
+    }
+
+    @Test
+    void testQueryCountsAreBounded(){
+        List<String> words = new ArrayList<>();
+        for(int i = 0; i < 100; i++){
+            words.add("w" + i);
+        }
+        graph.addWords(words);
+        AutocompleteIndex index = new AutocompleteIndex(graph, 2, 3, 1);
+
+        // every seed is queried once, so none gets a trie, and only the most recent counts are kept
+        for(int i = 0; i < 99; i++){
+            assertEquals(List.of("w" + (i + 1)), index.suggest("w" + i, "w", 1));
+        }
+        assertEquals(0, index.indexedVertexCount());
+        assertEquals(8, index.countedSeedCount());
+
+        // a seed queried recently enough still reaches the threshold
+        index.suggest("w98", "", 1);
+        index.suggest("w98", "", 1);
+        assertEquals(1, index.indexedVertexCount());
+    }
+}
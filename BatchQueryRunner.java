@@ -0,0 +1,132 @@
+package comprehensive;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Class that answers a stream of queries against one graph, so a corpus only has to be loaded once for many queries.
+ * Each input line is "seed k" optionally followed by "one", "all" or "topk", meaning the same as TextGenerator's
+ * arguments, with "topk" (the default) returning the k most probable next words.
+ * Lines are read in blocks, each block is answered in parallel across cores, and the answers are written one line
+ * per query in input order. A query that cannot be answered gets a line starting with "error:" instead, and a blank
+ * line gets a blank answer, so output line n always belongs to input line n.
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class BatchQueryRunner {
+
+    private final MarkovGraph graph;
+    private final int blockSize;
+    private final ForkJoinPool pool; // null for the common pool
+
+    /**
+     * Creates a runner that answers blocks on the common pool
+     *
+     * @param graph MarkovGraph to answer queries from, which must not change while queries run
+     * @param blockSize int number of lines read and answered together, which bounds the memory used
+     */
+    public BatchQueryRunner(MarkovGraph graph, int blockSize){
+        this(graph, blockSize, null);
+    }
+
+    /**
+     * Creates a runner that answers blocks on its own pool, so the threads doing the work are known
+     *
+     * @param graph MarkovGraph to answer queries from, which must not change while queries run
+     * @param blockSize int number of lines read and answered together, which bounds the memory used
+     * @param pool ForkJoinPool the blocks are answered on, or null for the common pool
+     */
+    public BatchQueryRunner(MarkovGraph graph, int blockSize, ForkJoinPool pool){
+        if(blockSize < 1){
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.graph = graph;
+        this.blockSize = blockSize;
+        this.pool = pool;
+    }
+
+    /**
+     * Answers every query from the input and writes the answers to the output, which is flushed but not closed
+     *
+     * @param in BufferedReader of query lines
+     * @param out BufferedWriter the answers are written to
+     * @return long number of lines answered
+     * @throws IOException if reading or writing fails
+     */
+    public long run(BufferedReader in, BufferedWriter out) throws IOException {
+        long answered = 0;
+        List<String> block = new ArrayList<>(blockSize);
+        String[] answers = new String[blockSize];
+
+        String line = in.readLine();
+        while(line != null){
+
+            // reads the next block of lines
+            block.clear();
+            while(line != null && block.size() < blockSize){
+                block.add(line);
+                line = in.readLine();
+            }
+
+            // answers the block in parallel, each answer in the slot of its line, on the runner's pool if it has one
+            Runnable answerBlock = () -> IntStream.range(0, block.size()).parallel()
+                    .forEach(i -> answers[i] = answer(block.get(i)));
+            if(pool == null){
+                answerBlock.run();
+            }
+            else{
+                pool.submit(answerBlock).join();
+            }
+
+            for(int i = 0; i < block.size(); i++){
+                out.write(answers[i]);
+                out.newLine();
+            }
+            answered += block.size();
+        }
+        out.flush();
+        return answered;
+    }
+
+    /**
+     * Answers one query line
+     *
+     * @param line String of the form "seed k [one|all|topk]"
+     * @return String the answer words separated by spaces, or a message starting with "error:"
+     */
+    String answer(String line){
+        String[] parts = line.trim().split("\\s+");
+        if(parts.length == 1 && parts[0].isEmpty()){
+            return "";
+        }
+        if(parts.length < 2 || parts.length > 3){
+            return "error: expected \"seed k [one|all|topk]\"";
+        }
+
+        try{
+            String seed = parts[0];
+            int k = Integer.parseInt(parts[1]);
+            String mode = parts.length == 3 ? parts[2] : "topk";
+
+            List<String> words = switch(mode){
+                case "topk" -> graph.findKLargest(seed, k);
+                case "all" -> graph.generateWRS(seed, k);
+                case "one" -> graph.generateMostProbableChain(seed, k);
+                default -> throw new IllegalArgumentException("mode must be one, all or topk");
+            };
+            return String.join(" ", words);
+        }
+        catch(NumberFormatException e){
+            return "error: k is not a number";
+        }
+        catch(RuntimeException e){
+            return "error: " + e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package comprehensive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchQueryRunnerTest {
+
+    private MarkovGraph graph;
+
+    @BeforeEach
+    void setup(){
+        graph = new MarkovGraph(List.of("I", "Am","Angieeeee","I", "Am","Happy","I", "Am","Happy","I", "Am","Sad"));
+    }
+
+    @Test
+    void testAnswersInInputOrder() throws IOException {
+        String queries = "Am 3\nI 5 one\nmissing 2\n\nAm 2 topk\nAm two\nSad 4 all\nAm 1 sideways\n";
+        StringWriter output = new StringWriter();
+
+        // a block size of 2 makes the queries span several blocks
+        long answered = new BatchQueryRunner(graph, 2).run(new BufferedReader(new StringReader(queries)),
+                new BufferedWriter(output));
+
+        assertEquals(8, answered);
+        String[] lines = output.toString().split("\\R", -1);
+        assertEquals("Happy Angieeeee Sad", lines[0]);
+        assertEquals("I Am Happy I Am", lines[1]);
+        assertEquals("error: Seed word is not in graph", lines[2]);
+        assertEquals("", lines[3]);
+        assertEquals("Happy Angieeeee", lines[4]);
+        assertEquals("error: k is not a number", lines[5]);
+        assertEquals("Sad Sad Sad Sad", lines[6]);
+        assertTrue(lines[7].startsWith("error:"));
+    }
+
+    @Test
+    void testManyQueriesMatchSingleQueries() throws IOException {
+        StringBuilder queries = new StringBuilder();
+        for(int i = 0; i < 1000; i++){
+            queries.append(i % 2 == 0 ? "Am " : "I ").append(i % 4).append('\n');
+        }
+        StringWriter output = new StringWriter();
+        new BatchQueryRunner(graph, 64).run(new BufferedReader(new StringReader(queries.toString())), new BufferedWriter(output));
+
+        String[] lines = output.toString().split("\\R");
+        for(int i = 0; i < 1000; i++){
+            String seed = i % 2 == 0 ? "Am" : "I";
+            assertEquals(String.join(" ", graph.findKLargest(seed, i % 4)), lines[i]);
+        }
+    }
+}
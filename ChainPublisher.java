@@ -0,0 +1,233 @@
+package comprehensive;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class that publishes a weighted random chain one word at a time, as subscribers ask for words.
+ * Each subscriber gets its own chain starting at the seed, generated the same way as MarkovGraph.generateWRS,
+ * and no word is generated before it has been requested, so a slow subscriber never makes words pile up.
+ * A chain can be open ended, in which case it only ends when the subscriber cancels.
+ *
+ * Every subscription is a few fields: the current vertex, the words left, the outstanding demand and a work counter.
+ * Words are generated on the executor, at most batchSize per task, with demand updated once per batch. A task that
+ * used up its batch while demand remains resubmits itself instead of looping, so thousands of open streams share
+ * the executor's threads fairly. The work counter makes sure only one task runs per subscription at a time,
+ * so the subscriber's methods are never called concurrently.
+ * The graph must not change while chains are being published.
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class ChainPublisher implements Flow.Publisher<String> {
+
+    /** Chain length meaning the chain never ends on its own */
+    public static final long UNBOUNDED = Long.MAX_VALUE;
+
+    private final MarkovGraph graph;
+    private final VertexNode seed;
+    private final long length;
+    private final Executor executor;
+    private final int batchSize;
+
+    /**
+     * Creates a publisher of weighted random chains
+     *
+     * @param graph MarkovGraph to generate from
+     * @param seed String the starting word of every chain
+     * @param length long number of words in each chain, or UNBOUNDED
+     * @param executor Executor the words are generated on, which must run tasks on other threads
+     * @param batchSize int most words generated by one task
+     */
+    public ChainPublisher(MarkovGraph graph, String seed, long length, Executor executor, int batchSize){
+        if(length < 0){
+            throw new IllegalArgumentException("Length must not be negative");
+        }
+        if(batchSize < 1){
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.seed = graph.getVertex(graph.resolveSeed(seed));
+        this.graph = graph;
+        this.length = length;
+        this.executor = executor;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Starts a new chain for the subscriber. onSubscribe is called from the executor, like every other signal.
+     *
+     * @param subscriber Subscriber to receive the words
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super String> subscriber){
+        if(subscriber == null){
+            throw new NullPointerException("Subscriber must not be null");
+        }
+        new ChainSubscription(subscriber).signal();
+    }
+
+    /**
+     * One subscriber's chain and the demand it has asked for
+     */
+    private class ChainSubscription implements Flow.Subscription, Runnable {
+
+        private Flow.Subscriber<? super String> subscriber; // dropped once the chain has ended
+        private VertexNode current = seed;
+        private long remaining = length;
+        private boolean subscribed;
+
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger work = new AtomicInteger(); // signals not yet seen by the running task
+        private volatile boolean cancelled;
+        private volatile boolean badRequest;
+
+        /**
+         * Creates a subscription
+         *
+         * @param subscriber Subscriber to receive the words
+         */
+        ChainSubscription(Flow.Subscriber<? super String> subscriber){
+            this.subscriber = subscriber;
+        }
+
+        /**
+         * Asks for n more words. A non-positive n ends the chain with an IllegalArgumentException,
+         * as the Flow specification requires.
+         *
+         * @param n long number of words to add to the demand
+         */
+        @Override
+        public void request(long n){
+            if(n <= 0){
+                badRequest = true;
+            }
+            else{
+                // adds to the demand, which stays at Long.MAX_VALUE once it gets there
+                demand.getAndUpdate(d -> d + n < 0 ? Long.MAX_VALUE : d + n);
+            }
+            signal();
+        }
+
+        /**
+         * Stops the chain. Words already being delivered may still arrive, but no new task is started for it.
+         */
+        @Override
+        public void cancel(){
+            cancelled = true;
+            signal();
+        }
+
+        /**
+         * Runs a task on the executor unless one is already running, which will see the new signal instead
+         */
+        void signal(){
+            if(work.getAndIncrement() == 0){
+                executor.execute(this);
+            }
+        }
+
+        /**
+         * Delivers up to batchSize words, then either resubmits itself if more are wanted,
+         * or stops once no signal arrived while it ran
+         */
+        @Override
+        public void run(){
+            int seen = work.get();
+            while(true){
+                if(!subscribed){
+                    subscribed = true;
+                    try{
+                        subscriber.onSubscribe(this);
+                    }
+                    catch(RuntimeException e){
+                        abandon();
+                        return;
+                    }
+                }
+                if(finished()){
+                    return;
+                }
+
+                // generates as many words as were asked for, up to one batch, and takes them off the demand at once
+                long wanted = Math.min(Math.min(demand.get(), remaining), batchSize);
+                long emitted = 0;
+                try{
+                    while(emitted < wanted && !cancelled){
+                        String word = current.getWord();
+                        VertexNode next = graph.getVertex(current.getWeightedRandomNextWord());
+
+                        // if there were no available words, sets the current node back to the seed
+                        current = next == null ? seed : next;
+                        if(remaining != UNBOUNDED){
+                            remaining--;
+                        }
+                        emitted++;
+                        subscriber.onNext(word);
+                    }
+                }
+                catch(RuntimeException e){
+                    abandon();
+                    return;
+                }
+                if(emitted > 0 && demand.get() != Long.MAX_VALUE){
+                    demand.addAndGet(-emitted);
+                }
+                if(finished()){
+                    return;
+                }
+
+                // a full batch with demand left yields the thread to other chains and continues in a new task
+                if(emitted == batchSize && demand.get() > 0){
+                    executor.execute(this);
+                    return;
+                }
+
+                // stops only if no request or cancel arrived while this task ran
+                seen = work.addAndGet(-seen);
+                if(seen == 0){
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Ends the chain if it was cancelled, was sent a bad request, or has produced every word
+         *
+         * @return boolean true if the chain has ended
+         */
+        private boolean finished(){
+            if(subscriber == null){
+                return true;
+            }
+            if(cancelled){
+                subscriber = null;
+                return true;
+            }
+            if(badRequest){
+                Flow.Subscriber<? super String> s = subscriber;
+                subscriber = null;
+                cancelled = true;
+                s.onError(new IllegalArgumentException("Request must be positive"));
+                return true;
+            }
+            if(remaining == 0){
+                Flow.Subscriber<? super String> s = subscriber;
+                subscriber = null;
+                cancelled = true;
+                s.onComplete();
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Cancels the chain after the subscriber threw, which the Flow specification does not allow it to do
+         */
+        private void abandon(){
+            cancelled = true;
+            subscriber = null;
+        }
+    }
+}
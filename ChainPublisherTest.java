@@ -0,0 +1,176 @@
+package comprehensive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChainPublisherTest {
+
+    // daemon threads shared by every test, so no test has to shut the pool down
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(4, runnable -> {
+        Thread thread = new Thread(runnable, "chain-publisher-test");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private MarkovGraph graph;
+
+    /**
+     * Subscriber that records what it receives and asks for words only when the test tells it to
+     */
+    private static class RecordingSubscriber implements Flow.Subscriber<String> {
+        final List<String> words = new CopyOnWriteArrayList<>();
+        final CountDownLatch subscribed = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile Flow.Subscription subscription;
+        volatile Throwable error;
+        volatile boolean completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription){
+            this.subscription = subscription;
+            subscribed.countDown();
+        }
+
+        @Override
+        public void onNext(String word){
+            words.add(word);
+        }
+
+        @Override
+        public void onError(Throwable error){
+            this.error = error;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete(){
+            completed = true;
+            done.countDown();
+        }
+    }
+
+    @BeforeEach
+    void setup(){
+        graph = new MarkovGraph(List.of("I", "Am", "Happy", "I", "Am", "Sad", "I", "Am", "Here"));
+    }
+
+    @Test
+    void testWordsOnlyProducedOnDemand() throws InterruptedException {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        graph.publishWRS("I", 5, EXECUTOR, 2).subscribe(subscriber);
+        assertTrue(subscriber.subscribed.await(5, TimeUnit.SECONDS));
+
+        // nothing arrives before a request, and no more than was requested
+        Thread.sleep(50);
+        assertEquals(0, subscriber.words.size());
+        subscriber.subscription.request(3);
+        waitFor(() -> subscriber.words.size() == 3);
+        Thread.sleep(50);
+        assertEquals(3, subscriber.words.size());
+        assertFalse(subscriber.completed);
+
+        subscriber.subscription.request(10);
+        assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        assertTrue(subscriber.completed);
+        assertEquals(List.of("I", "Am"), subscriber.words.subList(0, 2));
+        assertEquals("I", subscriber.words.get(3));
+        assertEquals(5, subscriber.words.size());
+    }
+
+    @Test
+    void testCancelStopsUnboundedChain() throws InterruptedException {
+        AtomicInteger received = new AtomicInteger();
+        CountDownLatch cancelled = new CountDownLatch(1);
+        graph.publishWRS("Am", ChainPublisher.UNBOUNDED, EXECUTOR, 16).subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription){
+                this.subscription = subscription;
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(String word){
+                if(received.incrementAndGet() == 1000){
+                    subscription.cancel();
+                    cancelled.countDown();
+                }
+            }
+
+            @Override
+            public void onError(Throwable error){}
+
+            @Override
+            public void onComplete(){}
+        });
+
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertEquals(1000, received.get());
+    }
+
+    @Test
+    void testNonPositiveRequestSignalsError() throws InterruptedException {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        graph.publishWRS("I", 5, EXECUTOR, 8).subscribe(subscriber);
+        assertTrue(subscriber.subscribed.await(5, TimeUnit.SECONDS));
+        subscriber.subscription.request(0);
+        assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertEquals(0, subscriber.words.size());
+    }
+
+    @Test
+    void testManyConcurrentStreams() throws InterruptedException {
+        Flow.Publisher<String> publisher = graph.publishWRS("I", 300, EXECUTOR, 32);
+        RecordingSubscriber[] subscribers = new RecordingSubscriber[2000];
+        for(int i = 0; i < subscribers.length; i++){
+            subscribers[i] = new RecordingSubscriber();
+            publisher.subscribe(subscribers[i]);
+        }
+        for(RecordingSubscriber subscriber : subscribers){
+            assertTrue(subscriber.subscribed.await(5, TimeUnit.SECONDS));
+            subscriber.subscription.request(100);
+            subscriber.subscription.request(200);
+        }
+
+        // every stream is a chain of the graph: "Am" always follows "I", and "I" follows every other word
+        for(RecordingSubscriber subscriber : subscribers){
+            assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+            assertTrue(subscriber.completed);
+            assertEquals(300, subscriber.words.size());
+            for(int i = 1; i < subscriber.words.size(); i++){
+                String previous = subscriber.words.get(i - 1);
+                String expected = previous.equals("I") ? "Am" : previous.equals("Am") ? null : "I";
+                if(expected != null){
+                    assertEquals(expected, subscriber.words.get(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits up to five seconds for a condition to become true
+     *
+     * @param condition the condition to wait for
+     */
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while(!condition.getAsBoolean() && System.nanoTime() < deadline){
+            Thread.sleep(1);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,79 @@
+package comprehensive;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Class that opens corpus files whether or not they are compressed.
+ * The format is detected from the first bytes of the file using the registered codecs (gzip by default),
+ * and compressed files are decompressed on a read-ahead thread so decompression runs at the same time as tokenizing.
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class CompressedInput {
+
+    private static final int HEADER_SIZE = 16;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final List<CompressionCodec> codecs = new CopyOnWriteArrayList<>(List.of(new GzipCodec()));
+
+    /**
+     * Adds a codec for another compression format. Codecs registered later are checked first.
+     *
+     * @param codec CompressionCodec to add
+     */
+    public static void registerCodec(CompressionCodec codec){
+        codecs.add(0, codec);
+    }
+
+    /**
+     * Opens a file for reading its decompressed bytes
+     *
+     * @param path Path of the file
+     * @return InputStream of the file contents, decompressed if a codec matched
+     * @throws IOException if the file cannot be opened
+     */
+    public static InputStream open(Path path) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE);
+
+        // peeks at the header, then rewinds so the codec sees the whole file
+        byte[] header = new byte[HEADER_SIZE];
+        in.mark(HEADER_SIZE);
+        int length = in.readNBytes(header, 0, HEADER_SIZE);
+        in.reset();
+
+        CompressionCodec codec = detect(header, length);
+        if(codec == null){
+            return in;
+        }
+
+        try{
+            return new ReadAheadInputStream(codec.decompress(in));
+        } catch (IOException e){
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Finds the codec for a file header
+     *
+     * @param header byte array of the first bytes of the file
+     * @param length int number of bytes in the header
+     * @return CompressionCodec that matches, or null if the file is not compressed
+     */
+    static CompressionCodec detect(byte[] header, int length){
+        for(CompressionCodec codec : codecs){
+            if(codec.matches(header, length)){
+                return codec;
+            }
+        }
+        return null;
+    }
+}
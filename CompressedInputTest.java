@@ -0,0 +1,61 @@
+package comprehensive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedInputTest {
+
+    private Path directory;
+    private String text;
+
+    @BeforeEach
+    void setup() throws IOException {
+        directory = Files.createTempDirectory("compressed");
+        StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < 50000; i++){
+            builder.append("Word").append(i % 97).append(", ");
+        }
+        text = builder.toString();
+    }
+
+    @Test
+    void testGzipIsDetectedAndDecompressed() throws IOException {
+        Path file = directory.resolve("corpus.txt.gz");
+        try(OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))){
+            out.write(text.getBytes());
+        }
+
+        try(InputStream in = CompressedInput.open(file)){
+            assertTrue(in instanceof ReadAheadInputStream);
+            assertEquals(text, new String(in.readAllBytes()));
+        }
+        assertEquals(50000, TextGenerator.FileToTextCleanup(file.toString()).size());
+    }
+
+    @Test
+    void testPlainFileIsReadAsIs() throws IOException {
+        Path file = directory.resolve("corpus.txt");
+        Files.writeString(file, "The cat sat");
+        assertEquals(List.of("the", "cat", "sat"), TextGenerator.FileToTextCleanup(file.toString()));
+    }
+
+    @Test
+    void testReadAheadWithSmallBuffers() throws IOException {
+        byte[] bytes = text.getBytes();
+        try(InputStream in = new ReadAheadInputStream(new ByteArrayInputStream(bytes), 7, 2)){
+            assertEquals(text, new String(in.readAllBytes()));
+            assertEquals(-1, in.read());
+        }
+    }
+}
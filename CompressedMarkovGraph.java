@@ -0,0 +1,653 @@
+package comprehensive;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Class that represents a read-only MarkovGraph with its edges compressed into one byte array, for models that would
+ * not fit in memory otherwise. Words, ids and occurrences are the same as in the IndexedMarkovGraph it is made from.
+ * The edges of vertex v start at data[vertexOffset[v]] and are stored as:
+ * a varint of (degree << 2 | width code), a varint of the count total, every count at the same width of 1, 2 or 4
+ * bytes, chosen per vertex as the smallest width that fits its largest count, and then the ids of the following words
+ * in increasing order as varints of the difference from the previous id.
+ * Most following words are close in id to the previous one and most counts are 1 or 2, so a typical edge takes
+ * two or three bytes instead of the eight of IndexedMarkovGraph or the boxed Integer and map entry of VertexNode.
+ * Because counts have a fixed width they can be read without decoding anything before them. Ids have to be decoded
+ * in order, so vertices with more than BLOCK edges also get a block index: for every BLOCK edges, the running total of
+ * the counts before the block, the id before the block and where the block's ids start. A weighted random pick or an
+ * id lookup then binary searches the blocks and decodes at most BLOCK edges, even for the most common words.
+ * Top-k decodes the vertex into arrays and uses the same heap as IndexedMarkovGraph.
+ * A graph made from a renumbered IndexedMarkovGraph keeps its lexicographical ranks to break ties the same way.
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class CompressedMarkovGraph {
+
+    private static final int[] WIDTHS = {1, 2, 4}; // bytes per count for each width code
+    private static final int BLOCK = 32;           // edges per block of the block index
+
+    private final WordArena vocabulary;
+    private final int[] occurrences;
+    private final int[] vertexOffset;
+    private final byte[] data;
+    private final int numEdges;
+
+    private final int[] blockStart;       // blocks of vertex v are from blockStart[v] to blockStart[v + 1]
+    private final int[] blockCumulative;  // running total of the counts before each block
+    private final int[] blockBase;        // id of the edge before each block, 0 for the first block
+    private final int[] blockPosition;    // index in data of the first id of each block
+
+    private final int[] tieRank;          // lexicographical rank of each id, null when ids are in lexicographical order
+    private final int[] rankedId;         // id of each lexicographical rank, null when ids are in lexicographical order
+
+    /**
+     * Creates a graph from its arrays
+     *
+     * @param vocabulary WordArena of the words
+     * @param occurrences int array of the number of times each word occurs
+     * @param vertexOffset int array of where each vertex's edges start in data
+     * @param data byte array of the encoded edges
+     * @param numEdges int total number of edges
+     * @param blockStart int array of where each vertex's blocks start, with one extra entry for the end
+     * @param blockCumulative int array of the running count total before each block
+     * @param blockBase int array of the id before each block
+     * @param blockPosition int array of where each block's ids start in data
+     * @param tieRank int array of the lexicographical rank of each id, or null if ids are in lexicographical order
+     */
+    private CompressedMarkovGraph(WordArena vocabulary, int[] occurrences, int[] vertexOffset, byte[] data, int numEdges,
+                                  int[] blockStart, int[] blockCumulative, int[] blockBase, int[] blockPosition,
+                                  int[] tieRank){
+        this.vocabulary = vocabulary;
+        this.occurrences = occurrences;
+        this.vertexOffset = vertexOffset;
+        this.data = data;
+        this.numEdges = numEdges;
+        this.blockStart = blockStart;
+        this.blockCumulative = blockCumulative;
+        this.blockBase = blockBase;
+        this.blockPosition = blockPosition;
+        this.tieRank = tieRank;
+        if(tieRank == null){
+            rankedId = null;
+        }
+        else{
+            rankedId = new int[tieRank.length];
+            for(int id = 0; id < tieRank.length; id++){
+                rankedId[tieRank[id]] = id;
+            }
+        }
+    }
+
+    /**
+     * Builds a compressed graph directly from a text file, which may be compressed itself
+     *
+     * @param path Path of the text file
+     * @return CompressedMarkovGraph of the words in the file
+     * @throws IOException if the file cannot be read
+     */
+    public static CompressedMarkovGraph fromFile(Path path) throws IOException {
+        return IndexedMarkovGraph.fromFile(path).compress();
+    }
+
+    /**
+     * Returns the number of distinct words in the graph
+     *
+     * @return int number of vertices
+     */
+    public int vertexCount(){
+        return occurrences.length;
+    }
+
+    /**
+     * Returns the number of distinct (word, following word) pairs in the graph
+     *
+     * @return int number of edges
+     */
+    public int edgeCount(){
+        return numEdges;
+    }
+
+    /**
+     * Returns the id of a word
+     *
+     * @param word String the word
+     * @return int id of the word, or -1 if it is not in the graph
+     */
+    public int idOf(String word){
+        return vocabulary.find(word);
+    }
+
+    /**
+     * Returns the word with an id
+     *
+     * @param id int id of the word
+     * @return String the word
+     */
+    public String wordOf(int id){
+        return vocabulary.getWord(id);
+    }
+
+    /**
+     * Returns the number of times a word occurs
+     *
+     * @param id int id of the word
+     * @return int number of occurrences
+     */
+    public int getNumOccurrences(int id){
+        return occurrences[id];
+    }
+
+    /**
+     * Returns the number of words that have come after a word
+     *
+     * @param id int id of the word
+     * @return int the sum of the counts of every following word
+     */
+    public int getNumAfterWords(int id){
+        int position = skipVarint(vertexOffset[id]);
+        return readVarint(position);
+    }
+
+    /**
+     * Returns the number of distinct words that follow a word
+     *
+     * @param id int id of the word
+     * @return int number of edges out of the word
+     */
+    public int degree(int id){
+        return readVarint(vertexOffset[id]) >>> 2;
+    }
+
+    /**
+     * Returns the number of times one word follows another, decoding the ids of at most one block
+     *
+     * @param from int id of the first word
+     * @param to int id of the following word
+     * @return int the count of the edge, or 0 if there is none
+     */
+    public int getEdgeCount(int from, int to){
+        int position = vertexOffset[from];
+        int header = readVarint(position);
+        int countsStart = skipVarint(skipVarint(position));
+        int degree = header >>> 2;
+        int width = WIDTHS[header & 3];
+
+        // starts from the last block whose ids are all after its base id that is smaller than the word
+        int edge = 0;
+        int target = 0;
+        position = countsStart + degree * width;
+        int firstBlock = blockStart[from];
+        int lastBlock = blockStart[from + 1] - 1;
+        if(lastBlock >= firstBlock){
+            int block = firstBlock;
+            int low = firstBlock + 1;
+            int high = lastBlock;
+            while(low <= high){
+                int mid = (low + high) >>> 1;
+                if(blockBase[mid] < to){
+                    block = mid;
+                    low = mid + 1;
+                }
+                else{
+                    high = mid - 1;
+                }
+            }
+            edge = (block - firstBlock) * BLOCK;
+            target = blockBase[block];
+            position = blockPosition[block];
+        }
+
+        // the ids are increasing, so the search stops at the first id that is not smaller
+        for(; edge < degree; edge++){
+            target += readVarint(position);
+            position = skipVarint(position);
+            if(target >= to){
+                return target == to ? readCount(countsStart, width, edge) : 0;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns a list of the k most probable next words if the seed word exists
+     *
+     * @param seed String, the word to search for the k most probable words that come after it
+     * @param k int the number of most probable words to return that comes after the current word
+     * @return List of most probable words that come after the seed word
+     */
+    public List<String> findKLargest(String seed, int k){
+        int[] ids = kMostProbable(requireId(seed), k);
+        List<String> output = new ArrayList<>(ids.length);
+        for(int id : ids){
+            output.add(vocabulary.getWord(id));
+        }
+        return output;
+    }
+
+    /**
+     * Returns the ids of the k most probable next words in descending order, ties broken by lexicographical order
+     *
+     * @param id int id of the word
+     * @param k int number of words to return
+     * @return int array of at most k ids
+     */
+    public int[] kMostProbable(int id, int k){
+        if(k < 0){
+            throw new IllegalArgumentException("k is out of bounds");
+        }
+
+        int position = vertexOffset[id];
+        int header = readVarint(position);
+        int countsStart = skipVarint(skipVarint(position));
+        int degree = header >>> 2;
+        int width = WIDTHS[header & 3];
+
+        // decodes the ids into an array once, then looks up the chosen positions
+        int[] targets = new int[degree];
+        int target = 0;
+        position = countsStart + degree * width;
+        for(int i = 0; i < degree; i++){
+            target += readVarint(position);
+            position = skipVarint(position);
+            targets[i] = target;
+        }
+
+        // with lexicographical ids the ids are increasing in rank, so packing the position breaks ties by smaller word,
+        // otherwise the rank of the target is packed instead and mapped back to its id
+        long[] keys = new long[degree];
+        for(int i = 0; i < degree; i++){
+            keys[i] = LongDaryMaxHeap.pack(readCount(countsStart, width, i), tieRank == null ? i : tieRank[targets[i]]);
+        }
+        long[] top = new LongDaryMaxHeap(keys).topK(k);
+
+        int[] output = new int[top.length];
+        for(int i = 0; i < top.length; i++){
+            int packedId = LongDaryMaxHeap.unpackId(top[i]);
+            output[i] = tieRank == null ? targets[packedId] : rankedId[packedId];
+        }
+        return output;
+    }
+
+    /**
+     * Returns the most frequent next word, ties broken by lexicographical order
+     *
+     * @param id int id of the word
+     * @return int id of the most probable next word, or -1 if no word follows it
+     */
+    public int mostProbableNext(int id){
+        int position = vertexOffset[id];
+        int header = readVarint(position);
+        int countsStart = skipVarint(skipVarint(position));
+        int degree = header >>> 2;
+        int width = WIDTHS[header & 3];
+        int idsStart = countsStart + degree * width;
+        if(degree == 0){
+            return -1;
+        }
+
+        // finds the position of the largest count, then decodes only the id at that position,
+        // decoding the ids of equal counts too when ids are not in lexicographical order
+        int best = 0;
+        int bestCount = 0;
+        for(int i = 0; i < degree; i++){
+            int count = readCount(countsStart, width, i);
+            if(count > bestCount || count == bestCount && tieRank != null
+                    && tieRank[targetAt(id, idsStart, i)] < tieRank[targetAt(id, idsStart, best)]){
+                best = i;
+                bestCount = count;
+            }
+        }
+        return targetAt(id, idsStart, best);
+    }
+
+    /**
+     * Picks a random next word with probability proportional to how often it follows the word.
+     * Draws the same word as IndexedMarkovGraph.weightedRandomNext for the same Random, by scanning the counts
+     * until their running total passes the random number.
+     *
+     * @param id int id of the word
+     * @param random Random to draw from
+     * @return int id of the chosen next word, or -1 if no word follows it
+     */
+    public int weightedRandomNext(int id, Random random){
+        int position = vertexOffset[id];
+        int header = readVarint(position);
+        position = skipVarint(position);
+        int total = readVarint(position);
+        int countsStart = skipVarint(position);
+        int degree = header >>> 2;
+        int width = WIDTHS[header & 3];
+        if(degree == 0){
+            return -1;
+        }
+        int target = random.nextInt(total);
+
+        // starts from the last block whose running total before it is not greater than the random number
+        int edge = 0;
+        int cumulative = 0;
+        int firstBlock = blockStart[id];
+        int lastBlock = blockStart[id + 1] - 1;
+        if(lastBlock > firstBlock){
+            int low = firstBlock;
+            int high = lastBlock;
+            while(low < high){
+                int mid = (low + high + 1) >>> 1;
+                if(blockCumulative[mid] <= target){
+                    low = mid;
+                }
+                else{
+                    high = mid - 1;
+                }
+            }
+            edge = (low - firstBlock) * BLOCK;
+            cumulative = blockCumulative[low];
+        }
+
+        // finds the first edge whose running total is greater than the random number
+        cumulative += readCount(countsStart, width, edge);
+        while(cumulative <= target){
+            edge++;
+            cumulative += readCount(countsStart, width, edge);
+        }
+        return targetAt(id, countsStart + degree * width, edge);
+    }
+
+    /**
+     * Generates a chain of length k that chooses each word by taking
+     * the most probable next word from each previous word
+     *
+     * @param seed String the starting word
+     * @param k int the length of the output chain
+     * @return List the chain of most probable next words
+     */
+    public List<String> generateMostProbableChain(String seed, int k){
+        int seedId = requireId(seed);
+        int current = seedId;
+        List<String> outputChain = new ArrayList<>();
+
+        for(int i = 0; i < k; i++){
+            outputChain.add(vocabulary.getWord(current));
+            current = mostProbableNext(current);
+
+            // if there were no available words, sets the current word back to the seed
+            if(current < 0){
+                current = seedId;
+            }
+        }
+        return outputChain;
+    }
+
+    /**
+     * Generates a chain of length k that chooses each word by taking
+     * a weighted random next word from each previous word
+     *
+     * @param seed String the starting word
+     * @param k int the length of the output chain
+     * @return List of weighted random next words that form a chain
+     */
+    public List<String> generateWRS(String seed, int k){
+        int seedId = requireId(seed);
+        int current = seedId;
+        Random random = new Random();
+        List<String> outputChain = new ArrayList<>();
+
+        for(int i = 0; i < k; i++){
+            outputChain.add(vocabulary.getWord(current));
+            current = weightedRandomNext(current, random);
+
+            // if there were no available words, sets the current word back to the seed
+            if(current < 0){
+                current = seedId;
+            }
+        }
+        return outputChain;
+    }
+
+    /**
+     * Estimates the memory used by the graph's arrays, including the vocabulary
+     *
+     * @return long number of bytes
+     */
+    public long memoryBytes(){
+        return vocabulary.memoryBytes() + data.length + 4L * (occurrences.length + vertexOffset.length
+                + blockStart.length + blockCumulative.length + blockBase.length + blockPosition.length
+                + (tieRank == null ? 0 : 2L * tieRank.length));
+    }
+
+    /**
+     * Reads an unsigned LEB128 varint: 7 bits per byte, low bits first, with the top bit set on every byte but the last
+     *
+     * @param position int index of the first byte
+     * @return int the decoded value
+     */
+    private int readVarint(int position){
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do{
+            b = data[position++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        }
+        while(b < 0);
+        return value;
+    }
+
+    /**
+     * Returns the index after a varint
+     *
+     * @param position int index of the first byte of the varint
+     * @return int index of the byte after it
+     */
+    private int skipVarint(int position){
+        while(data[position] < 0){
+            position++;
+        }
+        return position + 1;
+    }
+
+    /**
+     * Reads the count of an edge
+     *
+     * @param countsStart int index of the first count of the vertex
+     * @param width int number of bytes per count
+     * @param edge int position of the edge within the vertex
+     * @return int the count
+     */
+    private int readCount(int countsStart, int width, int edge){
+        int position = countsStart + edge * width;
+        return switch(width){
+            case 1 -> data[position] & 0xFF;
+            case 2 -> (data[position] & 0xFF) | (data[position + 1] & 0xFF) << 8;
+            default -> (data[position] & 0xFF) | (data[position + 1] & 0xFF) << 8
+                    | (data[position + 2] & 0xFF) << 16 | (data[position + 3] & 0xFF) << 24;
+        };
+    }
+
+    /**
+     * Decodes the id of one edge, starting from the block it is in
+     *
+     * @param id int id of the vertex
+     * @param idsStart int index of the first id of the vertex
+     * @param edge int position of the edge within the vertex
+     * @return int id the edge goes to
+     */
+    private int targetAt(int id, int idsStart, int edge){
+        int position = idsStart;
+        int target = 0;
+        int first = 0;
+        if(blockStart[id + 1] > blockStart[id]){
+            int block = blockStart[id] + edge / BLOCK;
+            position = blockPosition[block];
+            target = blockBase[block];
+            first = edge - edge % BLOCK;
+        }
+
+        for(int i = first; i <= edge; i++){
+            target += readVarint(position);
+            position = skipVarint(position);
+        }
+        return target;
+    }
+
+    /**
+     * Returns the id of a seed word, throwing if it is not in the graph
+     *
+     * @param seed String the seed word
+     * @return int id of the seed
+     */
+    private int requireId(String seed){
+        int id = vocabulary.find(seed);
+        if(id < 0){
+            throw new NoSuchElementException("Seed word is not in graph");
+        }
+        return id;
+    }
+
+    /**
+     * Encodes vertices one at a time, in id order, into the byte array of a CompressedMarkovGraph
+     */
+    static class Encoder {
+
+        private final WordArena vocabulary;
+        private final int[] occurrences;
+        private final int[] tieRank;
+        private final int[] vertexOffset;
+        private final int[] blockStart;
+        private byte[] data = new byte[1 << 12];
+        private int used;
+        private int numVertices;
+        private int numEdges;
+
+        private int[] blockCumulative = new int[16];
+        private int[] blockBase = new int[16];
+        private int[] blockPosition = new int[16];
+        private int numBlocks;
+
+        /**
+         * Creates an encoder for a graph's words
+         *
+         * @param vocabulary WordArena of the words
+         * @param occurrences int array of the number of times each word occurs
+         * @param tieRank int array of the lexicographical rank of each id, or null if ids are in lexicographical order
+         */
+        Encoder(WordArena vocabulary, int[] occurrences, int[] tieRank){
+            this.vocabulary = vocabulary;
+            this.occurrences = occurrences;
+            this.tieRank = tieRank;
+            this.vertexOffset = new int[occurrences.length];
+            this.blockStart = new int[occurrences.length + 1];
+        }
+
+        /**
+         * Encodes the edges of the next vertex
+         *
+         * @param targets int array holding the ids of the following words in increasing order
+         * @param counts int array holding the count of each edge
+         * @param from int index of the vertex's first edge in both arrays
+         * @param to int index after its last edge
+         */
+        void addVertex(int[] targets, int[] counts, int from, int to){
+            int degree = to - from;
+            int max = 0;
+            int total = 0;
+            for(int i = from; i < to; i++){
+                max = Math.max(max, counts[i]);
+                total += counts[i];
+            }
+            int code = max <= 0xFF ? 0 : max <= 0xFFFF ? 1 : 2;
+            int width = WIDTHS[code];
+
+            // the most the vertex can take: two header varints, the counts and five bytes per id
+            ensureCapacity(10 + degree * (width + 5));
+            vertexOffset[numVertices] = used;
+            blockStart[numVertices] = numBlocks;
+            numVertices++;
+            writeVarint(degree << 2 | code);
+            writeVarint(total);
+
+            for(int i = from; i < to; i++){
+                for(int b = 0; b < width; b++){
+                    data[used++] = (byte) (counts[i] >>> (8 * b));
+                }
+            }
+
+            // vertices with more than one block of edges get an entry at the start of every block
+            int previous = 0;
+            int cumulative = 0;
+            for(int i = from; i < to; i++){
+                if(degree > BLOCK && (i - from) % BLOCK == 0){
+                    addBlock(cumulative, previous, used);
+                }
+                writeVarint(targets[i] - previous);
+                previous = targets[i];
+                cumulative += counts[i];
+            }
+            blockStart[numVertices] = numBlocks;
+            numEdges += degree;
+        }
+
+        /**
+         * Finishes the graph once every vertex has been added
+         *
+         * @return CompressedMarkovGraph of the encoded vertices
+         */
+        CompressedMarkovGraph build(){
+            if(numVertices != occurrences.length){
+                throw new IllegalStateException("Only " + numVertices + " of " + occurrences.length + " vertices were added");
+            }
+            return new CompressedMarkovGraph(vocabulary, occurrences, vertexOffset, Arrays.copyOf(data, used), numEdges,
+                    blockStart, Arrays.copyOf(blockCumulative, numBlocks), Arrays.copyOf(blockBase, numBlocks),
+                    Arrays.copyOf(blockPosition, numBlocks), tieRank);
+        }
+
+        /**
+         * Adds an entry to the block index
+         *
+         * @param cumulative int running count total before the block
+         * @param base int id of the edge before the block
+         * @param position int index in data of the block's first id
+         */
+        private void addBlock(int cumulative, int base, int position){
+            if(numBlocks == blockCumulative.length){
+                blockCumulative = Arrays.copyOf(blockCumulative, numBlocks * 2);
+                blockBase = Arrays.copyOf(blockBase, numBlocks * 2);
+                blockPosition = Arrays.copyOf(blockPosition, numBlocks * 2);
+            }
+            blockCumulative[numBlocks] = cumulative;
+            blockBase[numBlocks] = base;
+            blockPosition[numBlocks] = position;
+            numBlocks++;
+        }
+
+        /**
+         * Grows the byte array so at least the given number of bytes fit after the ones in use
+         *
+         * @param bytes int number of bytes needed
+         */
+        private void ensureCapacity(int bytes){
+            if(used + bytes > data.length){
+                data = Arrays.copyOf(data, Math.max(data.length * 2, used + bytes));
+            }
+        }
+
+        /**
+         * Writes an unsigned LEB128 varint
+         *
+         * @param value int non-negative value to write
+         */
+        private void writeVarint(int value){
+            while((value & ~0x7F) != 0){
+                data[used++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[used++] = (byte) value;
+        }
+    }
+}
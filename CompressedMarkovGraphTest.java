@@ -0,0 +1,101 @@
+package comprehensive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedMarkovGraphTest {
+
+    private IndexedMarkovGraph indexed;
+    private CompressedMarkovGraph compressed;
+
+    @BeforeEach
+    void setup() throws IOException {
+        indexed = IndexedMarkovGraph.fromFile(Path.of("src/comprehensive/shrek.txt"));
+        compressed = indexed.compress();
+    }
+
+    @Test
+    void testSameAsIndexedGraph(){
+        assertEquals(indexed.vertexCount(), compressed.vertexCount());
+        assertEquals(indexed.edgeCount(), compressed.edgeCount());
+        for(int id = 0; id < indexed.vertexCount(); id++){
+            String word = indexed.wordOf(id);
+            assertEquals(id, compressed.idOf(word));
+            assertEquals(indexed.getNumOccurrences(id), compressed.getNumOccurrences(id));
+            assertEquals(indexed.getNumAfterWords(id), compressed.getNumAfterWords(id));
+            assertEquals(indexed.degree(id), compressed.degree(id));
+            assertEquals(indexed.findKLargest(word, 5), compressed.findKLargest(word, 5));
+            assertEquals(indexed.generateMostProbableChain(word, 10), compressed.generateMostProbableChain(word, 10));
+        }
+        assertTrue(compressed.memoryBytes() < indexed.memoryBytes());
+    }
+
+    @Test
+    void testEdgeCounts(){
+
+        // the word with the most following words is split into blocks
+        int widest = 0;
+        for(int id = 0; id < indexed.vertexCount(); id++){
+            if(indexed.degree(id) > indexed.degree(widest)){
+                widest = id;
+            }
+        }
+        assertTrue(indexed.degree(widest) > 64);
+
+        for(int from : new int[] {indexed.idOf("lord"), widest}){
+            for(int to = 0; to < indexed.vertexCount(); to++){
+                assertEquals(indexed.getEdgeCount(from, to), compressed.getEdgeCount(from, to));
+            }
+        }
+    }
+
+    @Test
+    void testWeightedRandomMatchesIndexedGraph(){
+        Random random1 = new Random(5);
+        Random random2 = new Random(5);
+        for(int i = 0; i < 20; i++){
+            for(int id = 0; id < indexed.vertexCount(); id++){
+                assertEquals(indexed.weightedRandomNext(id, random1), compressed.weightedRandomNext(id, random2));
+            }
+        }
+    }
+
+    @Test
+    void testWideCounts(){
+
+        // 70000 "a b" pairs need 4 byte counts for a, 300 "b c" pairs need 2 byte counts for b
+        IndexedMarkovGraph.Builder builder = new IndexedMarkovGraph.Builder();
+        WordArena words = builder.getVocabulary();
+        int a = words.intern(new byte[] {'a'}, 0, 1);
+        int b = words.intern(new byte[] {'b'}, 0, 1);
+        int c = words.intern(new byte[] {'c'}, 0, 1);
+        for(int i = 0; i < 70000; i++){
+            builder.add(a);
+            builder.add(b);
+            builder.endChain();
+        }
+        for(int i = 0; i < 300; i++){
+            builder.add(b);
+            builder.add(c);
+            builder.endChain();
+        }
+        builder.add(a);
+        builder.add(c);
+
+        CompressedMarkovGraph graph = builder.build().compress();
+        assertEquals(70000, graph.getEdgeCount(graph.idOf("a"), graph.idOf("b")));
+        assertEquals(1, graph.getEdgeCount(graph.idOf("a"), graph.idOf("c")));
+        assertEquals(300, graph.getEdgeCount(graph.idOf("b"), graph.idOf("c")));
+        assertEquals(List.of("b", "c"), graph.findKLargest("a", 3));
+        assertEquals(70001, graph.getNumAfterWords(graph.idOf("a")));
+        assertEquals(new ArrayList<>(List.of("c", "c")), graph.generateWRS("c", 2));
+    }
+}
@@ -0,0 +1,39 @@
+package comprehensive;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Interface for a compression format that corpus files can be stored in.
+ * Codecs are registered with CompressedInput, which picks one by looking at the first bytes of a file.
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public interface CompressionCodec {
+
+    /**
+     * Returns the name of the format, for example "gzip"
+     *
+     * @return String name of the format
+     */
+    public String name();
+
+    /**
+     * Returns true if a file starting with the given bytes is in this format
+     *
+     * @param header byte array holding the first bytes of the file
+     * @param length int number of bytes in header that were read, which may be less than its length for short files
+     * @return boolean true if this codec can decompress the file
+     */
+    public boolean matches(byte[] header, int length);
+
+    /**
+     * Wraps a stream of compressed bytes in a stream of decompressed bytes
+     *
+     * @param compressed InputStream positioned at the start of the compressed data
+     * @return InputStream of decompressed bytes
+     * @throws IOException if the compressed data cannot be read
+     */
+    public InputStream decompress(InputStream compressed) throws IOException;
+}
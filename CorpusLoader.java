@@ -0,0 +1,254 @@
+package comprehensive;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Class that builds a MarkovGraph from many files: a single file, every file under a directory, or a glob pattern.
+ * Files are tokenized in parallel on a fixed pool of threads while the graph is built on the calling thread.
+ * At most a fixed number of files are read ahead of the graph, so memory stays bounded no matter how many files there are.
+ * Files are added to the graph in sorted path order, so the result does not depend on which thread finishes first.
+ * By default no transitions are added from the last word of one file to the first word of the next.
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class CorpusLoader {
+
+    private final int numThreads;
+    private final int maxFilesInFlight;
+    private final boolean linkAcrossFiles;
+
+    /**
+     * Creates a loader with one thread per core, two files in flight per thread, and no links across files
+     */
+    public CorpusLoader(){
+        this(Runtime.getRuntime().availableProcessors(), 2 * Runtime.getRuntime().availableProcessors(), false);
+    }
+
+    /**
+     * Creates a loader
+     *
+     * @param numThreads int number of threads tokenizing files
+     * @param maxFilesInFlight int number of tokenized files that may wait for the graph at once
+     * @param linkAcrossFiles boolean true to chain the last word of each file to the first word of the next file
+     */
+    public CorpusLoader(int numThreads, int maxFilesInFlight, boolean linkAcrossFiles){
+        if(numThreads < 1 || maxFilesInFlight < 1){
+            throw new IllegalArgumentException("Thread count and files in flight must be positive");
+        }
+        this.numThreads = numThreads;
+        this.maxFilesInFlight = maxFilesInFlight;
+        this.linkAcrossFiles = linkAcrossFiles;
+    }
+
+    /**
+     * Returns true if the argument names a directory or is a glob pattern, rather than a single file
+     *
+     * @param pathOrPattern String path or glob pattern
+     * @return boolean true if it should be loaded with a CorpusLoader
+     */
+    public static boolean isCorpusPattern(String pathOrPattern){
+        return isGlob(pathOrPattern) || Files.isDirectory(Paths.get(pathOrPattern));
+    }
+
+    /**
+     * Builds a graph from a file, a directory (including subdirectories) or a glob pattern such as "corpus/**.txt"
+     *
+     * @param pathOrPattern String path or glob pattern
+     * @return MarkovGraph built from every matching file
+     * @throws IOException if no file matches or a file cannot be read
+     */
+    public MarkovGraph load(String pathOrPattern) throws IOException {
+        return load(pathOrPattern, null);
+    }
+
+    /**
+     * Builds a graph like load(pathOrPattern), recording the loading as a "load" phase of a profiler
+     *
+     * @param pathOrPattern String path or glob pattern
+     * @param profiler PhaseProfiler to record the phase in, or null
+     * @return MarkovGraph built from every matching file
+     * @throws IOException if no file matches or a file cannot be read
+     */
+    public MarkovGraph load(String pathOrPattern, PhaseProfiler profiler) throws IOException {
+        MarkovGraph graph = new MarkovGraph();
+        loadInto(graph, resolve(pathOrPattern), profiler);
+        return graph;
+    }
+
+    /**
+     * Finds the files named by a path or glob pattern, in sorted order
+     *
+     * @param pathOrPattern String path of a file or directory, or a glob pattern
+     * @return List of Paths of regular files
+     * @throws IOException if no file matches or a directory cannot be listed
+     */
+    public static List<Path> resolve(String pathOrPattern) throws IOException {
+        List<Path> files;
+
+        if(isGlob(pathOrPattern)){
+
+            // walks from the deepest directory that has no glob characters, keeping files that match the whole pattern
+            Path base = globBase(pathOrPattern);
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pathOrPattern);
+            try(Stream<Path> walk = Files.walk(base)){
+                files = walk.filter(Files::isRegularFile).filter(matcher::matches).toList();
+            }
+        }
+        else if(Files.isDirectory(Paths.get(pathOrPattern))){
+            try(Stream<Path> walk = Files.walk(Paths.get(pathOrPattern))){
+                files = walk.filter(Files::isRegularFile).toList();
+            }
+        }
+        else{
+            files = List.of(Paths.get(pathOrPattern));
+        }
+
+        if(files.isEmpty() || !Files.exists(files.get(0))){
+            throw new FileNotFoundException("No files match " + pathOrPattern);
+        }
+
+        List<Path> sorted = new ArrayList<>(files);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Tokenizes the files in parallel and adds their words to the graph in the order of the list
+     *
+     * @param graph MarkovGraph to add the words to
+     * @param files List of Paths of text files
+     * @throws IOException if a file cannot be read
+     */
+    public void loadInto(MarkovGraph graph, List<Path> files) throws IOException {
+        loadInto(graph, files, null);
+    }
+
+    /**
+     * Tokenizes the files in parallel and adds their words to the graph in the order of the list, recording the
+     * loading as a "load" phase of a profiler. The workers are tracked, so the phase counts their tokenizing along
+     * with the graph building on this thread, and the time this thread spent waiting for them is reported as
+     * "loadWaitNanos".
+     *
+     * @param graph MarkovGraph to add the words to
+     * @param files List of Paths of text files
+     * @param profiler PhaseProfiler to record the phase in, or null
+     * @throws IOException if a file cannot be read
+     */
+    public void loadInto(MarkovGraph graph, List<Path> files, PhaseProfiler profiler) throws IOException {
+        List<Thread> workers = new CopyOnWriteArrayList<>();
+        ExecutorService pool = profiler == null ? Executors.newFixedThreadPool(numThreads)
+                : Executors.newFixedThreadPool(numThreads, task -> {
+                    Thread worker = Executors.defaultThreadFactory().newThread(task);
+                    profiler.track(worker);
+                    workers.add(worker);
+                    return worker;
+                });
+        Deque<Future<List<String>>> inFlight = new ArrayDeque<>();
+        int nextFile = 0;
+        long waitNanos = 0;
+
+        if(profiler != null){
+            profiler.start("load");
+        }
+        try{
+            while(nextFile < files.size() || !inFlight.isEmpty()){
+
+                // keeps the window of files being tokenized full, which is what bounds memory
+                while(nextFile < files.size() && inFlight.size() < maxFilesInFlight){
+                    Path file = files.get(nextFile++);
+                    inFlight.add(pool.submit(() -> TextGenerator.FileToTextCleanup(file.toString())));
+                }
+
+                // waits for the oldest file so words are added in file order
+                long waitStart = System.nanoTime();
+                List<String> words = await(inFlight.poll());
+                waitNanos += System.nanoTime() - waitStart;
+                if(!linkAcrossFiles){
+                    graph.endChain();
+                }
+                graph.addWords(words);
+            }
+
+            // stops the phase while the workers are still alive to be measured, then stops measuring them
+            // so the phases after this one do not lose their work when they exit
+            if(profiler != null){
+                profiler.stop();
+                for(Thread worker : workers){
+                    profiler.untrack(worker);
+                }
+                profiler.put("files", files.size());
+                profiler.put("loadWaitNanos", waitNanos);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Waits for a file to be tokenized, unwrapping any exception it threw
+     *
+     * @param future Future of the tokenized file
+     * @return List of cleaned up words in the file
+     * @throws IOException if the file could not be read
+     */
+    private static List<String> await(Future<List<String>> future) throws IOException {
+        try{
+            return future.get();
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading corpus", e);
+        } catch (ExecutionException e){
+            if(e.getCause() instanceof IOException ioException){
+                throw ioException;
+            }
+            if(e.getCause() instanceof UncheckedIOException uncheckedException){
+                throw uncheckedException.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Returns true if the string contains glob special characters
+     *
+     * @param pattern String to check
+     * @return boolean true if it is a glob pattern
+     */
+    private static boolean isGlob(String pattern){
+        return pattern.matches(".*[*?\\[{].*");
+    }
+
+    /**
+     * Returns the directory part of a glob pattern before the first component with glob characters
+     *
+     * @param pattern String glob pattern
+     * @return Path of the directory to walk
+     */
+    private static Path globBase(String pattern){
+        int firstGlob = 0;
+        while(firstGlob < pattern.length() && "*?[{".indexOf(pattern.charAt(firstGlob)) < 0){
+            firstGlob++;
+        }
+        int lastSeparator = Math.max(pattern.lastIndexOf('/', firstGlob), pattern.lastIndexOf('\\', firstGlob));
+        return lastSeparator < 0 ? Paths.get("") : Paths.get(pattern.substring(0, lastSeparator + 1));
+    }
+}
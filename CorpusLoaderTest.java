@@ -0,0 +1,61 @@
+package comprehensive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CorpusLoaderTest {
+
+    private Path directory;
+
+    @BeforeEach
+    void setup() throws IOException {
+        directory = Files.createTempDirectory("corpus");
+        Files.createDirectory(directory.resolve("sub"));
+        Files.writeString(directory.resolve("a.txt"), "The cat sat.");
+        Files.writeString(directory.resolve("sub/b.txt"), "The dog ran");
+        Files.writeString(directory.resolve("notes.md"), "ignored words");
+    }
+
+    @Test
+    void testDirectoryHasNoLinksAcrossFiles() throws IOException {
+        MarkovGraph graph = new CorpusLoader(2, 1, false).load(directory.toString());
+        assertEquals(Map.of("cat", 1, "dog", 1), graph.getVertex("the").getOutWords());
+        assertEquals(Map.of(), graph.getVertex("sat").getOutWords());
+        assertNotNull(graph.getVertex("ignored"));
+    }
+
+    @Test
+    void testLinkAcrossFiles() throws IOException {
+        MarkovGraph graph = new CorpusLoader(2, 1, true).load(directory.toString());
+        assertEquals(Map.of("ignored", 1), graph.getVertex("sat").getOutWords());
+    }
+
+    @Test
+    void testProfiledLoadRecordsPhase() throws IOException {
+        PhaseProfiler profiler = new PhaseProfiler();
+        MarkovGraph graph = new CorpusLoader(2, 1, false).load(directory.toString(), profiler);
+        assertEquals(Map.of("cat", 1, "dog", 1), graph.getVertex("the").getOutWords());
+
+        // the workers are no longer counted once the phase is over, so a later phase does not go negative
+        profiler.start("after");
+        profiler.stop();
+        List<PhaseProfiler.Phase> phases = profiler.getPhases();
+        assertEquals("load", phases.get(0).name());
+        assertTrue(phases.get(1).allocatedBytes() >= -1);
+        assertTrue(profiler.toJson().contains("\"files\":3"));
+    }
+
+    @Test
+    void testGlob() throws IOException {
+        List<Path> files = CorpusLoader.resolve(directory + "/**.txt");
+        assertEquals(List.of(directory.resolve("a.txt"), directory.resolve("sub/b.txt")), files);
+    }
+}
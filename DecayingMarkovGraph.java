@@ -0,0 +1,421 @@
+package comprehensive;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Class that represents a MarkovGraph for an endless stream of text, where recent text matters more than old text.
+ * Time is counted in epochs, and a new epoch starts every wordsPerEpoch words (or when advanceEpoch is called).
+ * Every count is multiplied by a decay factor each epoch. The decay is applied lazily: each count remembers the epoch
+ * it was last updated in and is scaled when it is next read or added to, so starting an epoch is O(1).
+ * Eviction is lazy too. Edges whose weight has decayed below the eviction threshold are removed the first time their
+ * word is touched in a new epoch, and a cursor sweeps a few words for every word added and every epoch started,
+ * removing rare words with no following words. The sweep reaches every word within about one pass of the vocabulary,
+ * so memory stays proportional to the recent text rather than to everything that has been streamed.
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class DecayingMarkovGraph {
+
+    private static final int SWEEP_PER_WORD = 2; // words the cursor checks for every word added
+    private static final int SWEEP_PER_EPOCH = 64; // words the cursor checks for every epoch started
+
+    private final double decayPerEpoch;
+    private final int wordsPerEpoch;
+    private final double evictionThreshold;
+
+    private final HashMap<String, DecayingVertex> vertices = new HashMap<>();
+    private final ArrayList<DecayingVertex> sweepOrder = new ArrayList<>(); // the vertices in the order the cursor visits
+    private int sweepCursor;
+    private DecayingVertex prevWord;
+    private int epoch;
+    private int wordsInEpoch;
+
+    /**
+     * Creates an empty graph
+     *
+     * @param decayPerEpoch double factor every weight is multiplied by each epoch, between 0 and 1
+     * @param wordsPerEpoch int number of words added per epoch, or 0 to only advance epochs with advanceEpoch
+     * @param evictionThreshold double weight below which edges and words are removed
+     */
+    public DecayingMarkovGraph(double decayPerEpoch, int wordsPerEpoch, double evictionThreshold){
+        if(decayPerEpoch <= 0 || decayPerEpoch > 1){
+            throw new IllegalArgumentException("Decay must be in (0, 1]");
+        }
+        if(wordsPerEpoch < 0 || evictionThreshold < 0){
+            throw new IllegalArgumentException("Epoch length and eviction threshold must not be negative");
+        }
+        this.decayPerEpoch = decayPerEpoch;
+        this.wordsPerEpoch = wordsPerEpoch;
+        this.evictionThreshold = evictionThreshold;
+    }
+
+    /**
+     * Adds words from the stream, chaining the first one to the last word added
+     *
+     * @param input List of cleaned up words
+     */
+    public void addWords(List<String> input){
+        for(String word : input){
+            addWord(word);
+        }
+    }
+
+    /**
+     * Ends the current chain, so the next added word does not get an edge from the last word added
+     */
+    public void endChain(){
+        prevWord = null;
+    }
+
+    /**
+     * Adds the next word from the stream
+     *
+     * @param nodeName String the word to add
+     */
+    public void addWord(String nodeName){
+        DecayingVertex node = vertices.get(nodeName);
+        if(node == null){
+            node = new DecayingVertex(nodeName);
+            vertices.put(nodeName, node);
+            node.sweepIndex = sweepOrder.size();
+            sweepOrder.add(node);
+        }
+        node.occurrences.add(1, epoch);
+
+        // adds the edge from the previous word, if the chain has not just started
+        if(prevWord != null){
+            prevWord.addEdge(nodeName);
+        }
+        prevWord = node;
+        sweep(SWEEP_PER_WORD);
+
+        wordsInEpoch++;
+        if(wordsPerEpoch > 0 && wordsInEpoch >= wordsPerEpoch){
+            advanceEpoch();
+        }
+    }
+
+    /**
+     * Starts a new epoch, decaying every weight by one step. Edges and words that have decayed away are removed
+     * lazily, and only a few words are swept here.
+     */
+    public void advanceEpoch(){
+        epoch++;
+        wordsInEpoch = 0;
+        sweep(SWEEP_PER_EPOCH);
+    }
+
+    /**
+     * Moves the sweep cursor over up to the given number of words, evicting their decayed edges and
+     * removing the words themselves once they have decayed away
+     *
+     * @param steps int most words to check
+     */
+    private void sweep(int steps){
+        steps = Math.min(steps, sweepOrder.size());
+        for(int i = 0; i < steps; i++){
+            if(sweepCursor >= sweepOrder.size()){
+                sweepCursor = 0;
+            }
+            DecayingVertex node = sweepOrder.get(sweepCursor);
+            node.evictStaleEdges();
+
+            // a word is removed once it is rare, has no following words, and is not needed to continue the chain
+            if(node != prevWord && node.outWords.isEmpty() && node.occurrences.value(epoch) < evictionThreshold){
+                removeVertex(node);
+            }
+            else{
+                sweepCursor++;
+            }
+        }
+    }
+
+    /**
+     * Removes a word from the graph, moving the last word of the sweep order into its place
+     *
+     * @param node DecayingVertex to remove
+     */
+    private void removeVertex(DecayingVertex node){
+        vertices.remove(node.word);
+        DecayingVertex last = sweepOrder.remove(sweepOrder.size() - 1);
+        if(last != node){
+            sweepOrder.set(node.sweepIndex, last);
+            last.sweepIndex = node.sweepIndex;
+        }
+    }
+
+    /**
+     * Returns the number of words currently in the graph, which may include decayed words the sweep has not reached
+     *
+     * @return int number of vertices
+     */
+    public int vertexCount(){
+        return vertices.size();
+    }
+
+    /**
+     * Returns the number of edges currently in the graph, evicting decayed edges of every word on the way
+     *
+     * @return int number of edges
+     */
+    public int edgeCount(){
+        int count = 0;
+        for(DecayingVertex node : vertices.values()){
+            node.evictStaleEdges();
+            count += node.outWords.size();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the decayed weight of a word, which is roughly its number of occurrences in recent epochs
+     *
+     * @param word String the word
+     * @return double weight of the word, or 0 if it is not in the graph
+     */
+    public double getWeight(String word){
+        DecayingVertex node = vertices.get(word);
+        return node == null ? 0 : node.occurrences.value(epoch);
+    }
+
+    /**
+     * Returns a list of the k most probable next words by decayed weight, ties broken lexicographically
+     *
+     * @param seed String, the word to search for the k most probable words that come after it
+     * @param k int the number of most probable words to return that comes after the current word
+     * @return List of most probable words that come after the seed word
+     */
+    public List<String> findKLargest(String seed, int k){
+        if(k < 0){
+            throw new IllegalArgumentException("k is out of bounds");
+        }
+
+        DecayingVertex node = requireVertex(seed);
+        node.evictStaleEdges();
+        int degree = node.outWords.size();
+        String[] words = new String[degree];
+        double[] weights = new double[degree];
+        long[] keys = new long[degree];
+
+        // packs each weight rounded to a float, whose bits order the same way for non-negative values
+        int i = 0;
+        for(Map.Entry<String, DecayingCount> entry : node.outWords.entrySet()){
+            words[i] = entry.getKey();
+            weights[i] = entry.getValue().value(epoch);
+            keys[i] = LongDaryMaxHeap.pack(Float.floatToIntBits((float) weights[i]), i);
+            i++;
+        }
+        long[] top = new LongDaryMaxHeap(keys).topK(k);
+        if(top.length == 0){
+            return new ArrayList<>();
+        }
+
+        // rounding can tie words whose weights differ and ids are not in lexicographic order, so every word whose
+        // rounded weight reaches that of the last word selected is a candidate, and the candidates are ordered exactly
+        int boundary = LongDaryMaxHeap.unpackCount(top[top.length - 1]);
+        List<Integer> candidates = new ArrayList<>();
+        for(int j = 0; j < degree; j++){
+            if(LongDaryMaxHeap.unpackCount(keys[j]) >= boundary){
+                candidates.add(j);
+            }
+        }
+        candidates.sort((a, b) -> {
+            int comparison = Double.compare(weights[b], weights[a]);
+            return comparison == 0 ? words[a].compareTo(words[b]) : comparison;
+        });
+
+        List<String> output = new ArrayList<>();
+        for(int j = 0; j < top.length; j++){
+            output.add(words[candidates.get(j)]);
+        }
+        return output;
+    }
+
+    /**
+     * Generates a chain of length k that chooses each word by taking
+     * a weighted random next word from each previous word, weighted by decayed counts
+     *
+     * @param seed String the starting word
+     * @param k int the length of the output chain
+     * @return List of weighted random next words that form a chain
+     */
+    public List<String> generateWRS(String seed, int k){
+        DecayingVertex currNode = requireVertex(seed);
+        Random random = new Random();
+        List<String> outputChain = new ArrayList<>();
+
+        for(int i = 0; i < k; i++){
+            outputChain.add(currNode.word);
+            currNode.evictStaleEdges();
+            String next = currNode.weightedRandomNextWord(random);
+            currNode = next == null ? null : vertices.get(next);
+
+            // if there were no available words, sets the current node back to the seed
+            if(currNode == null){
+                currNode = vertices.get(seed);
+            }
+        }
+        return outputChain;
+    }
+
+    /**
+     * Returns the vertex of a seed word, throwing if it is not in the graph
+     *
+     * @param seed String the seed word
+     * @return DecayingVertex of the seed
+     */
+    private DecayingVertex requireVertex(String seed){
+        DecayingVertex node = vertices.get(seed);
+        if(node == null){
+            throw new NoSuchElementException("Seed word is not in graph");
+        }
+        return node;
+    }
+
+    /**
+     * A count that decays by decayPerEpoch each epoch, stored as its value at the epoch it was last updated
+     */
+    private class DecayingCount {
+
+        private double weight;
+        private int updatedEpoch;
+
+        /**
+         * Returns the decayed value of the count
+         *
+         * @param now int the current epoch
+         * @return double the count decayed to the current epoch
+         */
+        private double value(int now){
+            return now == updatedEpoch ? weight : weight * Math.pow(decayPerEpoch, now - updatedEpoch);
+        }
+
+        /**
+         * Decays the count to the current epoch and adds to it
+         *
+         * @param amount double amount to add
+         * @param now int the current epoch
+         */
+        private void add(double amount, int now){
+            weight = value(now) + amount;
+            updatedEpoch = now;
+        }
+    }
+
+    /**
+     * A word in the graph with its decaying occurrences and decaying counts of following words.
+     * The total of the edge counts decays at the same rate as the edges, so it stays equal to their sum.
+     */
+    private class DecayingVertex {
+
+        private final String word;
+        private final DecayingCount occurrences = new DecayingCount();
+        private final DecayingCount total = new DecayingCount();
+        private final HashMap<String, DecayingCount> outWords = new HashMap<>();
+        private int sweptEpoch; // the epoch the edges were last checked for eviction in
+        private int sweepIndex; // position in sweepOrder
+        private String[] tableWords; // following words in the order of cumulative
+        private double[] cumulative; // running sums of the edge weights, null until a word is drawn or after an edge changes
+
+        /**
+         * Creates a vertex for a word
+         *
+         * @param word String the word
+         */
+        private DecayingVertex(String word){
+            this.word = word;
+            this.sweptEpoch = epoch;
+        }
+
+        /**
+         * Adds one to the edge to the next word
+         *
+         * @param nextWord String the word that came after this word
+         */
+        private void addEdge(String nextWord){
+            evictStaleEdges();
+            outWords.computeIfAbsent(nextWord, key -> new DecayingCount()).add(1, epoch);
+            total.add(1, epoch);
+            clearSamplingTable();
+        }
+
+        /**
+         * Removes the edges that have decayed below the eviction threshold, once per epoch,
+         * since weights only change when an epoch starts
+         */
+        private void evictStaleEdges(){
+            if(sweptEpoch == epoch){
+                return;
+            }
+            sweptEpoch = epoch;
+
+            Iterator<DecayingCount> iterator = outWords.values().iterator();
+            while(iterator.hasNext()){
+                DecayingCount count = iterator.next();
+                double value = count.value(epoch);
+                if(value < evictionThreshold){
+                    total.add(-value, epoch);
+                    iterator.remove();
+                    clearSamplingTable();
+                }
+            }
+
+            // clears rounding error left in the total once no edges remain
+            if(outWords.isEmpty()){
+                total.weight = 0;
+            }
+        }
+
+        /**
+         * Drops the running sums of the edge weights after an edge changes, storing only when there is a table
+         */
+        private void clearSamplingTable(){
+            if(cumulative != null){
+                cumulative = null;
+                tableWords = null;
+            }
+        }
+
+        /**
+         * Picks a following word with probability proportional to its decayed weight, using a binary search over
+         * the running sums of the edge weights. The sums are built on the first draw and kept until an edge changes.
+         *
+         * @param random Random to draw from
+         * @return String the chosen word, or null if no word follows this word
+         */
+        private String weightedRandomNextWord(Random random){
+            if(outWords.isEmpty()){
+                return null;
+            }
+
+            if(cumulative == null){
+                tableWords = new String[outWords.size()];
+                cumulative = new double[outWords.size()];
+                double sum = 0;
+                int i = 0;
+                for(Map.Entry<String, DecayingCount> entry : outWords.entrySet()){
+                    sum += entry.getValue().value(epoch);
+                    tableWords[i] = entry.getKey();
+                    cumulative[i] = sum;
+                    i++;
+                }
+            }
+
+            // every edge decays by the same factor each epoch, so sums built in an earlier epoch keep their proportions
+            double target = random.nextDouble() * cumulative[cumulative.length - 1];
+            int index = Arrays.binarySearch(cumulative, target);
+            index = index < 0 ? -index - 1 : index + 1;
+
+            // rounding can leave a tiny remainder after the last edge
+            return tableWords[Math.min(index, tableWords.length - 1)];
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package comprehensive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecayingMarkovGraphTest {
+
+    private DecayingMarkovGraph graph;
+
+    @BeforeEach
+    void setup(){
+        graph = new DecayingMarkovGraph(0.5, 0, 0.1);
+    }
+
+    @Test
+    void testRecentEdgesWin(){
+        // "happy" follows "am" three times long ago, "sad" twice recently
+        graph.addWords(List.of("am", "happy", "am", "happy", "am", "happy"));
+        graph.advanceEpoch();
+        graph.advanceEpoch();
+        graph.addWords(List.of("am", "sad", "am", "sad"));
+
+        assertEquals(List.of("sad", "happy"), graph.findKLargest("am", 2));
+        assertEquals(3, graph.generateWRS("am", 3).size());
+    }
+
+    @Test
+    void testTiesAreLexicographicAndSamplingFollowsEdgeChanges(){
+        graph.addWords(List.of("am", "sad", "am", "happy", "am", "glad"));
+        graph.endChain();
+        assertEquals(List.of("glad", "happy"), graph.findKLargest("am", 2));
+
+        // "fine" is added after the running sums were built, and "am" is only ever followed by it once the rest decay
+        assertEquals("am", graph.generateWRS("am", 2).get(0));
+        for(int i = 0; i < 4; i++){
+            graph.advanceEpoch();
+        }
+        graph.addWords(List.of("am", "fine"));
+        graph.endChain();
+        assertEquals(List.of("fine"), graph.findKLargest("am", 3));
+        for(int i = 0; i < 20; i++){
+            assertEquals(List.of("am", "fine"), graph.generateWRS("am", 2));
+        }
+    }
+
+    @Test
+    void testOldEdgesAreEvicted(){
+        graph.addWords(List.of("old", "words", "here"));
+        graph.endChain();
+        graph.addWords(List.of("new", "text"));
+        for(int i = 0; i < 5; i++){
+            graph.advanceEpoch();
+        }
+
+        // 0.5^5 is below the threshold, so everything except the word needed to continue the chain is gone
+        assertEquals(0, graph.edgeCount());
+        assertEquals(1, graph.vertexCount());
+    }
+
+    @Test
+    void testSweepKeepsStreamBounded(){
+        DecayingMarkovGraph streamed = new DecayingMarkovGraph(0.5, 100, 0.1);
+
+        // a stream that never repeats a word, so every word decays away after a few epochs
+        for(int i = 0; i < 100000; i++){
+            streamed.addWord("w" + i);
+        }
+        assertTrue(streamed.vertexCount() < 2000, "vertices " + streamed.vertexCount());
+        assertTrue(streamed.edgeCount() < 1000, "edges " + streamed.edgeCount());
+        assertEquals(List.of("w99999"), streamed.findKLargest("w99998", 1));
+    }
+
+    @Test
+    void testEpochsAdvanceByWordCount(){
+        DecayingMarkovGraph counted = new DecayingMarkovGraph(0.5, 2, 0.1);
+        counted.addWords(List.of("a", "b"));
+        assertEquals(0.5, counted.getWeight("a"), 1e-9);
+    }
+}
@@ -0,0 +1,133 @@
+package comprehensive;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Class that saves a MarkovGraph that is still being built, without stopping the thread that adds words to it.
+ * A checkpoint is started from the ingesting thread, which takes an O(1) view of the graph as it is at that moment,
+ * and is written on a background thread with MarkovGraphIO as a sorted snapshot, through a temporary file that is
+ * forced to disk and renamed over the checkpoint, so a crash leaves either the old checkpoint or the new one.
+ * While the checkpoint is written, each vertex copies its counts the first time it changes (copy on write), unless
+ * the writer has already read it, so the file holds the graph exactly as it was when the checkpoint started.
+ * With no checkpoint running, ingestion only adds a volatile read of the checkpoint epoch per word. While one runs,
+ * each vertex changed also costs a volatile read, plus one copy of its counts if it changes before the writer reads it.
+ * The checkpoint records how many words the graph had been given, so after a crash recover loads it and replays only
+ * the words that came after it.
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class GraphCheckpointer implements AutoCloseable {
+
+    /**
+     * A finished checkpoint
+     *
+     * @param path Path the checkpoint was written to
+     * @param tokenCount number of words the graph had been given when the checkpoint started
+     * @param vertices number of vertices in the checkpoint
+     * @param writeNanos time spent writing it on the background thread, in nanoseconds
+     */
+    public record Checkpoint(Path path, long tokenCount, int vertices, long writeNanos){}
+
+    private final MarkovGraph graph;
+    private final Path path;
+    private final ExecutorService writer;
+    private CompletableFuture<Checkpoint> running = CompletableFuture.completedFuture(null);
+
+    /**
+     * Creates a checkpointer for a graph
+     *
+     * @param graph MarkovGraph to save, which words are added to on a single thread
+     * @param path Path of the checkpoint file
+     */
+    public GraphCheckpointer(MarkovGraph graph, Path path){
+        this.graph = graph;
+        this.path = path;
+
+        // one daemon thread, so checkpoints are written one at a time and never keep the process alive
+        writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "graph-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts a checkpoint of the graph as it is now and writes it in the background. Must be called from the thread
+     * that adds words to the graph. If the previous checkpoint is still being written, no new one is started and
+     * the previous one's future is returned instead.
+     *
+     * @return CompletableFuture that completes with the Checkpoint once its file is in place
+     */
+    public CompletableFuture<Checkpoint> checkpoint(){
+        MarkovGraph.CheckpointView view = graph.beginCheckpoint();
+        if(view == null){
+            return running;
+        }
+
+        CompletableFuture<Checkpoint> result = new CompletableFuture<>();
+        Runnable write = () -> {
+            long start = System.nanoTime();
+            try{
+                MarkovGraphIO.write(view, path);
+                result.complete(new Checkpoint(path, view.tokenCount(), view.numVertices(), System.nanoTime() - start));
+            }
+            catch(Throwable e){
+                result.completeExceptionally(e);
+            }
+            finally{
+                graph.endCheckpoint();
+            }
+        };
+
+        // a closed checkpointer ends the checkpoint right away so the graph stops saving copies for it
+        try{
+            writer.execute(write);
+        }
+        catch(RejectedExecutionException e){
+            graph.endCheckpoint();
+            throw e;
+        }
+        running = result;
+        return result;
+    }
+
+    /**
+     * Rebuilds a graph after a crash from its last checkpoint and the words given to it since. The words are the whole
+     * text the graph was given, in order: those the checkpoint already holds are skipped and the rest are added.
+     *
+     * @param path Path of the checkpoint file, which may not exist if no checkpoint was finished
+     * @param words List of every word given to the graph, as cleaned by TextGenerator
+     * @return MarkovGraph the same as the one that crashed, for the words given
+     * @throws IOException if the checkpoint exists but cannot be read, or does not record how many words it holds
+     */
+    public static MarkovGraph recover(Path path, List<String> words) throws IOException {
+        MarkovGraph graph = Files.exists(path) ? MarkovGraphIO.read(path) : new MarkovGraph();
+        long replayFrom = graph.tokenCount();
+
+        // an MKV1 snapshot, or one of a graph built from counts, cannot say where to resume
+        if(replayFrom < 0){
+            throw new IOException("The checkpoint does not record how many words it holds");
+        }
+        if(replayFrom > words.size()){
+            throw new IllegalArgumentException("The checkpoint holds more words than were given");
+        }
+        graph.addWords(words.subList((int) replayFrom, words.size()));
+        return graph;
+    }
+
+    /**
+     * Stops the background thread once the checkpoint being written, if any, is finished
+     */
+    @Override
+    public void close(){
+        writer.shutdown();
+    }
+}
@@ -0,0 +1,105 @@
+package comprehensive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphCheckpointerTest {
+
+    private Path checkpoint;
+    private List<String> words;
+
+    @BeforeEach
+    void setup() throws IOException {
+        checkpoint = Files.createTempDirectory("checkpoint").resolve("graph.mkv");
+        words = TextGenerator.cleanTokens(new Scanner(new ZipfCorpusGenerator(5000, 1.07, 8, 0.5, 49).generate(400000)));
+    }
+
+    @Test
+    void testCheckpointIsPointInTime() throws IOException {
+        MarkovGraph graph = new MarkovGraph(words.subList(0, 1000));
+        MarkovGraph.CheckpointView view = graph.beginCheckpoint();
+        assertNull(graph.beginCheckpoint());
+
+        // changes existing vertices and adds new ones after the checkpoint started, before it is written
+        graph.addWords(words.subList(1000, 5000));
+        MarkovGraphIO.write(view, checkpoint);
+        graph.endCheckpoint();
+
+        MarkovGraph saved = MarkovGraphIO.read(checkpoint);
+        assertSameGraph(new MarkovGraph(words.subList(0, 1000)), saved);
+        assertEquals(1000, saved.tokenCount());
+        assertEquals(words.get(999), saved.getLastWord());
+    }
+
+    @Test
+    void testIngestionContinuesWhileWriting() throws Exception {
+        MarkovGraph graph = new MarkovGraph();
+        int next = 0;
+        try(GraphCheckpointer checkpointer = new GraphCheckpointer(graph, checkpoint)){
+            graph.addWords(words.subList(0, 200000));
+            next = 200000;
+            var pending = checkpointer.checkpoint();
+
+            // keeps adding words on this thread until the background write is done
+            while(!pending.isDone() && next < words.size()){
+                graph.addWord(words.get(next++));
+            }
+            GraphCheckpointer.Checkpoint done = pending.get();
+            assertEquals(200000, done.tokenCount());
+
+            assertSameGraph(new MarkovGraph(words.subList(0, 200000)), MarkovGraphIO.read(checkpoint));
+        }
+
+        // recovering replays only the words after the checkpoint and ends up with the same graph as the live one
+        MarkovGraph recovered = GraphCheckpointer.recover(checkpoint, words.subList(0, next));
+        assertSameGraph(graph, recovered);
+        assertEquals(next, recovered.tokenCount());
+    }
+
+    @Test
+    void testRecoverWithoutCheckpoint() throws IOException {
+        MarkovGraph recovered = GraphCheckpointer.recover(checkpoint, words.subList(0, 3000));
+        assertSameGraph(new MarkovGraph(words.subList(0, 3000)), recovered);
+    }
+
+    @Test
+    void testRecoverFromCompactedModel() throws IOException {
+        List<String> text = List.of("a", "b", "a", "c", "a", "b");
+        IncrementalModel model = new IncrementalModel(checkpoint, 100);
+        model.append(text.subList(0, 2));
+        model.append(text.subList(2, 6));
+        model.compact();
+
+        // the compacted snapshot still knows it holds all six words, so none are replayed
+        MarkovGraph recovered = GraphCheckpointer.recover(checkpoint, text);
+        assertEquals(6, recovered.tokenCount());
+        assertEquals(3, recovered.getVertex("a").getNumOccurrences());
+    }
+
+    @Test
+    void testRecoverRefusesUnknownTokenCount() throws IOException {
+        MarkovGraph merged = ModelMerger.merge(List.of(new MarkovGraph(List.of("a", "b")), new MarkovGraph(List.of("b", "c"))));
+        assertEquals(-1, merged.tokenCount());
+        MarkovGraphIO.write(merged, checkpoint);
+        assertThrows(IOException.class, () -> GraphCheckpointer.recover(checkpoint, List.of("a", "b", "b", "c")));
+    }
+
+    private static void assertSameGraph(MarkovGraph expected, MarkovGraph actual){
+        assertEquals(expected.vertexCount(), actual.vertexCount());
+        for(VertexNode node : expected.getVertices()){
+            VertexNode other = actual.getVertex(node.getWord());
+            assertNotNull(other);
+            assertEquals(node.getNumOccurrences(), other.getNumOccurrences());
+            assertEquals(node.getOutWords(), other.getOutWords());
+        }
+        assertEquals(expected.getLastWord(), actual.getLastWord());
+    }
+}
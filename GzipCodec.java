@@ -0,0 +1,50 @@
+package comprehensive;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Codec for gzip files, using the decompressor that comes with the JDK
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class GzipCodec implements CompressionCodec {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Returns the name of the format
+     *
+     * @return String "gzip"
+     */
+    @Override
+    public String name() {
+        return "gzip";
+    }
+
+    /**
+     * Checks for the two gzip magic bytes 0x1f 0x8b
+     *
+     * @param header byte array holding the first bytes of the file
+     * @param length int number of bytes in header that were read
+     * @return boolean true if the file is gzip compressed
+     */
+    @Override
+    public boolean matches(byte[] header, int length) {
+        return length >= 2 && (header[0] & 0xFF) == 0x1F && (header[1] & 0xFF) == 0x8B;
+    }
+
+    /**
+     * Wraps the stream in a GZIPInputStream
+     *
+     * @param compressed InputStream positioned at the start of the compressed data
+     * @return InputStream of decompressed bytes
+     * @throws IOException if the gzip header is invalid
+     */
+    @Override
+    public InputStream decompress(InputStream compressed) throws IOException {
+        return new GZIPInputStream(compressed, BUFFER_SIZE);
+    }
+}
@@ -0,0 +1,108 @@
+package comprehensive;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Times top-k selection over the n following words of a vertex, either with the generic BinaryMaxHeapComp
+ * and a map-backed comparator that breaks ties lexicographically (how kMostProbable used to work) or with
+ * VertexNode.kMostProbable itself. The counts have a long tail, where most words follow only once,
+ * so the cost of ordering ties is timed too.
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class HeapTimer extends TimerTemplate {
+
+    private static final int K = 100;
+
+    private final boolean primitive;
+    private VertexNode node;
+    private Map<String, Integer> frequencies;
+    private long sink; // uses every selected word, so the JIT cannot drop the lookups being timed
+
+    /**
+     * Create a timer
+     *
+     * @param problemSizes array of N's to use
+     * @param timesToLoop  number of times to repeat the tests
+     * @param primitive    true to time kMostProbable, false to time BinaryMaxHeapComp
+     */
+    public HeapTimer(int[] problemSizes, int timesToLoop, boolean primitive) {
+        super(problemSizes, timesToLoop);
+        this.primitive = primitive;
+    }
+
+    /**
+     * Creates a vertex followed by n words, the i-th most frequent following 64 / (i + 1) times,
+     * so that all but 32 words follow once and the K most probable end in a tie among nearly all of them
+     *
+     * @param n problem size to be timed
+     */
+    @Override
+    protected void setup(int n) {
+        Random random = new Random(49);
+        node = new VertexNode("seed");
+
+        for (int i = 0; i < n; i++){
+            node.addEdge("w" + random.nextInt(Integer.MAX_VALUE), Math.max(1, 64 / (i + 1)));
+        }
+        frequencies = node.getOutWords();
+    }
+
+    /**
+     * Selects the K most frequent words
+     *
+     * @param n the problem size to be timed
+     */
+    @Override
+    protected void timingIteration(int n) {
+        if (primitive){
+            for (String word : node.kMostProbable(K)){
+                sink += word.length();
+            }
+        }
+        else {
+            List<String> words = new ArrayList<>(frequencies.keySet());
+            BinaryMaxHeapComp<String> heap = new BinaryMaxHeapComp<>(words, (s1, s2) -> {
+                int comparison = frequencies.get(s1).compareTo(frequencies.get(s2));
+                return comparison == 0 ? s2.compareTo(s1) : comparison;
+            });
+            for (int i = 0; i < Math.min(K, n); i++){
+                sink += heap.extractMax().length();
+            }
+        }
+    }
+
+    /**
+     * Nothing to subtract out
+     *
+     * @param n problem size being timed
+     */
+    @Override
+    protected void compensationIteration(int n) {
+
+    }
+
+    /**
+     * Prints the timings of both heaps side by side
+     *
+     * @param args unused
+     */
+    public static void main(String[] args){
+        int[] nSizes = new int[20];
+        for (int i = 0; i < nSizes.length; i++){
+            nSizes[i] = (i + 1) * 10000;
+        }
+
+        var generic = new HeapTimer(nSizes, 100, false).run();
+        var packed = new HeapTimer(nSizes, 100, true).run();
+
+        System.out.println("n, BinaryMaxHeapComp, kMostProbable");
+        for (int i = 0; i < nSizes.length; i++){
+            System.out.println(nSizes[i] + ", " + generic[i].avgNanoSecs() + ", " + packed[i].avgNanoSecs());
+        }
+    }
+}
@@ -0,0 +1,448 @@
+package comprehensive;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Class that keeps a persisted MarkovGraph up to date as new text arrives, without rebuilding it from the full history.
+ * The model is a snapshot file written by MarkovGraphIO plus an append-only delta log next to it ("path.delta").
+ * Appending text only tokenizes and counts the new words and appends one delta record, so the cost of an update
+ * depends on the size of the new text. When the delta log grows past a fraction of the snapshot it is compacted
+ * into a new snapshot.
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class IncrementalModel {
+
+    private static final double DEFAULT_COMPACTION_RATIO = 0.5;
+
+    private final Path snapshotPath;
+    private final Path deltaPath;
+    private final Path compactedPath;
+    private final double compactionRatio;
+
+    private String lastWord;
+    private boolean lastWordKnown;
+
+    /**
+     * Creates a model stored at the given snapshot path, compacting when the delta log reaches half the snapshot size
+     *
+     * @param snapshotPath Path of the snapshot file, which does not need to exist yet
+     */
+    public IncrementalModel(Path snapshotPath){
+        this(snapshotPath, DEFAULT_COMPACTION_RATIO);
+    }
+
+    /**
+     * Creates a model stored at the given snapshot path
+     *
+     * @param snapshotPath Path of the snapshot file, which does not need to exist yet
+     * @param compactionRatio double size of the delta log relative to the snapshot that triggers a compaction
+     */
+    public IncrementalModel(Path snapshotPath, double compactionRatio){
+        if(compactionRatio <= 0){
+            throw new IllegalArgumentException("Compaction ratio must be positive");
+        }
+        this.snapshotPath = snapshotPath.toAbsolutePath();
+        this.deltaPath = this.snapshotPath.resolveSibling(this.snapshotPath.getFileName() + ".delta");
+        this.compactedPath = this.snapshotPath.resolveSibling(this.snapshotPath.getFileName() + ".compacted");
+        this.compactionRatio = compactionRatio;
+    }
+
+    /**
+     * Loads the current model by reading the snapshot and applying every delta appended since
+     *
+     * @return MarkovGraph with all the text appended so far
+     * @throws IOException if the files cannot be read
+     */
+    public MarkovGraph load() throws IOException {
+        finishCompaction();
+        MarkovGraph graph = Files.exists(snapshotPath) ? MarkovGraphIO.read(snapshotPath) : new MarkovGraph();
+
+        try(DeltaReader reader = new DeltaReader()){
+            Delta delta;
+            while((delta = reader.next()) != null){
+                delta.applyTo(graph);
+            }
+            reader.truncateTornTail();
+        }
+
+        lastWord = graph.getLastWord();
+        lastWordKnown = true;
+        return graph;
+    }
+
+    /**
+     * Tokenizes a text file the same way TextGenerator does and appends its words to the model
+     *
+     * @param textFile Path of the new text
+     * @throws IOException if the text cannot be read or the delta cannot be written
+     */
+    public void appendText(Path textFile) throws IOException {
+        append(TextGenerator.FileToTextCleanup(textFile.toString()));
+    }
+
+    /**
+     * Appends words to the model. The first word is chained to the last word already in the model.
+     * Compacts the model afterwards if the delta log has grown too large.
+     *
+     * @param newWords List of cleaned up words to add
+     * @throws IOException if the delta cannot be written
+     */
+    public void append(List<String> newWords) throws IOException {
+        if(newWords.isEmpty()){
+            return;
+        }
+
+        Delta delta = Delta.fromWords(currentLastWord(), newWords);
+        appendRecord(delta.toBytes());
+        lastWord = delta.lastWord;
+
+        if(needsCompaction()){
+            compact();
+        }
+    }
+
+    /**
+     * Appends words to the model and to a graph already loaded from it, keeping both in step
+     *
+     * @param graph MarkovGraph previously returned by load()
+     * @param newWords List of cleaned up words to add
+     * @throws IOException if the delta cannot be written
+     */
+    public void append(MarkovGraph graph, List<String> newWords) throws IOException {
+        append(newWords);
+        graph.addWords(newWords);
+    }
+
+    /**
+     * Returns true if the delta log is larger than the compaction ratio times the snapshot size
+     *
+     * @return boolean whether the model should be compacted
+     * @throws IOException if the file sizes cannot be read
+     */
+    public boolean needsCompaction() throws IOException {
+        if(!Files.exists(deltaPath)){
+            return false;
+        }
+        long snapshotSize = Files.exists(snapshotPath) ? Files.size(snapshotPath) : 0;
+        return Files.size(deltaPath) > snapshotSize * compactionRatio;
+    }
+
+    /**
+     * Folds the delta log into a new snapshot and deletes the log.
+     * The new snapshot is first written completely to "path.compacted". Once that file exists it already
+     * contains every delta, so the log is deleted and the file is renamed over the snapshot. If a crash happens
+     * part way, the next call to the model finishes those two steps instead of counting the deltas twice.
+     *
+     * @throws IOException if the files cannot be read or written
+     */
+    public void compact() throws IOException {
+        MarkovGraph graph = load();
+        MarkovGraphIO.write(graph, compactedPath);
+        finishCompaction();
+    }
+
+    /**
+     * Finishes a compaction whose new snapshot has been written, by deleting the delta log it already contains
+     * and moving it over the old snapshot. Does nothing if no compaction is in progress.
+     *
+     * @throws IOException if the files cannot be deleted or moved
+     */
+    private void finishCompaction() throws IOException {
+        if(Files.exists(compactedPath)){
+            Files.deleteIfExists(deltaPath);
+            Files.move(compactedPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * Returns the last word of the model, reading it from disk the first time it is needed
+     *
+     * @return String the last word of the model, or null if the model is empty
+     * @throws IOException if the files cannot be read
+     */
+    private String currentLastWord() throws IOException {
+        if(!lastWordKnown){
+            finishCompaction();
+            if(Files.exists(snapshotPath)){
+                try(MarkovGraphIO.Reader reader = new MarkovGraphIO.Reader(Files.newInputStream(snapshotPath))){
+                    lastWord = reader.getLastWord();
+                }
+            }
+
+            // the newest delta decides the last word
+            try(DeltaReader reader = new DeltaReader()){
+                Delta delta;
+                while((delta = reader.next()) != null){
+                    lastWord = delta.lastWord;
+                }
+                reader.truncateTornTail();
+            }
+            lastWordKnown = true;
+        }
+        return lastWord;
+    }
+
+    /**
+     * Appends one framed record (length, CRC32, bytes) to the delta log and forces it to disk
+     *
+     * @param bytes byte array of the encoded delta
+     * @throws IOException if the record cannot be written
+     */
+    private void appendRecord(byte[] bytes) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+
+        ByteBuffer frame = ByteBuffer.allocate(12 + bytes.length);
+        frame.putInt(bytes.length);
+        frame.putLong(crc.getValue());
+        frame.put(bytes);
+        frame.flip();
+
+        try(FileChannel channel = FileChannel.open(deltaPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)){
+            while(frame.hasRemaining()){
+                channel.write(frame);
+            }
+            channel.force(true);
+        }
+    }
+
+    /**
+     * The counts added by one append: occurrences per word, counts per edge, and the new last word
+     */
+    private static class Delta {
+
+        private final String lastWord;
+        private final Map<String, Integer> occurrences;
+        private final Map<String, Map<String, Integer>> edges;
+
+        /**
+         * Creates a delta from its parts
+         *
+         * @param lastWord String the last word after the delta is applied
+         * @param occurrences Map of word to occurrences added
+         * @param edges Map of word to the counts added for each following word
+         */
+        private Delta(String lastWord, Map<String, Integer> occurrences, Map<String, Map<String, Integer>> edges){
+            this.lastWord = lastWord;
+            this.occurrences = occurrences;
+            this.edges = edges;
+        }
+
+        /**
+         * Counts the occurrences and transitions in the new words, including the transition
+         * from the last word of the model to the first new word
+         *
+         * @param previousWord String last word of the model, or null
+         * @param words List of new words
+         * @return Delta holding the counts
+         */
+        private static Delta fromWords(String previousWord, List<String> words){
+            Map<String, Integer> occurrences = new HashMap<>();
+            Map<String, Map<String, Integer>> edges = new HashMap<>();
+            String prev = previousWord;
+
+            for(String word : words){
+                occurrences.merge(word, 1, Integer::sum);
+                if(prev != null){
+                    edges.computeIfAbsent(prev, key -> new HashMap<>()).merge(word, 1, Integer::sum);
+                }
+                prev = word;
+            }
+            return new Delta(prev, occurrences, edges);
+        }
+
+        /**
+         * Adds the counts of this delta to a graph
+         *
+         * @param graph MarkovGraph to update
+         */
+        private void applyTo(MarkovGraph graph){
+            long tokenCount = graph.tokenCount();
+            long numWords = 0;
+            for(int count : occurrences.values()){
+                numWords += count;
+            }
+
+            // every word in an edge also has occurrences in the same delta, so vertices exist before edges are added
+            for(Map.Entry<String, Integer> entry : occurrences.entrySet()){
+                graph.addOccurrences(entry.getKey(), entry.getValue());
+            }
+            for(Map.Entry<String, Map<String, Integer>> from : edges.entrySet()){
+                VertexNode node = graph.getVertex(from.getKey());
+                for(Map.Entry<String, Integer> to : from.getValue().entrySet()){
+                    node.addEdge(to.getKey(), to.getValue());
+                }
+            }
+            graph.setLastWord(lastWord);
+
+            // every word of the delta was counted once as an occurrence, so the graph still knows its number of words
+            graph.setTokenCount(tokenCount < 0 ? -1 : tokenCount + numWords);
+        }
+
+        /**
+         * Encodes the delta
+         *
+         * @return byte array of the encoded delta
+         * @throws IOException never, the bytes are written to memory
+         */
+        private byte[] toBytes() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+
+            out.writeUTF(lastWord);
+            out.writeInt(occurrences.size());
+            for(Map.Entry<String, Integer> entry : occurrences.entrySet()){
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue());
+            }
+
+            out.writeInt(edges.size());
+            for(Map.Entry<String, Map<String, Integer>> from : edges.entrySet()){
+                out.writeUTF(from.getKey());
+                out.writeInt(from.getValue().size());
+                for(Map.Entry<String, Integer> to : from.getValue().entrySet()){
+                    out.writeUTF(to.getKey());
+                    out.writeInt(to.getValue());
+                }
+            }
+            out.flush();
+            return bytes.toByteArray();
+        }
+
+        /**
+         * Decodes a delta
+         *
+         * @param in DataInputStream positioned at an encoded delta
+         * @return the decoded Delta
+         * @throws IOException if the delta is malformed
+         */
+        private static Delta fromBytes(DataInputStream in) throws IOException {
+            String lastWord = in.readUTF();
+
+            int numWords = in.readInt();
+            Map<String, Integer> occurrences = new HashMap<>();
+            for(int i = 0; i < numWords; i++){
+                occurrences.put(in.readUTF(), in.readInt());
+            }
+
+            int numFrom = in.readInt();
+            Map<String, Map<String, Integer>> edges = new HashMap<>();
+            for(int i = 0; i < numFrom; i++){
+                String from = in.readUTF();
+                int numTo = in.readInt();
+                Map<String, Integer> counts = new HashMap<>();
+                for(int j = 0; j < numTo; j++){
+                    counts.put(in.readUTF(), in.readInt());
+                }
+                edges.put(from, counts);
+            }
+            return new Delta(lastWord, occurrences, edges);
+        }
+    }
+
+    /**
+     * Reads the framed records of the delta log in order. A record cut short, with a length that cannot fit in the
+     * file, failing its checksum or failing to decode (from a crash during an append, which can also leave the tail
+     * zero filled) ends the log, since it was never acknowledged.
+     */
+    private class DeltaReader implements AutoCloseable {
+
+        private final DataInputStream in;
+        private final long fileSize;
+        private long validLength; // bytes taken up by the complete records read so far
+
+        /**
+         * Opens the delta log, if it exists
+         *
+         * @throws IOException if the log cannot be opened
+         */
+        private DeltaReader() throws IOException {
+            boolean exists = Files.exists(deltaPath);
+            InputStream stream = exists ? Files.newInputStream(deltaPath) : InputStream.nullInputStream();
+            in = new DataInputStream(new BufferedInputStream(stream));
+            fileSize = exists ? Files.size(deltaPath) : 0;
+        }
+
+        /**
+         * Reads the next complete delta
+         *
+         * @return Delta, or null at the end of the log
+         * @throws IOException if the log cannot be read
+         */
+        private Delta next() throws IOException {
+            try{
+                int length = in.readInt();
+                long checksum = in.readLong();
+
+                // an empty record is never written, so a zero length is a zero filled tail, not a delta
+                if(length <= 0 || length > fileSize - validLength - 12){
+                    return null;
+                }
+                byte[] bytes = in.readNBytes(length);
+
+                CRC32 crc = new CRC32();
+                crc.update(bytes);
+                if(bytes.length != length || crc.getValue() != checksum){
+                    return null;
+                }
+
+                // the record only counts as complete once it decodes
+                Delta delta;
+                try{
+                    delta = Delta.fromBytes(new DataInputStream(new ByteArrayInputStream(bytes)));
+                } catch (IOException e){
+                    return null;
+                }
+                validLength += 12 + length;
+                return delta;
+            } catch (EOFException e){
+                return null;
+            }
+        }
+
+        /**
+         * Cuts off a record left incomplete by a crash once every complete record has been read,
+         * so that records appended later are not hidden behind it
+         *
+         * @throws IOException if the log cannot be truncated
+         */
+        private void truncateTornTail() throws IOException {
+            if(Files.exists(deltaPath) && Files.size(deltaPath) > validLength){
+                try(FileChannel channel = FileChannel.open(deltaPath, StandardOpenOption.WRITE)){
+                    channel.truncate(validLength);
+                    channel.force(true);
+                }
+            }
+        }
+
+        /**
+         * Closes the delta log
+         *
+         * @throws IOException if closing fails
+         */
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
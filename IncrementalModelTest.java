@@ -0,0 +1,111 @@
+package comprehensive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalModelTest {
+
+    private Path snapshot;
+    private List<String> day1;
+    private List<String> day2;
+
+    @BeforeEach
+    void setup() throws IOException {
+        snapshot = Files.createTempDirectory("markov").resolve("model.mkv");
+        day1 = List.of("I", "Am", "Angieeeee", "I", "Am", "Happy");
+        day2 = List.of("I", "Am", "Happy", "I", "Am", "Sad");
+    }
+
+    @Test
+    void testSnapshotRoundTrip() throws IOException {
+        MarkovGraph graph = new MarkovGraph(day1);
+        MarkovGraphIO.write(graph, snapshot);
+        assertSameGraph(graph, MarkovGraphIO.read(snapshot));
+    }
+
+    @Test
+    void testAppendMatchesFullBuild() throws IOException {
+        IncrementalModel model = new IncrementalModel(snapshot, 100);
+        model.append(day1);
+        model.append(day2);
+
+        List<String> all = new ArrayList<>(day1);
+        all.addAll(day2);
+        MarkovGraph loaded = model.load();
+        assertSameGraph(new MarkovGraph(all), loaded);
+        assertEquals(List.of("Happy", "Angieeeee", "Sad"), loaded.findKLargest("Am", 3));
+    }
+
+    @Test
+    void testCompactKeepsCounts() throws IOException {
+        IncrementalModel model = new IncrementalModel(snapshot, 100);
+        model.append(day1);
+        model.compact();
+        assertFalse(Files.exists(snapshot.resolveSibling("model.mkv.delta")));
+
+        // a new model object has to read the last word back from the snapshot
+        new IncrementalModel(snapshot, 100).append(day2);
+
+        List<String> all = new ArrayList<>(day1);
+        all.addAll(day2);
+        assertSameGraph(new MarkovGraph(all), model.load());
+    }
+
+    @Test
+    void testZeroFilledTailIsCutOff() throws IOException {
+        assertTailIsCutOff(new byte[16]);
+    }
+
+    @Test
+    void testGarbageTailIsCutOff() throws IOException {
+
+        // a negative length, then a length longer than the rest of the file
+        assertTailIsCutOff(new byte[] {(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xf0, 1, 2, 3, 4, 5, 6, 7, 8});
+        assertTailIsCutOff(new byte[] {0, 0, 1, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9});
+    }
+
+    /**
+     * Appends bytes a crash could leave behind to the delta log, then checks that deltas appended afterwards
+     * are still loaded
+     *
+     * @param tail byte array appended to the log
+     */
+    private void assertTailIsCutOff(byte[] tail) throws IOException {
+        Path delta = snapshot.resolveSibling("model.mkv.delta");
+        Files.deleteIfExists(snapshot);
+        Files.deleteIfExists(delta);
+
+        // the first append goes straight into the snapshot, the second stays in the log ahead of the tail
+        IncrementalModel first = new IncrementalModel(snapshot, 100);
+        first.append(day1);
+        first.append(List.of("I", "Am"));
+        Files.write(delta, tail, java.nio.file.StandardOpenOption.APPEND);
+
+        IncrementalModel model = new IncrementalModel(snapshot, 100);
+        model.append(day2);
+        List<String> all = new ArrayList<>(day1);
+        all.addAll(List.of("I", "Am"));
+        all.addAll(day2);
+        assertSameGraph(new MarkovGraph(all), model.load());
+        assertSameGraph(new MarkovGraph(all), new IncrementalModel(snapshot, 100).load());
+    }
+
+    private void assertSameGraph(MarkovGraph expected, MarkovGraph actual){
+        assertEquals(expected.getVertices().size(), actual.getVertices().size());
+        assertEquals(expected.getLastWord(), actual.getLastWord());
+        for(VertexNode node : expected.getVertices()){
+            VertexNode other = actual.getVertex(node.getWord());
+            assertEquals(node.getNumOccurrences(), other.getNumOccurrences());
+            assertEquals(node.getNumAfterWords(), other.getNumAfterWords());
+            assertEquals(node.getOutWords(), other.getOutWords());
+        }
+    }
+}
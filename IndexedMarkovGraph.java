@@ -0,0 +1,706 @@
+package comprehensive;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Class that represents a read-only MarkovGraph stored in flat int arrays instead of a HashMap of VertexNodes.
+ * Words are kept once in a WordArena and referred to by int id everywhere else. Ids are given in lexicographical
+ * order of the words, so ties between equally frequent words are broken the same way as in MarkovGraph.
+ * renumberByFrequency gives ids in descending order of occurrences instead, which packs the hot part of the graph
+ * into the start of every array; such a graph keeps the lexicographical rank of each id to break ties the same way.
+ * The words following vertex v are the edges from edgeStart[v] to edgeStart[v + 1], sorted by id, and
+ * edgeCumulative holds the running total of their counts, which gives a vertex's count total without a separate array
+ * and lets a weighted random word be picked with a binary search.
+ * Strings are only created for words that are returned by a query.
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class IndexedMarkovGraph {
+
+    private final WordArena vocabulary;
+    private final int[] occurrences;
+    private final int[] edgeStart;
+    private final int[] edgeTarget;
+    private final int[] edgeCumulative;
+    private final int[] tieRank;        // lexicographical rank of each id, null when ids are in lexicographical order
+    private final int[] rankedId;       // id of each lexicographical rank, null when ids are in lexicographical order
+
+    /**
+     * Creates a graph from its arrays
+     *
+     * @param vocabulary WordArena with ids in lexicographical order
+     * @param occurrences int array of the number of times each word occurs
+     * @param edgeStart int array where the edges of each vertex start, with one extra entry for the end
+     * @param edgeTarget int array of the id of the word each edge goes to
+     * @param edgeCumulative int array of the running total of edge counts within each vertex
+     */
+    IndexedMarkovGraph(WordArena vocabulary, int[] occurrences, int[] edgeStart, int[] edgeTarget, int[] edgeCumulative){
+        this(vocabulary, occurrences, edgeStart, edgeTarget, edgeCumulative, null);
+    }
+
+    /**
+     * Creates a graph from its arrays, with ids in any order
+     *
+     * @param vocabulary WordArena of the words
+     * @param occurrences int array of the number of times each word occurs
+     * @param edgeStart int array where the edges of each vertex start, with one extra entry for the end
+     * @param edgeTarget int array of the id of the word each edge goes to
+     * @param edgeCumulative int array of the running total of edge counts within each vertex
+     * @param tieRank int array of the lexicographical rank of each id, or null if ids are in lexicographical order
+     */
+    IndexedMarkovGraph(WordArena vocabulary, int[] occurrences, int[] edgeStart, int[] edgeTarget, int[] edgeCumulative,
+                       int[] tieRank){
+        this.vocabulary = vocabulary;
+        this.occurrences = occurrences;
+        this.edgeStart = edgeStart;
+        this.edgeTarget = edgeTarget;
+        this.edgeCumulative = edgeCumulative;
+        this.tieRank = tieRank;
+        if(tieRank == null){
+            rankedId = null;
+        }
+        else{
+            rankedId = new int[tieRank.length];
+            for(int id = 0; id < tieRank.length; id++){
+                rankedId[tieRank[id]] = id;
+            }
+        }
+    }
+
+    /**
+     * Builds a graph directly from a text file, which may be compressed, without creating a String per word
+     *
+     * @param path Path of the text file
+     * @return IndexedMarkovGraph of the words in the file
+     * @throws IOException if the file cannot be read
+     */
+    public static IndexedMarkovGraph fromFile(Path path) throws IOException {
+        try(InputStream in = CompressedInput.open(path)){
+            return fromStream(in);
+        }
+    }
+
+    /**
+     * Builds a graph from a stream of UTF-8 text, cleaning words the same way as TextGenerator
+     *
+     * @param in InputStream of text, which is not closed
+     * @return IndexedMarkovGraph of the words in the stream
+     * @throws IOException if the stream cannot be read
+     */
+    public static IndexedMarkovGraph fromStream(InputStream in) throws IOException {
+        Builder builder = new Builder();
+        new ArenaTokenizer(builder.vocabulary).tokenize(in, builder::add);
+        return builder.build();
+    }
+
+    /**
+     * Copies a MarkovGraph into a read-only IndexedMarkovGraph
+     *
+     * @param graph MarkovGraph to copy
+     * @return IndexedMarkovGraph with the same words and counts
+     */
+    public static IndexedMarkovGraph from(MarkovGraph graph){
+        String[] words = new String[graph.getVertices().size()];
+        int index = 0;
+        for(VertexNode node : graph.getVertices()){
+            words[index++] = node.getWord();
+        }
+
+        // byte order is used for ids so the ids agree with WordArena.compare
+        byte[][] encoded = new byte[words.length][];
+        Integer[] order = new Integer[words.length];
+        for(int i = 0; i < words.length; i++){
+            encoded[i] = words[i].getBytes(StandardCharsets.UTF_8);
+            order[i] = i;
+        }
+        Arrays.sort(order, (i1, i2) -> Arrays.compareUnsigned(encoded[i1], encoded[i2]));
+
+        WordArena vocabulary = new WordArena();
+        for(Integer i : order){
+            vocabulary.intern(encoded[i], 0, encoded[i].length);
+        }
+        vocabulary.trim();
+
+        int numVertices = words.length;
+        int[] occurrences = new int[numVertices];
+        int[] edgeStart = new int[numVertices + 1];
+        int numEdges = 0;
+        for(VertexNode node : graph.getVertices()){
+            numEdges += node.getOutWords().size();
+        }
+        int[] edgeTarget = new int[numEdges];
+        int[] edgeCumulative = new int[numEdges];
+
+        // fills the edges of each vertex in id order, sorting each vertex's targets by id
+        int edge = 0;
+        for(int id = 0; id < numVertices; id++){
+            VertexNode node = graph.getVertex(vocabulary.getWord(id));
+            occurrences[id] = node.getNumOccurrences();
+            edgeStart[id] = edge;
+
+            int start = edge;
+            for(String next : node.getOutWords().keySet()){
+                edgeTarget[edge++] = vocabulary.find(next);
+            }
+            Arrays.sort(edgeTarget, start, edge);
+
+            int total = 0;
+            for(int e = start; e < edge; e++){
+                total += node.getOutWords().get(vocabulary.getWord(edgeTarget[e]));
+                edgeCumulative[e] = total;
+            }
+        }
+        edgeStart[numVertices] = edge;
+
+        return new IndexedMarkovGraph(vocabulary, occurrences, edgeStart, edgeTarget, edgeCumulative);
+    }
+
+    /**
+     * Builds the reverse graph, where every edge points from a word to the word that came before it, in one pass.
+     * The reverse graph shares this graph's vocabulary and occurrences, so its queries answer questions about
+     * preceding words: its findKLargest finds the most frequent predecessors and its chains run backwards.
+     * Edges are placed with a counting sort on their target, and because sources are visited in id order each
+     * vertex's reversed edges come out already sorted by id.
+     *
+     * @return IndexedMarkovGraph with every edge reversed
+     */
+    public IndexedMarkovGraph transpose(){
+        int numVertices = vertexCount();
+        int numEdges = edgeCount();
+
+        // counts the edges into each word to find where its reversed edges start
+        int[] reverseStart = new int[numVertices + 1];
+        for(int edge = 0; edge < numEdges; edge++){
+            reverseStart[edgeTarget[edge] + 1]++;
+        }
+        for(int id = 0; id < numVertices; id++){
+            reverseStart[id + 1] += reverseStart[id];
+        }
+
+        // places each edge in the bucket of its target with its plain count
+        int[] reverseTarget = new int[numEdges];
+        int[] reverseCumulative = new int[numEdges];
+        int[] fill = Arrays.copyOf(reverseStart, numVertices);
+        for(int from = 0; from < numVertices; from++){
+            for(int edge = edgeStart[from]; edge < edgeStart[from + 1]; edge++){
+                int slot = fill[edgeTarget[edge]]++;
+                reverseTarget[slot] = from;
+                reverseCumulative[slot] = countOf(edge, edgeStart[from]);
+            }
+        }
+
+        // turns the counts into running totals within each vertex
+        for(int id = 0; id < numVertices; id++){
+            for(int edge = reverseStart[id] + 1; edge < reverseStart[id + 1]; edge++){
+                reverseCumulative[edge] += reverseCumulative[edge - 1];
+            }
+        }
+
+        return new IndexedMarkovGraph(vocabulary, occurrences, reverseStart, reverseTarget, reverseCumulative, tieRank);
+    }
+
+    /**
+     * Builds a copy of the graph with ids in descending order of occurrences, for graphs that are only read from.
+     * A random walk spends most of its steps on the most frequent words, and with this order their occurrences,
+     * edge offsets, edges and bytes in the vocabulary all sit together at the start of each array instead of being
+     * spread over the whole graph, so the walk mostly touches memory that is already cached.
+     * Each vertex's edges are sorted by the new ids, which puts the frequent following words first.
+     * Queries give the same answers as on this graph: ties are still broken by lexicographical order.
+     *
+     * @return IndexedMarkovGraph with the same words and counts, renumbered by frequency
+     */
+    public IndexedMarkovGraph renumberByFrequency(){
+        int numVertices = vertexCount();
+
+        // orders the ids by descending occurrences, equally frequent words in lexicographical order
+        Integer[] order = new Integer[numVertices];
+        for(int id = 0; id < numVertices; id++){
+            order[id] = id;
+        }
+        Arrays.sort(order, (id1, id2) -> occurrences[id1] != occurrences[id2]
+                ? Integer.compare(occurrences[id2], occurrences[id1]) : Integer.compare(rankOf(id1), rankOf(id2)));
+
+        // copies the words in the new order, so the vocabulary's bytes are laid out by frequency too
+        WordArena renumberedVocabulary = new WordArena();
+        int[] newId = new int[numVertices];
+        int[] renumberedOccurrences = new int[numVertices];
+        int[] renumberedRank = new int[numVertices];
+        for(int i = 0; i < numVertices; i++){
+            newId[order[i]] = vocabulary.copyTo(order[i], renumberedVocabulary);
+            renumberedOccurrences[i] = occurrences[order[i]];
+            renumberedRank[i] = rankOf(order[i]);
+        }
+        renumberedVocabulary.trim();
+
+        // copies each vertex's edges in the new order, sorting them by new target with their counts packed alongside
+        int numEdges = edgeCount();
+        int[] renumberedStart = new int[numVertices + 1];
+        int[] renumberedTarget = new int[numEdges];
+        int[] renumberedCumulative = new int[numEdges];
+        long[] packed = new long[0];
+        int edge = 0;
+        for(int id = 0; id < numVertices; id++){
+            int old = order[id];
+            int start = edgeStart[old];
+            int degree = edgeStart[old + 1] - start;
+            renumberedStart[id] = edge;
+
+            if(packed.length < degree){
+                packed = new long[Math.max(degree, packed.length * 2)];
+            }
+            for(int i = 0; i < degree; i++){
+                packed[i] = (long) newId[edgeTarget[start + i]] << 32 | countOf(start + i, start);
+            }
+            Arrays.sort(packed, 0, degree);
+
+            int total = 0;
+            for(int i = 0; i < degree; i++){
+                total += (int) packed[i];
+                renumberedTarget[edge] = (int) (packed[i] >>> 32);
+                renumberedCumulative[edge] = total;
+                edge++;
+            }
+        }
+        renumberedStart[numVertices] = edge;
+
+        return new IndexedMarkovGraph(renumberedVocabulary, renumberedOccurrences, renumberedStart, renumberedTarget,
+                renumberedCumulative, renumberedRank);
+    }
+
+    /**
+     * Encodes the graph into a CompressedMarkovGraph, which shares this graph's vocabulary and occurrences
+     * and stores the edges in a fraction of the memory
+     *
+     * @return CompressedMarkovGraph with the same words and counts
+     */
+    public CompressedMarkovGraph compress(){
+        int[] counts = new int[edgeCount()];
+        for(int id = 0; id < vertexCount(); id++){
+            for(int edge = edgeStart[id]; edge < edgeStart[id + 1]; edge++){
+                counts[edge] = countOf(edge, edgeStart[id]);
+            }
+        }
+
+        CompressedMarkovGraph.Encoder encoder = new CompressedMarkovGraph.Encoder(vocabulary, occurrences, tieRank);
+        for(int id = 0; id < vertexCount(); id++){
+            encoder.addVertex(edgeTarget, counts, edgeStart[id], edgeStart[id + 1]);
+        }
+        return encoder.build();
+    }
+
+    /**
+     * Returns the number of distinct words in the graph
+     *
+     * @return int number of vertices
+     */
+    public int vertexCount(){
+        return occurrences.length;
+    }
+
+    /**
+     * Returns the number of distinct (word, following word) pairs in the graph
+     *
+     * @return int number of edges
+     */
+    public int edgeCount(){
+        return edgeTarget.length;
+    }
+
+    /**
+     * Returns the id of a word
+     *
+     * @param word String the word
+     * @return int id of the word, or -1 if it is not in the graph
+     */
+    public int idOf(String word){
+        return vocabulary.find(word);
+    }
+
+    /**
+     * Returns the word with an id
+     *
+     * @param id int id of the word
+     * @return String the word
+     */
+    public String wordOf(int id){
+        return vocabulary.getWord(id);
+    }
+
+    /**
+     * Returns the number of times a word occurs
+     *
+     * @param id int id of the word
+     * @return int number of occurrences
+     */
+    public int getNumOccurrences(int id){
+        return occurrences[id];
+    }
+
+    /**
+     * Returns the number of words that have come after a word
+     *
+     * @param id int id of the word
+     * @return int the sum of the counts of every following word
+     */
+    public int getNumAfterWords(int id){
+        int end = edgeStart[id + 1];
+        return end == edgeStart[id] ? 0 : edgeCumulative[end - 1];
+    }
+
+    /**
+     * Returns the number of distinct words that follow a word
+     *
+     * @param id int id of the word
+     * @return int number of edges out of the word
+     */
+    public int degree(int id){
+        return edgeStart[id + 1] - edgeStart[id];
+    }
+
+    /**
+     * Returns the number of times one word follows another. Uses a binary search over the sorted edges.
+     *
+     * @param from int id of the first word
+     * @param to int id of the following word
+     * @return int the count of the edge, or 0 if there is none
+     */
+    public int getEdgeCount(int from, int to){
+        int edge = Arrays.binarySearch(edgeTarget, edgeStart[from], edgeStart[from + 1], to);
+        return edge < 0 ? 0 : countOf(edge, edgeStart[from]);
+    }
+
+    /**
+     * Returns a list of the k most probable next words if the seed word exists
+     *
+     * @param seed String, the word to search for the k most probable words that come after it
+     * @param k int the number of most probable words to return that comes after the current word
+     * @return List of most probable words that come after the seed word
+     */
+    public List<String> findKLargest(String seed, int k){
+        int[] ids = kMostProbable(requireId(seed), k);
+        List<String> output = new ArrayList<>(ids.length);
+        for(int id : ids){
+            output.add(vocabulary.getWord(id));
+        }
+        return output;
+    }
+
+    /**
+     * Returns the ids of the k most probable next words in descending order, ties broken by lexicographical order
+     *
+     * @param id int id of the word
+     * @param k int number of words to return
+     * @return int array of at most k ids
+     */
+    public int[] kMostProbable(int id, int k){
+        if(k < 0){
+            throw new IllegalArgumentException("k is out of bounds");
+        }
+
+        int start = edgeStart[id];
+        int degree = edgeStart[id + 1] - start;
+
+        // with lexicographical ids the edges are sorted by rank, so packing the position breaks ties by smaller word,
+        // otherwise the rank of the target is packed instead and mapped back to its id
+        long[] keys = new long[degree];
+        for(int i = 0; i < degree; i++){
+            keys[i] = LongDaryMaxHeap.pack(countOf(start + i, start), tieRank == null ? i : tieRank[edgeTarget[start + i]]);
+        }
+
+        long[] top = new LongDaryMaxHeap(keys).topK(k);
+        int[] output = new int[top.length];
+        for(int i = 0; i < top.length; i++){
+            int packedId = LongDaryMaxHeap.unpackId(top[i]);
+            output[i] = tieRank == null ? edgeTarget[start + packedId] : rankedId[packedId];
+        }
+        return output;
+    }
+
+    /**
+     * Returns the most frequent next word, ties broken by lexicographical order
+     *
+     * @param id int id of the word
+     * @return int id of the most probable next word, or -1 if no word follows it
+     */
+    public int mostProbableNext(int id){
+        int best = -1;
+        int bestCount = 0;
+        for(int e = edgeStart[id]; e < edgeStart[id + 1]; e++){
+            int count = countOf(e, edgeStart[id]);
+            if(count > bestCount || count == bestCount && tieRank != null && tieRank[edgeTarget[e]] < tieRank[best]){
+                best = edgeTarget[e];
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Picks a random next word with probability proportional to how often it follows the word.
+     * O(log d) using a binary search over the running totals of the counts.
+     *
+     * @param id int id of the word
+     * @param random Random to draw from
+     * @return int id of the chosen next word, or -1 if no word follows it
+     */
+    public int weightedRandomNext(int id, Random random){
+        int start = edgeStart[id];
+        int end = edgeStart[id + 1];
+        if(start == end){
+            return -1;
+        }
+
+        // finds the first edge whose running total is greater than the random number
+        int target = random.nextInt(edgeCumulative[end - 1]);
+        int low = start;
+        int high = end - 1;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(edgeCumulative[mid] > target){
+                high = mid;
+            }
+            else{
+                low = mid + 1;
+            }
+        }
+        return edgeTarget[low];
+    }
+
+    /**
+     * Generates a chain of length k that chooses each word by taking
+     * the most probable next word from each previous word
+     *
+     * @param seed String the starting word
+     * @param k int the length of the output chain
+     * @return List the chain of most probable next words
+     */
+    public List<String> generateMostProbableChain(String seed, int k){
+        int seedId = requireId(seed);
+        int current = seedId;
+        List<String> outputChain = new ArrayList<>();
+
+        for(int i = 0; i < k; i++){
+            outputChain.add(vocabulary.getWord(current));
+            current = mostProbableNext(current);
+
+            // if there were no available words, sets the current word back to the seed
+            if(current < 0){
+                current = seedId;
+            }
+        }
+        return outputChain;
+    }
+
+    /**
+     * Generates a chain of length k that chooses each word by taking
+     * a weighted random next word from each previous word
+     *
+     * @param seed String the starting word
+     * @param k int the length of the output chain
+     * @return List of weighted random next words that form a chain
+     */
+    public List<String> generateWRS(String seed, int k){
+        int seedId = requireId(seed);
+        int current = seedId;
+        Random random = new Random();
+        List<String> outputChain = new ArrayList<>();
+
+        for(int i = 0; i < k; i++){
+            outputChain.add(vocabulary.getWord(current));
+            current = weightedRandomNext(current, random);
+
+            // if there were no available words, sets the current word back to the seed
+            if(current < 0){
+                current = seedId;
+            }
+        }
+        return outputChain;
+    }
+
+    /**
+     * Estimates the memory used by the graph's arrays, including the vocabulary
+     *
+     * @return long number of bytes
+     */
+    public long memoryBytes(){
+        long ranks = tieRank == null ? 0 : 2L * tieRank.length;
+        return vocabulary.memoryBytes() + 4L * (occurrences.length + edgeStart.length + edgeTarget.length + edgeCumulative.length + ranks);
+    }
+
+    /**
+     * Returns the index of a vertex's first edge. The edges of vertex id run up to edgeStart(id + 1).
+     *
+     * @param id int id of the word, or vertexCount() for the end of the last vertex's edges
+     * @return int index of the first edge
+     */
+    int edgeStart(int id){
+        return edgeStart[id];
+    }
+
+    /**
+     * Returns the id of the word an edge goes to
+     *
+     * @param edge int index of the edge
+     * @return int id of the following word
+     */
+    int edgeTarget(int edge){
+        return edgeTarget[edge];
+    }
+
+    /**
+     * Returns the count of an edge from the running totals
+     *
+     * @param edge int index of the edge
+     * @param start int index of the first edge of the same vertex
+     * @return int count of the edge
+     */
+    int countOf(int edge, int start){
+        return edge == start ? edgeCumulative[edge] : edgeCumulative[edge] - edgeCumulative[edge - 1];
+    }
+
+    /**
+     * Returns the lexicographical rank of a word
+     *
+     * @param id int id of the word
+     * @return int number of words in the graph that are lexicographically smaller
+     */
+    private int rankOf(int id){
+        return tieRank == null ? id : tieRank[id];
+    }
+
+    /**
+     * Returns the id of a seed word, throwing if it is not in the graph
+     *
+     * @param seed String the seed word
+     * @return int id of the seed
+     */
+    private int requireId(String seed){
+        int id = vocabulary.find(seed);
+        if(id < 0){
+            throw new NoSuchElementException("Seed word is not in graph");
+        }
+        return id;
+    }
+
+    /**
+     * Collects word ids and transitions and builds the flat arrays with counting sorts, so building takes
+     * O(number of words) time and two ints of memory per word of text.
+     */
+    static class Builder {
+
+        private final WordArena vocabulary = new WordArena();
+        private int[] tokens = new int[1 << 12];   // ids in text order, -1 where a chain was ended
+        private int numTokens;
+
+        /**
+         * Adds the next word
+         *
+         * @param id int arena id of the word
+         */
+        void add(int id){
+            if(numTokens == tokens.length){
+                tokens = Arrays.copyOf(tokens, tokens.length * 2);
+            }
+            tokens[numTokens++] = id;
+        }
+
+        /**
+         * Ends the current chain, so the next word does not get an edge from the last word added
+         */
+        void endChain(){
+            add(-1);
+        }
+
+        /**
+         * Returns the vocabulary words are added to
+         *
+         * @return WordArena of the builder
+         */
+        WordArena getVocabulary(){
+            return vocabulary;
+        }
+
+        /**
+         * Builds the graph
+         *
+         * @return IndexedMarkovGraph of the words added
+         */
+        IndexedMarkovGraph build(){
+            int numWords = vocabulary.size();
+
+            // renumbers ids into lexicographical order, so that smaller id means lexicographically smaller word
+            Integer[] order = new Integer[numWords];
+            for(int i = 0; i < numWords; i++){
+                order[i] = i;
+            }
+            Arrays.sort(order, vocabulary::compare);
+
+            WordArena sortedVocabulary = new WordArena();
+            int[] newId = new int[numWords];
+            for(int i = 0; i < numWords; i++){
+                newId[order[i]] = vocabulary.copyTo(order[i], sortedVocabulary);
+            }
+            sortedVocabulary.trim();
+
+            // counts occurrences and the number of transitions out of each word
+            int[] occurrences = new int[numWords];
+            int[] bucketStart = new int[numWords + 1];
+            int numTransitions = 0;
+            for(int i = 0; i < numTokens; i++){
+                if(tokens[i] < 0){
+                    continue;
+                }
+                tokens[i] = newId[tokens[i]];
+                occurrences[tokens[i]]++;
+                if(i > 0 && tokens[i - 1] >= 0){
+                    bucketStart[tokens[i - 1] + 1]++;
+                    numTransitions++;
+                }
+            }
+            for(int id = 0; id < numWords; id++){
+                bucketStart[id + 1] += bucketStart[id];
+            }
+
+            // places every next word in the bucket of its previous word
+            int[] next = new int[numTransitions];
+            int[] fill = Arrays.copyOf(bucketStart, numWords);
+            for(int i = 1; i < numTokens; i++){
+                if(tokens[i] >= 0 && tokens[i - 1] >= 0){
+                    next[fill[tokens[i - 1]]++] = tokens[i];
+                }
+            }
+
+            // sorts each bucket and collapses repeated next words into one edge with a running total, in place
+            int[] cumulative = new int[numTransitions];
+            int[] edgeStart = new int[numWords + 1];
+            int edge = 0;
+            for(int id = 0; id < numWords; id++){
+                edgeStart[id] = edge;
+                Arrays.sort(next, bucketStart[id], bucketStart[id + 1]);
+
+                int total = 0;
+                for(int i = bucketStart[id]; i < bucketStart[id + 1]; i++){
+                    total++;
+                    if(i + 1 == bucketStart[id + 1] || next[i + 1] != next[i]){
+                        next[edge] = next[i];
+                        cumulative[edge] = total;
+                        edge++;
+                    }
+                }
+            }
+            edgeStart[numWords] = edge;
+
+            return new IndexedMarkovGraph(sortedVocabulary, occurrences, edgeStart,
+                    Arrays.copyOf(next, edge), Arrays.copyOf(cumulative, edge));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package comprehensive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedMarkovGraphTest {
+
+    private MarkovGraph graph;
+    private IndexedMarkovGraph indexed;
+
+    @BeforeEach
+    void setup() throws IOException {
+        graph = new MarkovGraph(TextGenerator.FileToTextCleanup("src/comprehensive/shrek.txt"));
+        indexed = IndexedMarkovGraph.fromFile(Path.of("src/comprehensive/shrek.txt"));
+    }
+
+    @Test
+    void testSameAsMarkovGraph(){
+        assertEquals(graph.getVertices().size(), indexed.vertexCount());
+        for(VertexNode node : graph.getVertices()){
+            int id = indexed.idOf(node.getWord());
+            assertEquals(node.getNumOccurrences(), indexed.getNumOccurrences(id));
+            assertEquals(node.getNumAfterWords(), indexed.getNumAfterWords(id));
+            assertEquals(graph.findKLargest(node.getWord(), 5), indexed.findKLargest(node.getWord(), 5));
+            assertEquals(graph.generateMostProbableChain(node.getWord(), 10), indexed.generateMostProbableChain(node.getWord(), 10));
+        }
+    }
+
+    @Test
+    void testCopyOfMarkovGraph(){
+        IndexedMarkovGraph copy = IndexedMarkovGraph.from(graph);
+        assertEquals(indexed.edgeCount(), copy.edgeCount());
+        assertEquals(graph.findKLargest("lord", 3), copy.findKLargest("lord", 3));
+    }
+
+    @Test
+    void testTokenizerMatchesScanner() throws IOException {
+        String text = "H\u00e9llo, WORLD! \u00bfqu\u00e9? _under_score ~skip 'tis na\u00efve\u00a0word \u2003split";
+        IndexedMarkovGraph small = IndexedMarkovGraph.fromStream(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+        MarkovGraph expected = new MarkovGraph(TextGenerator.cleanTokens(new java.util.Scanner(text)));
+
+        assertEquals(expected.getVertices().size(), small.vertexCount());
+        for(VertexNode node : expected.getVertices()){
+            assertTrue(small.idOf(node.getWord()) >= 0, node.getWord());
+        }
+    }
+
+    @Test
+    void testEdgeCounts(){
+        int lord = indexed.idOf("lord");
+        int farquaad = indexed.idOf("farquaad");
+        assertEquals(graph.getVertex("lord").getOutWords().get("farquaad").intValue(), indexed.getEdgeCount(lord, farquaad));
+        assertEquals(0, indexed.getEdgeCount(lord, lord));
+        assertEquals(-1, indexed.idOf("not a word"));
+    }
+
+    @Test
+    void testTransposeReversesEveryEdge(){
+        IndexedMarkovGraph reverse = indexed.transpose();
+        assertEquals(indexed.edgeCount(), reverse.edgeCount());
+        int lord = indexed.idOf("lord");
+        int farquaad = indexed.idOf("farquaad");
+        assertEquals(indexed.getEdgeCount(lord, farquaad), reverse.getEdgeCount(farquaad, lord));
+
+        // every transition is counted once in each direction
+        assertEquals(sumOfAfterWords(indexed), sumOfAfterWords(reverse));
+    }
+
+    @Test
+    void testPredecessorsMatchScan(){
+        String word = "shrek";
+        List<String> predecessors = graph.findKLargestPredecessors(word, 5);
+        assertEquals(5, predecessors.size());
+        for(int i = 1; i < predecessors.size(); i++){
+            int before = graph.getVertex(predecessors.get(i - 1)).getOutWords().get(word);
+            int after = graph.getVertex(predecessors.get(i)).getOutWords().get(word);
+            assertTrue(before > after || (before == after && predecessors.get(i - 1).compareTo(predecessors.get(i)) < 0));
+        }
+
+        // no word outside the list precedes the word more often than the last one in it
+        int last = graph.getVertex(predecessors.get(4)).getOutWords().get(word);
+        for(VertexNode node : graph.getVertices()){
+            if(!predecessors.contains(node.getWord())){
+                assertTrue(node.getOutWords().getOrDefault(word, 0) <= last);
+            }
+        }
+    }
+
+    @Test
+    void testRenumberByFrequencyKeepsAnswers(){
+        IndexedMarkovGraph renumbered = indexed.renumberByFrequency();
+        assertEquals(indexed.edgeCount(), renumbered.edgeCount());
+
+        // ids run from the most frequent word down
+        assertEquals("you", renumbered.wordOf(0));
+        for(int id = 1; id < renumbered.vertexCount(); id++){
+            assertTrue(renumbered.getNumOccurrences(id - 1) >= renumbered.getNumOccurrences(id));
+        }
+
+        // ties are still broken lexicographically, including through the reverse and compressed graphs
+        CompressedMarkovGraph compressed = renumbered.compress();
+        for(VertexNode node : graph.getVertices()){
+            String word = node.getWord();
+            int id = renumbered.idOf(word);
+            assertEquals(node.getNumAfterWords(), renumbered.getNumAfterWords(id));
+            assertEquals(graph.findKLargest(word, 5), renumbered.findKLargest(word, 5));
+            assertEquals(graph.generateMostProbableChain(word, 10), renumbered.generateMostProbableChain(word, 10));
+            assertEquals(graph.findKLargest(word, 5), compressed.findKLargest(word, 5));
+            assertEquals(graph.generateMostProbableChain(word, 10), compressed.generateMostProbableChain(word, 10));
+        }
+        assertEquals(graph.findKLargestPredecessors("shrek", 5), renumbered.transpose().findKLargest("shrek", 5));
+    }
+
+    private static int sumOfAfterWords(IndexedMarkovGraph graph){
+        int total = 0;
+        for(int id = 0; id < graph.vertexCount(); id++){
+            total += graph.getNumAfterWords(id);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,367 @@
+package comprehensive;
+
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements a max heap of primitive longs using a d-ary layout (4 children per node by default).
+ * It is the primitive counterpart of BinaryMaxHeapComp: keys are compared as plain longs, so no Comparator,
+ * boxing or map lookups are needed for each comparison. A wider node keeps all children of a parent next to each
+ * other in the backing array, which makes percolateDown touch fewer cache lines.
+ * <p>
+ * Frequencies are stored by packing a (count, id) pair into a single long with pack(), so that a larger count
+ * is always larger and ties are broken in favor of the smaller id.
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class LongDaryMaxHeap {
+
+    private static final int DEFAULT_ARITY = 4;
+    private static final long ID_MASK = 0xFFFFFFFFL;
+
+    private long[] heapArray;
+    private final int arity;
+    private int size;
+
+    /**
+     * Default constructor, creates an empty 4-ary heap
+     */
+    public LongDaryMaxHeap(){
+        this(DEFAULT_ARITY);
+    }
+
+    /**
+     * Creates an empty heap where every node has the given number of children
+     *
+     * @param arity int number of children per node, must be at least 2
+     */
+    public LongDaryMaxHeap(int arity){
+        if(arity < 2){
+            throw new IllegalArgumentException("Arity must be at least 2");
+        }
+        this.arity = arity;
+        this.heapArray = new long[10];
+        this.size = 0;
+    }
+
+    /**
+     * Creates a 4-ary heap containing the keys passed. The array is copied and heapified in O(N).
+     *
+     * @param keys long array of keys to be added to the heap
+     */
+    public LongDaryMaxHeap(long[] keys){
+        this(keys, keys.length, DEFAULT_ARITY);
+    }
+
+    /**
+     * Creates a heap containing the first length keys passed and heapifies them in O(N)
+     *
+     * @param keys long array of keys to be added to the heap
+     * @param length int number of keys from the start of the array to use
+     * @param arity int number of children per node, must be at least 2
+     */
+    public LongDaryMaxHeap(long[] keys, int length, int arity){
+        this(arity);
+        this.heapArray = new long[Math.max(length, 10)];
+        System.arraycopy(keys, 0, heapArray, 0, length);
+        this.size = length;
+        buildHeap();
+    }
+
+    /**
+     * Packs a count and an id into one long key. Keys order by count first,
+     * and for equal counts the smaller id is the larger key.
+     *
+     * @param count int non-negative count used as the primary ordering
+     * @param id int non-negative id used to break ties
+     * @return long the packed key
+     */
+    public static long pack(int count, int id){
+        return ((long) count << 32) | (ID_MASK - (id & ID_MASK));
+    }
+
+    /**
+     * Returns the count stored in a key created with pack()
+     *
+     * @param key long packed key
+     * @return int the count
+     */
+    public static int unpackCount(long key){
+        return (int) (key >>> 32);
+    }
+
+    /**
+     * Returns the id stored in a key created with pack()
+     *
+     * @param key long packed key
+     * @return int the id
+     */
+    public static int unpackId(long key){
+        return (int) (ID_MASK - (key & ID_MASK));
+    }
+
+    /**
+     * Adds the given key to this heap.
+     * O(1) in the average case, O(log N) in the worst case
+     *
+     * @param key long key to be added
+     */
+    public void add(long key){
+        if(size == heapArray.length){
+            growArray();
+        }
+
+        // adds key to the end of the array and percolates it up to the right position
+        heapArray[size] = key;
+        percolateUp(size);
+        size++;
+    }
+
+    /**
+     * Returns, but does not remove, the maximum key in this heap.
+     * O(1)
+     *
+     * @return the maximum key
+     * @throws NoSuchElementException if this heap is empty
+     */
+    public long peek() throws NoSuchElementException {
+        if(isEmpty()){
+            throw new NoSuchElementException("Heap is empty");
+        }
+        return heapArray[0];
+    }
+
+    /**
+     * Returns and removes the maximum key in this heap.
+     * O(log N)
+     *
+     * @return the maximum key
+     * @throws NoSuchElementException if this heap is empty
+     */
+    public long extractMax() throws NoSuchElementException {
+        if(isEmpty()){
+            throw new NoSuchElementException("Heap is empty");
+        }
+
+        long max = heapArray[0];
+
+        // moves the last key to the root and percolates it down
+        size--;
+        heapArray[0] = heapArray[size];
+        percolateDown(0);
+
+        return max;
+    }
+
+    /**
+     * Returns the k largest keys in descending order without modifying the heap.
+     * Instead of k extractMax calls on the whole heap, this walks the heap with a small candidate heap
+     * that only ever holds the frontier of the k nodes visited so far, so it runs in O(k log k)
+     * regardless of the size of this heap.
+     *
+     * @param k int number of keys to return
+     * @return long array of at most k keys in descending order
+     */
+    public long[] topK(int k){
+        if(k < 0){
+            throw new IllegalArgumentException("k is out of bounds");
+        }
+
+        int count = Math.min(k, size);
+        long[] output = new long[count];
+        if(count == 0){
+            return output;
+        }
+
+        // candidate heap of indices into heapArray, ordered by the key stored at that index
+        int[] candidates = new int[count * (arity - 1) + 1];
+        int numCandidates = 1;
+        candidates[0] = 0;
+
+        for(int i = 0; i < count; i++){
+
+            // takes the best candidate, it is the next largest key overall
+            int best = candidates[0];
+            output[i] = heapArray[best];
+            numCandidates--;
+            candidates[0] = candidates[numCandidates];
+            siftCandidateDown(candidates, numCandidates, 0);
+
+            // the children of the node just taken are the only new nodes that can be next
+            int firstChild = arity * best + 1;
+            int lastChild = Math.min(firstChild + arity, size);
+            for(int child = firstChild; child < lastChild; child++){
+                candidates[numCandidates] = child;
+                siftCandidateUp(candidates, numCandidates);
+                numCandidates++;
+            }
+        }
+
+        return output;
+    }
+
+    /**
+     * Returns the number of keys in this heap.
+     * O(1)
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Returns true if this heap is empty, false otherwise.
+     * O(1)
+     */
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    /**
+     * Empties this heap of keys.
+     * O(1)
+     */
+    public void clear(){
+        size = 0;
+    }
+
+    /**
+     * Creates and returns an array of the keys in this heap,
+     * in the same order they appear in the backing array.
+     * O(N)
+     */
+    public long[] toArray(){
+        long[] output = new long[size];
+        System.arraycopy(heapArray, 0, output, 0, size);
+        return output;
+    }
+
+    /**
+     * Puts the backing array into a valid heap ordering where the children of i are stored at arity * i + 1 to arity * i + arity
+     */
+    private void buildHeap(){
+
+        // percolates down every node that has a child, starting from the last parent
+        for(int i = (size - 2) / arity; i >= 0; i--){
+            percolateDown(i);
+        }
+    }
+
+    /**
+     * Moves the key at the given index up the heap while it is larger than its parent
+     *
+     * @param index - position of key to be put in order
+     */
+    private void percolateUp(int index){
+        long key = heapArray[index];
+        int currIndex = index;
+
+        // shifts parents down instead of swapping, and writes the key once at its final position
+        while(currIndex != 0){
+            int parent = (currIndex - 1) / arity;
+            if(heapArray[parent] >= key){
+                break;
+            }
+            heapArray[currIndex] = heapArray[parent];
+            currIndex = parent;
+        }
+        heapArray[currIndex] = key;
+    }
+
+    /**
+     * Moves the key at the given index down the heap while it is smaller than its largest child
+     *
+     * @param index - position of key to be put in order
+     */
+    private void percolateDown(int index){
+        long key = heapArray[index];
+        int currIndex = index;
+
+        while(true){
+            int firstChild = arity * currIndex + 1;
+
+            // a leaf node is already at the bottom level
+            if(firstChild >= size){
+                break;
+            }
+
+            // finds the largest of the (up to arity) children, which sit next to each other in the array
+            int lastChild = Math.min(firstChild + arity, size);
+            int largest = firstChild;
+            for(int child = firstChild + 1; child < lastChild; child++){
+                if(heapArray[child] > heapArray[largest]){
+                    largest = child;
+                }
+            }
+
+            if(heapArray[largest] <= key){
+                break;
+            }
+            heapArray[currIndex] = heapArray[largest];
+            currIndex = largest;
+        }
+        heapArray[currIndex] = key;
+    }
+
+    /**
+     * Sifts a candidate index up the candidate heap used by topK
+     *
+     * @param candidates int array of heap indices
+     * @param index position of the candidate to be put in order
+     */
+    private void siftCandidateUp(int[] candidates, int index){
+        int candidate = candidates[index];
+        long key = heapArray[candidate];
+
+        while(index != 0){
+            int parent = (index - 1) / 2;
+            if(heapArray[candidates[parent]] >= key){
+                break;
+            }
+            candidates[index] = candidates[parent];
+            index = parent;
+        }
+        candidates[index] = candidate;
+    }
+
+    /**
+     * Sifts a candidate index down the candidate heap used by topK
+     *
+     * @param candidates int array of heap indices
+     * @param length number of candidates in the candidate heap
+     * @param index position of the candidate to be put in order
+     */
+    private void siftCandidateDown(int[] candidates, int length, int index){
+        if(length == 0){
+            return;
+        }
+        int candidate = candidates[index];
+        long key = heapArray[candidate];
+
+        while(true){
+            int left = 2 * index + 1;
+            if(left >= length){
+                break;
+            }
+            int larger = left;
+            if(left + 1 < length && heapArray[candidates[left + 1]] > heapArray[candidates[left]]){
+                larger = left + 1;
+            }
+            if(heapArray[candidates[larger]] <= key){
+                break;
+            }
+            candidates[index] = candidates[larger];
+            index = larger;
+        }
+        candidates[index] = candidate;
+    }
+
+    /**
+     * Doubles the array capacity with keys in the same index as previously.
+     */
+    private void growArray(){
+        long[] tempArray = new long[heapArray.length * 2];
+        System.arraycopy(heapArray, 0, tempArray, 0, heapArray.length);
+        heapArray = tempArray;
+    }
+
+}
@@ -0,0 +1,77 @@
+package comprehensive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongDaryMaxHeapTest {
+
+    private LongDaryMaxHeap heap;
+
+    @BeforeEach
+    void setup(){
+        heap = new LongDaryMaxHeap(new long[] {5, 1, 9, 3, 7, 2, 8});
+    }
+
+    @Test
+    void testExtractMaxOrder(){
+        long[] output = new long[7];
+        for(int i = 0; i < 7; i++){
+            output[i] = heap.extractMax();
+        }
+        assertArrayEquals(new long[] {9, 8, 7, 5, 3, 2, 1}, output);
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    void testTopKDoesNotModifyHeap(){
+        assertArrayEquals(new long[] {9, 8, 7}, heap.topK(3));
+        assertEquals(7, heap.size());
+        assertEquals(9, heap.peek());
+    }
+
+    @Test
+    void testTopKMoreThanSize(){
+        assertArrayEquals(new long[] {9, 8, 7, 5, 3, 2, 1}, heap.topK(20));
+        assertEquals(0, heap.topK(0).length);
+    }
+
+    @Test
+    void testTopKMatchesSortRandom(){
+        Random random = new Random(49);
+        for(int arity = 2; arity <= 8; arity++){
+            LongDaryMaxHeap randomHeap = new LongDaryMaxHeap(arity);
+            long[] keys = new long[1000];
+            for(int i = 0; i < keys.length; i++){
+                keys[i] = random.nextInt(100);
+                randomHeap.add(keys[i]);
+            }
+            Arrays.sort(keys);
+            long[] expected = new long[50];
+            for(int i = 0; i < 50; i++){
+                expected[i] = keys[keys.length - 1 - i];
+            }
+            assertArrayEquals(expected, randomHeap.topK(50));
+        }
+    }
+
+    @Test
+    void testPackTiesPreferSmallerId(){
+        assertTrue(LongDaryMaxHeap.pack(3, 0) > LongDaryMaxHeap.pack(2, 0));
+        assertTrue(LongDaryMaxHeap.pack(3, 1) > LongDaryMaxHeap.pack(3, 2));
+        assertEquals(3, LongDaryMaxHeap.unpackCount(LongDaryMaxHeap.pack(3, 17)));
+        assertEquals(17, LongDaryMaxHeap.unpackId(LongDaryMaxHeap.pack(3, 17)));
+    }
+
+    @Test
+    void testEmptyHeap(){
+        heap.clear();
+        assertThrows(NoSuchElementException.class, () -> heap.extractMax());
+    }
+
+}
@@ -1,9 +1,17 @@
 package comprehensive;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Class that represents a MarkovGraph with input text words stored in a HashMap.
@@ -14,8 +22,42 @@ import java.util.NoSuchElementException;
  */
 public class MarkovGraph {
 
+    private static final double STATIONARY_TELEPORT = 0.05; // restart probability of the walk that ranks seeds
+    private static final long DEFAULT_STATIONARY_INTERVAL = 10_000; // words added before the distribution is rebuilt
+
     private HashMap<String, VertexNode> vertices;
     private VertexNode prevWord;
+    private TopKCache topKCache; // null unless enableTopKCache was called
+    private volatile IndexedMarkovGraph reverseIndex; // built by the first predecessor query, dropped when words are added
+    private VertexNode[] creationOrder = new VertexNode[16]; // every vertex in the order it was created
+    private long tokenCount; // number of words added with addWord, -1 once counts were added any other way
+    private volatile int checkpointEpoch; // epoch of the checkpoint being written, 0 when there is none
+    private int lastCheckpointEpoch;
+    private boolean seedFallback; // set by enableSeedFallback
+    private volatile StationaryDistribution stationary; // built when first needed, rebuilt after enough words are added
+    private long wordsSinceStationary; // words added since the stationary distribution was built
+    private long stationaryInterval = DEFAULT_STATIONARY_INTERVAL;
+
+    /**
+     * A single top-k query for findKLargestBatch
+     *
+     * @param seed the word to find the most probable following words of
+     * @param k the number of words to return
+     */
+    public record TopKQuery(String seed, int k){}
+
+    /**
+     * The state of the graph when a checkpoint started. The vertices are the first numVertices entries of the array,
+     * which is never changed below that length, and each one gives its counts as of the start through
+     * VertexNode.checkpointRecord.
+     *
+     * @param epoch number of the checkpoint
+     * @param vertices array of vertices in the order they were created
+     * @param numVertices number of vertices when the checkpoint started
+     * @param lastWord the last word added, or null if the chain had been ended
+     * @param tokenCount number of words added when the checkpoint started
+     */
+    record CheckpointView(int epoch, VertexNode[] vertices, int numVertices, String lastWord, long tokenCount){}
 
     /**
      * Constructor for MarkovGraph.
@@ -29,6 +71,31 @@ public class MarkovGraph {
 
     }
 
+    /**
+     * Constructor for an empty MarkovGraph that words can be added to later
+     */
+    public MarkovGraph(){
+        vertices = new HashMap<String,VertexNode>();
+    }
+
+    /**
+     * Adds more words to the end of the MarkovGraph. The first word continues the chain
+     * from the last word that was added, so the result is the same as building the graph from all the words at once.
+     *
+     * @param input List of Strings to be added to the MarkovGraph
+     */
+    public void addWords(List<String> input){
+        buildMap(input);
+    }
+
+    /**
+     * Ends the current chain, so the next added word does not get an edge from the last word added.
+     * Used between documents that are not one continuous text.
+     */
+    public void endChain(){
+        prevWord = null;
+    }
+
     /**
      * Goes through the list of strings and adds the word to the MarkovGraph
      *
@@ -45,14 +112,33 @@ public class MarkovGraph {
      *
      * @param nodeName String the word to add to the graph
      */
-    private void addWord(String nodeName){
+    void addWord(String nodeName){
+
+        // drops the cache built from the old counts, storing to the volatile field only when there is one to drop
+        if(reverseIndex != null){
+            reverseIndex = null;
+        }
+        wordsSinceStationary++;
+        if(tokenCount >= 0){
+            tokenCount++;
+        }
+
+        // while a checkpoint is being written, each vertex saves its counts before its first change
+        int epoch = checkpointEpoch;
 
         // if the current word is the first word to be added, sets the prev word to null and adds the word to the graph
         if(prevWord == null){
 
+            // a loaded graph can already contain the first word, in which case only its occurrences change
+            if(vertices.containsKey(nodeName)){
+                prevWord = vertices.get(nodeName);
+                prevWord.preserve(epoch);
+                prevWord.addOccurrence();
+                return;
+            }
+
             // creates a vertexNode with the current word and puts the node in the graph with its name and the node reference
-            prevWord = new VertexNode(nodeName);
-            vertices.put(nodeName, prevWord);
+            prevWord = createVertex(nodeName);
             return;
         }
 
@@ -61,20 +147,150 @@ public class MarkovGraph {
         // if the node already exists in the HashMap, adds an occurrence of it
         if(vertices.containsKey(nodeName)){
             node = vertices.get(nodeName);
+            node.preserve(epoch);
             node.addOccurrence();
         }
 
         // creates a new node with the word and puts it in the MarkovGraph with the word and the node
         else{
-            node = new VertexNode(nodeName);
-            vertices.put(nodeName, node);
+            node = createVertex(nodeName);
         }
 
         // if the word has a previous word, adds the word to the Map containing words that follow the previous word
+        prevWord.preserve(epoch);
         prevWord.addEdge(nodeName);
+        if(topKCache != null){
+            topKCache.invalidate(prevWord.getWord());
+        }
         prevWord = node; // sets the current node to the previous node to use the next time the method is called
     }
 
+    /**
+     * Creates a vertex and puts it in the graph
+     *
+     * @param word String the word of the vertex
+     * @return VertexNode that was created
+     */
+    private VertexNode createVertex(String word){
+        VertexNode node = new VertexNode(word);
+
+        // a vertex created during a checkpoint is not part of it, so it never needs to save its counts
+        int epoch = checkpointEpoch;
+        if(epoch != 0){
+            node.excludeFromCheckpoint(epoch);
+        }
+
+        if(vertices.size() == creationOrder.length){
+            creationOrder = Arrays.copyOf(creationOrder, creationOrder.length * 2);
+        }
+        creationOrder[vertices.size()] = node;
+        vertices.put(word, node);
+        return node;
+    }
+
+    /**
+     * Starts a checkpoint of the graph as it is now, for writing on another thread while words keep being added.
+     * Must be called from the thread that adds words. Until endCheckpoint, every vertex saves a copy of its counts
+     * the first time it changes, unless the checkpoint has already read it, so the checkpoint always sees the counts
+     * as of this call. Taking the view is O(1): the vertices are a prefix of an array that is only appended to.
+     * Only addWord, addWords and endChain may change the graph while a checkpoint is active.
+     *
+     * @return CheckpointView of the graph now, or null if another checkpoint is still being written
+     */
+    CheckpointView beginCheckpoint(){
+        if(checkpointEpoch != 0){
+            return null;
+        }
+        int epoch = ++lastCheckpointEpoch;
+        checkpointEpoch = epoch;
+        return new CheckpointView(epoch, creationOrder, vertices.size(), getLastWord(), tokenCount);
+    }
+
+    /**
+     * Ends the active checkpoint once every vertex of its view has been read or released, after which vertices
+     * stop saving copies of their counts. May be called from the thread that wrote the checkpoint.
+     */
+    void endCheckpoint(){
+        checkpointEpoch = 0;
+    }
+
+    /**
+     * Returns the number of words added to the graph, which is where replaying the text should resume
+     * after loading a snapshot of the graph. It is only known while the graph has been built word by word:
+     * adding counts directly, as merging does, makes it unknown unless the caller sets it.
+     *
+     * @return long number of words added, including those of a loaded snapshot, or -1 if it is not known
+     */
+    public long tokenCount(){
+        return tokenCount;
+    }
+
+    /**
+     * Sets the number of words added, when loading a snapshot or applying counts whose number of words is known
+     *
+     * @param tokenCount long number of words the graph was made from, or -1 if it is not known
+     */
+    void setTokenCount(long tokenCount){
+        this.tokenCount = tokenCount;
+    }
+
+    /**
+     * Returns the number of distinct words in the graph
+     *
+     * @return int number of vertices
+     */
+    public int vertexCount(){
+        return vertices.size();
+    }
+
+    /**
+     * Returns the number of distinct (word, following word) pairs in the graph
+     *
+     * @return long number of edges
+     */
+    public long edgeCount(){
+        long count = 0;
+        for(VertexNode node : vertices.values()){
+            count += node.getOutWords().size();
+        }
+        return count;
+    }
+
+    /**
+     * Estimates the heap memory used by the graph, assuming a 64-bit JVM with compressed references.
+     * Each vertex costs its word, its entry in the vertex map, the VertexNode and its own map, and each edge costs
+     * a map entry, its share of the map's table, the key String (which MarkovGraphIO does not share between vertices)
+     * and a boxed count. The estimate walks every edge, so it takes time proportional to the size of the graph.
+     *
+     * @return long estimated number of bytes
+     */
+    public long estimatedMemoryBytes(){
+        long bytes = 64 + 8L * vertices.size() * 4 / 3;
+        for(VertexNode node : vertices.values()){
+            bytes += stringBytes(node.getWord()) + 32 + 40 + 48 + 16;
+            for(Map.Entry<String, Integer> edge : node.getOutWords().entrySet()){
+                bytes += 32 + 11 + stringBytes(edge.getKey()) + (edge.getValue() > 127 ? 16 : 0);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Estimates the memory of a String: the object, and its byte array of one byte per character for Latin-1 text
+     * or two otherwise
+     *
+     * @param word String to measure
+     * @return long estimated number of bytes
+     */
+    private static long stringBytes(String word){
+        boolean latin1 = true;
+        for(int i = 0; i < word.length() && latin1; i++){
+            latin1 = word.charAt(i) < 256;
+        }
+        long arrayBytes = 16 + (long) word.length() * (latin1 ? 1 : 2);
+        return 24 + (arrayBytes + 7) / 8 * 8;
+    }
+
     /**
      * Returns a list of the k most probable next words if the seed word exists
      *
@@ -83,12 +299,237 @@ public class MarkovGraph {
      * @return List of most probable words that come after the seed word
      */
     public List<String> findKLargest(String seed, int k){
+        seed = resolveSeed(seed);
 
-        if(!vertices.containsKey(seed)){
+        if(topKCache == null){
+            // returns a list of the k most probable next words
+            return vertices.get(seed).kMostProbable(k);
+        }
+
+        if(k < 0){
+            throw new IllegalArgumentException("k is out of bounds");
+        }
+
+        // answers from the cache if it holds a list for at least k words, otherwise computes and caches the list
+        List<String> cached = topKCache.get(seed, k);
+        if(cached != null){
+            return cached;
+        }
+        List<String> result = vertices.get(seed).kMostProbable(k);
+        topKCache.put(seed, k, result);
+        return result;
+    }
+
+    /**
+     * Answers many top-k queries at once. Each distinct seed is computed only once, with the largest k asked for it,
+     * and distinct seeds are computed in parallel. Results are returned in the same order as the queries.
+     * A seed that is not in the graph falls back like findKLargest does if enableSeedFallback was called, and
+     * otherwise gets an empty list instead of failing the whole batch.
+     * Words must not be added to the graph while a batch is running.
+     *
+     * @param queries List of TopKQuery to answer
+     * @return List with the k most probable words for each query
+     */
+    public List<List<String>> findKLargestBatch(List<TopKQuery> queries){
+
+        // resolves each seed up front, so fallback seeds share a result with the word they fall back to
+        // and the stationary distribution is computed at most once, before the parallel part
+        String[] seeds = new String[queries.size()];
+        Map<String, Integer> largestK = new HashMap<>();
+        for(int i = 0; i < seeds.length; i++){
+            TopKQuery query = queries.get(i);
+            if(query.k() < 0){
+                throw new IllegalArgumentException("k is out of bounds");
+            }
+            if(vertices.containsKey(query.seed()) || (seedFallback && !vertices.isEmpty())){
+                seeds[i] = resolveSeed(query.seed());
+
+                // finds the largest k asked for each seed, so smaller queries for the same seed can share its result
+                largestK.merge(seeds[i], query.k(), Math::max);
+            }
+        }
+
+        Map<String, List<String>> resultsBySeed = new ConcurrentHashMap<>();
+        largestK.keySet().parallelStream().forEach(seed -> resultsBySeed.put(seed, findKLargest(seed, largestK.get(seed))));
+
+        List<List<String>> output = new ArrayList<>(queries.size());
+        for(int i = 0; i < seeds.length; i++){
+            List<String> words = seeds[i] == null ? List.of() : resultsBySeed.get(seeds[i]);
+            output.add(words.subList(0, Math.min(queries.get(i).k(), words.size())));
+        }
+        return output;
+    }
+
+    /**
+     * Returns a list of the k words that most often come before a word, ties broken lexicographically.
+     * Uses a reverse index of the graph, built on the first call and rebuilt after words are added.
+     *
+     * @param word String, the word to find the most frequent preceding words of
+     * @param k int the number of preceding words to return
+     * @return List of the most frequent words that come before the word
+     */
+    public List<String> findKLargestPredecessors(String word, int k){
+
+        word = resolveSeed(word);
+        return reverseIndex().findKLargest(word, k);
+    }
+
+    /**
+     * Generates a chain of length k that ends at the given word, choosing each word by taking
+     * the most frequent preceding word of the word after it
+     *
+     * @param end String the last word of the chain
+     * @param k int the length of the output chain
+     * @return List the chain of most probable preceding words, in reading order
+     */
+    public List<String> generateBackwardMostProbableChain(String end, int k){
+
+        end = resolveSeed(end);
+
+        // walks backwards from the end word, then reverses the chain so it reads forwards
+        List<String> outputChain = reverseIndex().generateMostProbableChain(end, k);
+        Collections.reverse(outputChain);
+        return outputChain;
+    }
+
+    /**
+     * Generates a chain of length k that ends at the given word, choosing each word by taking
+     * a weighted random preceding word of the word after it
+     *
+     * @param end String the last word of the chain
+     * @param k int the length of the output chain
+     * @return List of weighted random preceding words that form a chain, in reading order
+     */
+    public List<String> generateBackwardWRS(String end, int k){
+
+        end = resolveSeed(end);
+
+        // walks backwards from the end word, then reverses the chain so it reads forwards
+        List<String> outputChain = reverseIndex().generateWRS(end, k);
+        Collections.reverse(outputChain);
+        return outputChain;
+    }
+
+    /**
+     * Returns the reverse index of the graph, building it from the current counts if words were added since it was built
+     *
+     * @return IndexedMarkovGraph with every edge of this graph reversed
+     */
+    private IndexedMarkovGraph reverseIndex(){
+        IndexedMarkovGraph index = reverseIndex;
+        if(index == null){
+            index = IndexedMarkovGraph.from(this).transpose();
+            reverseIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Creates a scorer for the likelihood of word sequences under the current counts of this graph.
+     * The scorer works on a compact copy of the graph, so words added afterwards are not reflected in it.
+     *
+     * @param unseen SequenceScorer.Unseen policy for transitions the graph has never seen
+     * @param floorProbability double probability given to unseen transitions with the FLOOR policy
+     * @return SequenceScorer for this graph
+     */
+    public SequenceScorer scorer(SequenceScorer.Unseen unseen, double floorProbability){
+        return new SequenceScorer(IndexedMarkovGraph.from(this), unseen, floorProbability);
+    }
+
+    /**
+     * Makes queries with a seed that is not in the graph start from the word a long weighted random walk visits most,
+     * instead of throwing NoSuchElementException. Applies to findKLargest, findKLargestBatch, findKLargestPredecessors,
+     * the forward and backward chain generators and publishWRS.
+     */
+    public void enableSeedFallback(){
+        seedFallback = true;
+    }
+
+    /**
+     * Returns the seed a query should start from: the seed itself if it is in the graph, otherwise the most visited
+     * word if enableSeedFallback was called
+     *
+     * @param seed String the requested seed
+     * @return String a seed that is in the graph
+     */
+    String resolveSeed(String seed){
+        if(vertices.containsKey(seed)){
+            return seed;
+        }
+        if(!seedFallback || vertices.isEmpty()){
             throw new NoSuchElementException("Seed word is not in graph");
         }
-        // returns a list of the k most probable next words
-        return vertices.get(seed).kMostProbable(k);
+        return stationaryDistribution().mostVisitedWord();
+    }
+
+    /**
+     * Returns the stationary distribution of the weighted random walk over the graph, with dead ends teleporting to
+     * a random word and a small probability of restarting at a random word on every step, so the iteration converges
+     * even where the plain walk would cycle. It is computed on first use and kept until more words than the recompute
+     * interval have been added, so it can lag behind the graph by up to that many words. Computing it copies the
+     * graph and runs power iteration over every edge, and is done on the thread that asks for it.
+     *
+     * @return StationaryDistribution of the graph
+     */
+    public StationaryDistribution stationaryDistribution(){
+        StationaryDistribution distribution = stationary;
+        if(distribution == null || wordsSinceStationary > stationaryInterval){
+            wordsSinceStationary = 0;
+            distribution = new StationaryDistribution(IndexedMarkovGraph.from(this),
+                    StationaryDistribution.DeadEnds.TELEPORT, null, STATIONARY_TELEPORT, 1e-10, 1000);
+            stationary = distribution;
+        }
+        return distribution;
+    }
+
+    /**
+     * Sets how many words can be added before stationaryDistribution is computed again, 10,000 by default.
+     * An interval of 0 recomputes it after any word is added.
+     *
+     * @param words long number of words added that a kept distribution may lag behind
+     */
+    public void setStationaryRecomputeInterval(long words){
+        if(words < 0){
+            throw new IllegalArgumentException("Recompute interval must not be negative");
+        }
+        stationaryInterval = words;
+    }
+
+    /**
+     * Fills the findKLargest cache for the words a long weighted random walk visits most,
+     * which are the seeds generated text and follow-up queries land on most often
+     *
+     * @param numSeeds int number of most visited words to cache
+     * @param k int number of following words to cache for each
+     * @return int number of seeds cached
+     */
+    public int warmTopKCache(int numSeeds, int k){
+        if(topKCache == null){
+            throw new IllegalStateException("The top-k cache is not enabled");
+        }
+        List<String> seeds = stationaryDistribution().topWords(numSeeds);
+        for(String seed : seeds){
+            findKLargest(seed, k);
+        }
+        return seeds.size();
+    }
+
+    /**
+     * Turns on caching of findKLargest results. The cached list of a seed is dropped whenever a word is added after it.
+     *
+     * @param maxCachedWords long total number of words the cache may hold across all seeds
+     */
+    public void enableTopKCache(long maxCachedWords){
+        topKCache = new TopKCache(maxCachedWords);
+    }
+
+    /**
+     * Returns the hit and miss statistics of the findKLargest cache
+     *
+     * @return TopKCache.Stats, or null if the cache is not enabled
+     */
+    public TopKCache.Stats getTopKCacheStats(){
+        return topKCache == null ? null : topKCache.getStats();
     }
 
     /**
@@ -100,10 +541,7 @@ public class MarkovGraph {
      * @return List the chain of most probable next words
      */
     public List<String> generateMostProbableChain(String seed, int k){
-
-        if(!vertices.containsKey(seed)){
-            throw new NoSuchElementException("Seed word is not in graph");
-        }
+        seed = resolveSeed(seed);
 
         VertexNode currNode = vertices.get(seed); // gets the seed word from the MarkovGraph
         List<String> outputChain = new ArrayList<>();
@@ -131,10 +569,7 @@ public class MarkovGraph {
      * @return List of weighted random next words that form a chain
      */
     public List<String> generateWRS(String seed, int k){
-
-        if(!vertices.containsKey(seed)){
-            throw new NoSuchElementException("Seed word is not in graph");
-        }
+        seed = resolveSeed(seed);
 
         VertexNode currNode = vertices.get(seed); // gets seed word from the MarkovGraph
         List<String> outputChain = new ArrayList<>();
@@ -153,4 +588,124 @@ public class MarkovGraph {
         return outputChain;
     }
 
+    /**
+     * Generates a chain of length k that chooses each word by temperature and nucleus (top-p) sampling
+     * of the words following the previous word. Temperature 1 and top-p 1 give the same distribution as generateWRS.
+     *
+     * @param seed String the starting word
+     * @param k int the length of the output chain
+     * @param temperature double greater than 0, below 1 favors frequent words and above 1 favors rare ones
+     * @param topP double in (0, 1], the share of the probability the next word is sampled from
+     * @return List of sampled words that form a chain
+     */
+    public List<String> generateSampled(String seed, int k, double temperature, double topP){
+        seed = resolveSeed(seed);
+
+        VertexNode currNode = vertices.get(seed);
+        List<String> outputChain = new ArrayList<>();
+
+        // adds the current word to the output and then sets the current word to a sampled following word k times
+        for(int i = 0; i < k; i++){
+            outputChain.add(currNode.getWord());
+            String next = currNode.sampleNextWord(temperature, topP);
+            currNode = next == null ? null : vertices.get(next);
+
+            // if there were no available words, sets the current node back to the seed
+            if(currNode == null){
+                currNode = vertices.get(seed);
+            }
+        }
+        return outputChain;
+    }
+
+    /**
+     * Returns a publisher that generates weighted random chains as its subscribers ask for words, on the common
+     * fork join pool in batches of up to 64 words
+     *
+     * @param seed String the starting word
+     * @param length long the length of each chain, or ChainPublisher.UNBOUNDED for chains that run until cancelled
+     * @return Flow.Publisher of the words of each chain
+     */
+    public Flow.Publisher<String> publishWRS(String seed, long length){
+        return new ChainPublisher(this, seed, length, ForkJoinPool.commonPool(), 64);
+    }
+
+    /**
+     * Returns a publisher that generates weighted random chains as its subscribers ask for words
+     *
+     * @param seed String the starting word
+     * @param length long the length of each chain, or ChainPublisher.UNBOUNDED for chains that run until cancelled
+     * @param executor Executor the words are generated on
+     * @param batchSize int most words generated at a time for one subscriber
+     * @return Flow.Publisher of the words of each chain
+     */
+    public Flow.Publisher<String> publishWRS(String seed, long length, Executor executor, int batchSize){
+        return new ChainPublisher(this, seed, length, executor, batchSize);
+    }
+
+    /**
+     * Returns the vertex for the given word, or null if the word is not in the graph
+     *
+     * @param word String the word to look up
+     * @return VertexNode for the word
+     */
+    VertexNode getVertex(String word){
+        return vertices.get(word);
+    }
+
+    /**
+     * Returns every vertex in the graph
+     *
+     * @return Collection of all VertexNodes in the graph
+     */
+    Collection<VertexNode> getVertices(){
+        return vertices.values();
+    }
+
+    /**
+     * Returns the last word added to the graph, which the next added word will be chained to
+     *
+     * @return String the last word added, or null if no word has been added
+     */
+    String getLastWord(){
+        return prevWord == null ? null : prevWord.getWord();
+    }
+
+    /**
+     * Sets the word the next added word will be chained to
+     *
+     * @param word String a word already in the graph, or null to start a new chain
+     */
+    void setLastWord(String word){
+        prevWord = word == null ? null : vertices.get(word);
+    }
+
+    /**
+     * Adds occurrences of a word to the graph without chaining it to the previous word,
+     * creating the vertex if it does not exist yet. Used when loading saved counts.
+     * The number of words added becomes unknown, so a caller that knows it has to set it afterwards.
+     *
+     * @param word String the word to add occurrences to
+     * @param occurrences int number of occurrences to add, must be at least 1
+     * @return VertexNode of the word
+     */
+    VertexNode addOccurrences(String word, int occurrences){
+        if(reverseIndex != null){
+            reverseIndex = null;
+        }
+        wordsSinceStationary += occurrences;
+        tokenCount = -1;
+        VertexNode node = vertices.get(word);
+
+        if(node == null){
+            node = createVertex(word);
+            node.addOccurrences(occurrences - 1);
+        }
+        else{
+            node.preserve(checkpointEpoch);
+            node.addOccurrences(occurrences);
+        }
+        return node;
+    }
+
 }
@@ -0,0 +1,360 @@
+package comprehensive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class that saves and loads a MarkovGraph in a binary snapshot format.
+ * A snapshot holds the last word of the graph (so more text can be chained on later) and the number of words the graph
+ * was built from (so text can be replayed from there) followed by one record per vertex with its word, number of
+ * occurrences, and the words that follow it with their counts. Snapshots without the number of words, such as merged
+ * ones, use the original header, and both are read.
+ * Vertices and their following words are written in lexicographical order, so snapshots can be merged by streaming.
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class MarkovGraphIO {
+
+    private static final int MAGIC = 0x4D4B5631; // "MKV1"
+    private static final int MAGIC_WITH_TOKENS = 0x4D4B5632; // "MKV2", the header also holds the number of words
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * One vertex as stored in a snapshot
+     *
+     * @param word the word of the vertex
+     * @param occurrences number of times the word occurs
+     * @param nextWords the words that follow this word, in lexicographical order
+     * @param counts the number of times each of nextWords follows this word
+     */
+    record VertexRecord(String word, int occurrences, String[] nextWords, int[] counts){}
+
+    /**
+     * Saves the graph to the given path. The snapshot is written to a temporary file first
+     * and then renamed over the path, so a crash never leaves a half written snapshot behind.
+     * A graph that does not know how many words it was built from is written with the original header.
+     *
+     * @param graph MarkovGraph to save
+     * @param path Path of the snapshot file
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(MarkovGraph graph, Path path) throws IOException {
+        List<VertexNode> sorted = new ArrayList<>(graph.getVertices());
+        sorted.sort(Comparator.comparing(VertexNode::getWord));
+
+        writeAtomically(path, out -> {
+            Writer writer = new Writer(out, graph.getLastWord(), graph.tokenCount());
+            for(VertexNode node : sorted){
+                writer.writeVertex(toRecord(node.getWord(), node.getNumOccurrences(), node.getOutWords()));
+            }
+            writer.finish();
+        });
+    }
+
+    /**
+     * Saves a checkpoint of a graph that words are still being added to, as it was when the checkpoint started.
+     * Only the vertices of the view are read, each through VertexNode.checkpointRecord, so this can run on another
+     * thread while the graph keeps changing. Vertices that were not read because writing failed are released.
+     *
+     * @param view MarkovGraph.CheckpointView from beginCheckpoint
+     * @param path Path of the snapshot file
+     * @throws IOException if the file cannot be written
+     */
+    static void write(MarkovGraph.CheckpointView view, Path path) throws IOException {
+        VertexNode[] sorted = Arrays.copyOf(view.vertices(), view.numVertices());
+        Arrays.sort(sorted, Comparator.comparing(VertexNode::getWord));
+
+        int[] written = new int[1];
+        try{
+            writeAtomically(path, out -> {
+                Writer writer = new Writer(out, view.lastWord(), view.tokenCount());
+                for(VertexNode node : sorted){
+                    writer.writeVertex(node.checkpointRecord(view.epoch()));
+                    written[0]++;
+                }
+                writer.finish();
+            });
+        }
+        finally{
+            for(int i = written[0]; i < sorted.length; i++){
+                sorted[i].excludeFromCheckpoint(view.epoch());
+            }
+        }
+    }
+
+    /**
+     * Loads a graph from a snapshot file
+     *
+     * @param path Path of the snapshot file
+     * @return MarkovGraph containing the saved words and counts
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public static MarkovGraph read(Path path) throws IOException {
+        try(Reader reader = new Reader(Files.newInputStream(path))){
+            MarkovGraph graph = new MarkovGraph();
+            VertexRecord record;
+
+            // creates each vertex with its occurrences and adds the edges to its following words
+            while((record = reader.next()) != null){
+                VertexNode node = graph.addOccurrences(record.word(), record.occurrences());
+                for(int i = 0; i < record.nextWords().length; i++){
+                    node.addEdge(record.nextWords()[i], record.counts()[i]);
+                }
+            }
+
+            graph.setLastWord(reader.getLastWord());
+            graph.setTokenCount(reader.getTokenCount());
+            return graph;
+        }
+    }
+
+    /**
+     * Builds a record from a word and its map of following words, sorting the following words
+     *
+     * @param word String the word of the vertex
+     * @param occurrences int number of times the word occurs
+     * @param outWords Map of following words to counts
+     * @return VertexRecord with following words in lexicographical order
+     */
+    static VertexRecord toRecord(String word, int occurrences, Map<String, Integer> outWords){
+        String[] nextWords = outWords.keySet().toArray(new String[0]);
+        Arrays.sort(nextWords);
+
+        int[] counts = new int[nextWords.length];
+        for(int i = 0; i < nextWords.length; i++){
+            counts[i] = outWords.get(nextWords[i]);
+        }
+        return new VertexRecord(word, occurrences, nextWords, counts);
+    }
+
+    /**
+     * Builds a record from a word and its following words with their counts, sorting the following words
+     *
+     * @param word String the word of the vertex
+     * @param occurrences int number of times the word occurs
+     * @param nextWords String array of following words in any order
+     * @param counts int array of the count of each following word
+     * @return VertexRecord with following words in lexicographical order
+     */
+    static VertexRecord toRecord(String word, int occurrences, String[] nextWords, int[] counts){
+        Integer[] order = new Integer[nextWords.length];
+        for(int i = 0; i < order.length; i++){
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> nextWords[i]));
+
+        String[] sortedWords = new String[nextWords.length];
+        int[] sortedCounts = new int[counts.length];
+        for(int i = 0; i < order.length; i++){
+            sortedWords[i] = nextWords[order[i]];
+            sortedCounts[i] = counts[order[i]];
+        }
+        return new VertexRecord(word, occurrences, sortedWords, sortedCounts);
+    }
+
+    /**
+     * Something that writes the contents of a file to a stream
+     */
+    interface StreamWriter {
+
+        /**
+         * Writes the contents to the stream
+         *
+         * @param out OutputStream to write to
+         * @throws IOException if writing fails
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Writes a file by writing to a temporary file in the same directory, forcing it to disk,
+     * and renaming it over the target path
+     *
+     * @param path Path of the file to write
+     * @param contents StreamWriter that writes the contents of the file
+     * @throws IOException if the file cannot be written
+     */
+    static void writeAtomically(Path path, StreamWriter contents) throws IOException {
+        Path absolute = path.toAbsolutePath();
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+
+        try(FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+            contents.writeTo(out);
+            out.flush();
+            channel.force(true);
+        }
+
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes a snapshot one vertex at a time. Vertices must be written in lexicographical order.
+     */
+    static class Writer {
+
+        private final DataOutputStream out;
+        private String previous;
+
+        /**
+         * Writes the snapshot header without the number of words
+         *
+         * @param out OutputStream to write to, it is not closed by the writer
+         * @param lastWord String last word of the graph, or null
+         * @throws IOException if writing fails
+         */
+        Writer(OutputStream out, String lastWord) throws IOException {
+            this(out, lastWord, -1);
+        }
+
+        /**
+         * Writes the snapshot header
+         *
+         * @param out OutputStream to write to, it is not closed by the writer
+         * @param lastWord String last word of the graph, or null
+         * @param tokenCount long number of words the graph was built from, or -1 if it is not known
+         * @throws IOException if writing fails
+         */
+        Writer(OutputStream out, String lastWord, long tokenCount) throws IOException {
+            this.out = new DataOutputStream(out);
+            this.out.writeInt(tokenCount < 0 ? MAGIC : MAGIC_WITH_TOKENS);
+            this.out.writeBoolean(lastWord != null);
+            if(lastWord != null){
+                this.out.writeUTF(lastWord);
+            }
+            if(tokenCount >= 0){
+                this.out.writeLong(tokenCount);
+            }
+        }
+
+        /**
+         * Writes one vertex record
+         *
+         * @param record VertexRecord to write
+         * @throws IOException if writing fails
+         */
+        void writeVertex(VertexRecord record) throws IOException {
+            if(previous != null && previous.compareTo(record.word()) >= 0){
+                throw new IllegalStateException("Vertices must be written in lexicographical order");
+            }
+            previous = record.word();
+
+            out.writeBoolean(true);
+            out.writeUTF(record.word());
+            out.writeInt(record.occurrences());
+            out.writeInt(record.nextWords().length);
+            for(int i = 0; i < record.nextWords().length; i++){
+                out.writeUTF(record.nextWords()[i]);
+                out.writeInt(record.counts()[i]);
+            }
+        }
+
+        /**
+         * Writes the end marker and flushes the stream
+         *
+         * @throws IOException if writing fails
+         */
+        void finish() throws IOException {
+            out.writeBoolean(false);
+            out.flush();
+        }
+    }
+
+    /**
+     * Reads a snapshot one vertex at a time, in the lexicographical order they were written in
+     */
+    static class Reader implements Closeable {
+
+        private final DataInputStream in;
+        private final String lastWord;
+        private final long tokenCount;
+        private boolean finished;
+
+        /**
+         * Reads the snapshot header
+         *
+         * @param in InputStream to read from, it is closed when the reader is closed
+         * @throws IOException if the stream is not a snapshot
+         */
+        Reader(InputStream in) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+            int magic = this.in.readInt();
+            if(magic != MAGIC && magic != MAGIC_WITH_TOKENS){
+                throw new IOException("Not a MarkovGraph snapshot");
+            }
+            this.lastWord = this.in.readBoolean() ? this.in.readUTF() : null;
+            this.tokenCount = magic == MAGIC_WITH_TOKENS ? this.in.readLong() : -1;
+        }
+
+        /**
+         * Getter method for the number of words the saved graph was built from
+         *
+         * @return long number of words, or -1 if the snapshot does not record it
+         */
+        long getTokenCount(){
+            return tokenCount;
+        }
+
+        /**
+         * Getter method for the last word of the saved graph
+         *
+         * @return String the last word, or null if there is none
+         */
+        String getLastWord(){
+            return lastWord;
+        }
+
+        /**
+         * Reads the next vertex record
+         *
+         * @return VertexRecord, or null when every vertex has been read
+         * @throws IOException if reading fails
+         */
+        VertexRecord next() throws IOException {
+            if(finished || !in.readBoolean()){
+                finished = true;
+                return null;
+            }
+
+            String word = in.readUTF();
+            int occurrences = in.readInt();
+            int numEdges = in.readInt();
+            String[] nextWords = new String[numEdges];
+            int[] counts = new int[numEdges];
+            for(int i = 0; i < numEdges; i++){
+                nextWords[i] = in.readUTF();
+                counts[i] = in.readInt();
+            }
+            return new VertexRecord(word, occurrences, nextWords, counts);
+        }
+
+        /**
+         * Closes the underlying stream
+         *
+         * @throws IOException if closing fails
+         */
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -35,6 +35,94 @@ class MarkovGraphTest {
         TextGenerator.main(new String[] { "src/comprehensive/shrek.txt", "lord", "1", "one"});
     }
 
+    @Test
+    void testVertexAndEdgeCounts(){
+        assertEquals(5, graph.vertexCount());
+        assertEquals(6, graph.edgeCount());
+    }
+
+    @Test
+    void testSampledChain(){
+        assertEquals(List.of("I", "Am", "Happy", "I", "Am"), graph.generateSampled("I", 5, 0.01, 0.5));
+        assertEquals(20, graph.generateSampled("I", 20, 1.5, 0.9).size());
+    }
+
+    @Test
+    void testKMostProbableBatch(){
+        List<List<String>> results = graph.findKLargestBatch(List.of(new MarkovGraph.TopKQuery("Am", 3),
+                new MarkovGraph.TopKQuery("Am", 1), new MarkovGraph.TopKQuery("missing", 2), new MarkovGraph.TopKQuery("I", 5)));
+        assertEquals(List.of(List.of("Happy","Angieeeee","Sad"), List.of("Happy"), List.of(), List.of("Am")), results);
+    }
+
+    @Test
+    void testKMostProbableBatchFallsBackForUnknownSeeds(){
+        graph.enableSeedFallback();
+        String fallback = graph.stationaryDistribution().mostVisitedWord();
+
+        List<List<String>> results = graph.findKLargestBatch(List.of(new MarkovGraph.TopKQuery("missing", 2),
+                new MarkovGraph.TopKQuery(fallback, 1)));
+        assertEquals(List.of(graph.findKLargest(fallback, 2), graph.findKLargest(fallback, 1)), results);
+    }
+
+    @Test
+    void testScoreSequences(){
+        // text is cleaned up before scoring, so the graph is built from lowercase words
+        graph = new MarkovGraph(List.of("i", "am","angieeeee","i", "am","happy","i", "am","happy","i", "am","sad"));
+        SequenceScorer scorer = graph.scorer(SequenceScorer.Unseen.SKIP, 0);
+
+        // "I" is always followed by "Am", and "Am" is followed by "Happy" 2 times out of 4
+        SequenceScorer.Score score = scorer.score("I am happy");
+        assertEquals(Math.log(0.5), score.logProbability(), 1e-9);
+        assertEquals(Math.sqrt(2), score.perplexity(), 1e-9);
+
+        assertEquals(1, scorer.score("Happy Sad").unseenTransitions());
+        assertEquals(Double.NEGATIVE_INFINITY, graph.scorer(SequenceScorer.Unseen.ZERO, 0).score("I Sad").logProbability());
+        assertEquals(Math.log(0.01), graph.scorer(SequenceScorer.Unseen.FLOOR, 0.01).score("I Sad").logProbability(), 1e-9);
+
+        double[] logProbabilities = new double[2];
+        double[] perplexities = new double[2];
+        scorer.scoreBatch(new int[][] {scorer.toIds("I am happy"), scorer.toIds("am sad")}, logProbabilities, perplexities);
+        assertEquals(Math.log(0.5), logProbabilities[0], 1e-9);
+        assertEquals(4, perplexities[1], 1e-9);
+    }
+
+    @Test
+    void testTopKCacheServesSmallerKAndInvalidates(){
+        graph.enableTopKCache(100);
+        assertEquals(List.of("Happy","Angieeeee"), graph.findKLargest("Am",2));
+        assertEquals(List.of("Happy"), graph.findKLargest("Am",1));
+        assertEquals(1, graph.getTopKCacheStats().hits());
+
+        // adding "Sad" twice more after "Am" changes the answer, so the cached list has to be dropped
+        graph.addWords(List.of("I", "Am", "Sad", "I", "Am", "Sad"));
+        assertEquals(List.of("Sad","Happy"), graph.findKLargest("Am",2));
+    }
+
+    @Test
+    void testTopKCacheSkipsEntriesHeavierThanASegment(){
+        // 32 words over 16 segments leaves room for one word and its seed per segment
+        TopKCache cache = new TopKCache(32);
+        cache.put("Am", 1, List.of("Happy"));
+        cache.put("Am", 3, List.of("Happy","Angieeeee","Sad"));
+
+        // the three word list does not fit, so the one word list stays cached and nothing is evicted
+        assertEquals(List.of("Happy"), cache.get("Am", 1));
+        assertNull(cache.get("Am", 3));
+        assertEquals(1, cache.getStats().entries());
+        assertEquals(0, cache.getStats().evictions());
+    }
+
+    @Test
+    void testPredecessorsAndBackwardChains(){
+        assertEquals(List.of("Happy","Angieeeee"), graph.findKLargestPredecessors("I", 5));
+        assertEquals(List.of("I", "Am", "Sad"), graph.generateBackwardWRS("Sad", 3));
+        assertEquals(List.of("I", "Am", "Happy"), graph.generateBackwardMostProbableChain("Happy", 3));
+
+        // adding words rebuilds the reverse index
+        graph.addWords(List.of("Sad", "I", "Sad", "I", "Sad", "I"));
+        assertEquals(List.of("Sad","Happy","Angieeeee"), graph.findKLargestPredecessors("I", 5));
+    }
+
 
 
     }
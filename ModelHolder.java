@@ -0,0 +1,181 @@
+package comprehensive;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Class that holds the MarkovGraph a long running process answers queries from, and replaces it without downtime.
+ * A new graph is built or loaded on a background thread while queries keep using the current one, and is then
+ * published with a single atomic reference swap. Queries read the reference once and run entirely on that snapshot,
+ * so a query that started before a swap finishes on the old graph and one that starts after it uses the new graph.
+ * Queries never take a lock or wait for a reload. There is no explicit reclamation: once the last query using an old
+ * snapshot returns, nothing refers to it and the garbage collector frees it.
+ * A published graph is shared by every reader, so it must not be changed after it is handed to the holder.
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class ModelHolder implements AutoCloseable {
+
+    /**
+     * A published graph
+     *
+     * @param graph the MarkovGraph queries are answered from
+     * @param version number of swaps before this snapshot was published, starting at 0
+     * @param publishedNanos System.nanoTime() when the snapshot was published
+     */
+    public record Snapshot(MarkovGraph graph, long version, long publishedNanos){}
+
+    private final AtomicReference<Snapshot> current;
+    private final ExecutorService reloader;
+
+    /**
+     * Creates a holder publishing the given graph
+     *
+     * @param initial MarkovGraph to answer queries from until the first reload
+     */
+    public ModelHolder(MarkovGraph initial){
+        current = new AtomicReference<>(new Snapshot(initial, 0, System.nanoTime()));
+
+        // one daemon thread, so reloads run in the order they were asked for and never keep the process alive
+        reloader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "model-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the current snapshot. Callers that make several calls on one graph should get it once
+     * so that every call sees the same snapshot.
+     *
+     * @return Snapshot currently published
+     */
+    public Snapshot snapshot(){
+        return current.get();
+    }
+
+    /**
+     * Returns the current graph
+     *
+     * @return MarkovGraph currently published
+     */
+    public MarkovGraph get(){
+        return current.get().graph();
+    }
+
+    /**
+     * Returns a list of the k most probable next words from the current graph
+     *
+     * @param seed String, the word to search for the k most probable words that come after it
+     * @param k int the number of most probable words to return that comes after the current word
+     * @return List of most probable words that come after the seed word
+     */
+    public List<String> findKLargest(String seed, int k){
+        return current.get().graph().findKLargest(seed, k);
+    }
+
+    /**
+     * Generates a weighted random chain from the current graph
+     *
+     * @param seed String the starting word
+     * @param k int the length of the output chain
+     * @return List of weighted random next words that form a chain
+     */
+    public List<String> generateWRS(String seed, int k){
+        return current.get().graph().generateWRS(seed, k);
+    }
+
+    /**
+     * Generates a most probable chain from the current graph
+     *
+     * @param seed String the starting word
+     * @param k int the length of the output chain
+     * @return List the chain of most probable next words
+     */
+    public List<String> generateMostProbableChain(String seed, int k){
+        return current.get().graph().generateMostProbableChain(seed, k);
+    }
+
+    /**
+     * Builds a new graph in the background and publishes it once it is complete.
+     * If building fails the current graph stays published and the returned future completes exceptionally.
+     *
+     * @param source Callable that builds the new graph, run on the reload thread
+     * @return CompletableFuture that completes with the new snapshot once it is published
+     */
+    public CompletableFuture<Snapshot> reload(Callable<MarkovGraph> source){
+        CompletableFuture<Snapshot> result = new CompletableFuture<>();
+        reloader.execute(() -> {
+            try{
+                MarkovGraph graph = source.call();
+                if(graph == null){
+                    throw new IllegalStateException("Model source returned no graph");
+                }
+                result.complete(publish(graph));
+            }
+            catch(Throwable e){
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Rebuilds the graph in the background from a text file, directory or glob pattern, read the same way as
+     * TextGenerator reads its input
+     *
+     * @param pathOrPattern String path to a text file, a directory, or a glob pattern
+     * @return CompletableFuture that completes with the new snapshot once it is published
+     */
+    public CompletableFuture<Snapshot> reloadText(String pathOrPattern){
+        return reload(() -> {
+            if(CorpusLoader.isCorpusPattern(pathOrPattern)){
+                return new CorpusLoader().load(pathOrPattern);
+            }
+            return TextGenerator.fileToGraph(pathOrPattern);
+        });
+    }
+
+    /**
+     * Loads a snapshot file written by MarkovGraphIO in the background
+     *
+     * @param path Path of the snapshot file
+     * @return CompletableFuture that completes with the new snapshot once it is published
+     */
+    public CompletableFuture<Snapshot> reloadSnapshot(Path path){
+        return reload(() -> MarkovGraphIO.read(path));
+    }
+
+    /**
+     * Publishes a graph right away, for a graph that was already built by the caller
+     *
+     * @param graph MarkovGraph to answer queries from, which must not be changed afterwards
+     * @return Snapshot that was published
+     */
+    public Snapshot publish(MarkovGraph graph){
+
+        // the swap is the only write readers can see, and it publishes everything done to the graph before it
+        Snapshot next;
+        Snapshot previous;
+        do{
+            previous = current.get();
+            next = new Snapshot(graph, previous.version() + 1, System.nanoTime());
+        }
+        while(!current.compareAndSet(previous, next));
+        return next;
+    }
+
+    /**
+     * Stops the reload thread. Reloads already asked for still run, and the current graph can still be queried.
+     */
+    @Override
+    public void close(){
+        reloader.shutdown();
+    }
+}
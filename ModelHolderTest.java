@@ -0,0 +1,96 @@
+package comprehensive;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelHolderTest {
+
+    private static final MarkovGraph OLD = new MarkovGraph(List.of("I", "Am", "Happy", "I", "Am", "Happy", "I", "Am", "Sad"));
+    private static final MarkovGraph NEW = new MarkovGraph(List.of("I", "Am", "Sad", "I", "Am", "Sad", "I", "Am", "Happy"));
+
+    @Test
+    void testQueriesUseOldGraphUntilReloadFinishes() throws Exception {
+        try(ModelHolder holder = new ModelHolder(OLD)){
+            CountDownLatch building = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+
+            CompletableFuture<ModelHolder.Snapshot> reload = holder.reload(() -> {
+                building.countDown();
+                release.await();
+                return NEW;
+            });
+
+            // while the new graph is being built, queries keep answering from the old one without waiting
+            building.await();
+            assertEquals(List.of("Happy"), holder.findKLargest("Am", 1));
+            assertEquals(0, holder.snapshot().version());
+
+            release.countDown();
+            assertEquals(1, reload.get().version());
+            assertEquals(List.of("Sad"), holder.findKLargest("Am", 1));
+        }
+    }
+
+    @Test
+    void testFailedReloadKeepsCurrentGraph(){
+        try(ModelHolder holder = new ModelHolder(OLD)){
+            CompletableFuture<ModelHolder.Snapshot> reload = holder.reload(() -> {
+                throw new IOException("corrupt");
+            });
+            ExecutionException e = assertThrows(ExecutionException.class, reload::get);
+            assertTrue(e.getCause() instanceof IOException);
+            assertSame(OLD, holder.get());
+
+            assertThrows(ExecutionException.class, () -> holder.reloadText("src/comprehensive/missing.txt").get());
+            assertSame(OLD, holder.get());
+        }
+    }
+
+    @Test
+    void testReadersDuringSwaps() throws Exception {
+        try(ModelHolder holder = new ModelHolder(OLD)){
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+
+            // readers take one snapshot per query and must always see a complete graph
+            Thread[] readers = new Thread[4];
+            for(int i = 0; i < readers.length; i++){
+                readers[i] = new Thread(() -> {
+                    try{
+                        while(running.get()){
+                            List<String> top = holder.findKLargest("Am", 2);
+                            assertEquals(2, top.size());
+                            assertEquals(5, holder.generateWRS("I", 5).size());
+                        }
+                    }
+                    catch(Throwable t){
+                        failure.set(t);
+                    }
+                });
+                readers[i].start();
+            }
+
+            for(int i = 0; i < 50; i++){
+                holder.reload(() -> new MarkovGraph(List.of("I", "Am", "Happy", "I", "Am", "Sad"))).get();
+            }
+            running.set(false);
+            for(Thread reader : readers){
+                reader.join();
+            }
+            assertNull(failure.get());
+
+            holder.reloadText("src/comprehensive/shrek.txt").get();
+            assertEquals(51, holder.snapshot().version());
+            assertEquals(List.of("farquaad"), holder.findKLargest("lord", 1));
+        }
+    }
+}
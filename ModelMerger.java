@@ -0,0 +1,184 @@
+package comprehensive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class that combines models built separately (for example one per source) into a single model.
+ * Occurrences of each word and counts of each edge are summed across every model.
+ * Saved snapshots are merged with a streaming k-way merge, since MarkovGraphIO writes vertices in lexicographical
+ * order: only the current vertex of each input is held in memory, so the merge never loads a whole model.
+ * The merged model has no last word, since the inputs are not one continuous text.
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class ModelMerger {
+
+    /**
+     * Merges saved snapshots into a new snapshot
+     *
+     * @param inputs List of Paths of the snapshots to merge
+     * @param output Path of the merged snapshot, written atomically
+     * @throws IOException if a snapshot cannot be read or the output cannot be written
+     */
+    public static void merge(List<Path> inputs, Path output) throws IOException {
+        List<Cursor> cursors = new ArrayList<>();
+
+        try{
+            // orders the inputs so the cursor with the lexicographically smallest current word is at the top
+            BinaryMaxHeapComp<Cursor> heap = new BinaryMaxHeapComp<>((c1, c2) -> c2.current.word().compareTo(c1.current.word()));
+
+            for(Path input : inputs){
+                Cursor cursor = new Cursor(new MarkovGraphIO.Reader(Files.newInputStream(input)));
+                cursors.add(cursor);
+                if(cursor.advance()){
+                    heap.add(cursor);
+                }
+            }
+
+            MarkovGraphIO.writeAtomically(output, out -> {
+                MarkovGraphIO.Writer writer = new MarkovGraphIO.Writer(out, null);
+
+                while(!heap.isEmpty()){
+
+                    // takes every input whose current vertex has the smallest word and sums them into one record
+                    Cursor first = heap.extractMax();
+                    MarkovGraphIO.VertexRecord merged = first.current;
+                    advanceInto(first, heap);
+
+                    while(!heap.isEmpty() && heap.peek().current.word().equals(merged.word())){
+                        Cursor next = heap.extractMax();
+                        merged = sum(merged, next.current);
+                        advanceInto(next, heap);
+                    }
+                    writer.writeVertex(merged);
+                }
+                writer.finish();
+            });
+        } finally {
+            for(Cursor cursor : cursors){
+                cursor.reader.close();
+            }
+        }
+    }
+
+    /**
+     * Merges graphs that are already in memory into a new graph
+     *
+     * @param graphs List of MarkovGraphs to merge, which are not modified
+     * @return MarkovGraph with the summed counts of every graph
+     */
+    public static MarkovGraph merge(List<MarkovGraph> graphs){
+        MarkovGraph merged = new MarkovGraph();
+
+        for(MarkovGraph graph : graphs){
+            for(VertexNode node : graph.getVertices()){
+                VertexNode mergedNode = merged.addOccurrences(node.getWord(), node.getNumOccurrences());
+                node.getOutWords().forEach(mergedNode::addEdge);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Moves a cursor to its next vertex and puts it back in the heap, unless its input is finished
+     *
+     * @param cursor Cursor to advance
+     * @param heap heap of cursors that still have vertices
+     */
+    private static void advanceInto(Cursor cursor, BinaryMaxHeapComp<Cursor> heap){
+        try{
+            if(cursor.advance()){
+                heap.add(cursor);
+            }
+        } catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Sums two records for the same word. Both edge lists are in lexicographical order,
+     * so they are combined with a single linear merge.
+     *
+     * @param r1 VertexRecord first record
+     * @param r2 VertexRecord second record for the same word
+     * @return VertexRecord with summed occurrences and edge counts
+     */
+    private static MarkovGraphIO.VertexRecord sum(MarkovGraphIO.VertexRecord r1, MarkovGraphIO.VertexRecord r2){
+        String[] words1 = r1.nextWords();
+        String[] words2 = r2.nextWords();
+        String[] words = new String[words1.length + words2.length];
+        int[] counts = new int[words.length];
+
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while(i < words1.length || j < words2.length){
+            int comparison;
+            if(i == words1.length){
+                comparison = 1;
+            }
+            else if(j == words2.length){
+                comparison = -1;
+            }
+            else{
+                comparison = words1[i].compareTo(words2[j]);
+            }
+
+            // takes the smaller word, or both counts when the word is in both lists
+            if(comparison < 0){
+                words[size] = words1[i];
+                counts[size] = r1.counts()[i++];
+            }
+            else if(comparison > 0){
+                words[size] = words2[j];
+                counts[size] = r2.counts()[j++];
+            }
+            else{
+                words[size] = words1[i];
+                counts[size] = r1.counts()[i++] + r2.counts()[j++];
+            }
+            size++;
+        }
+
+        String[] trimmedWords = new String[size];
+        int[] trimmedCounts = new int[size];
+        System.arraycopy(words, 0, trimmedWords, 0, size);
+        System.arraycopy(counts, 0, trimmedCounts, 0, size);
+        return new MarkovGraphIO.VertexRecord(r1.word(), r1.occurrences() + r2.occurrences(), trimmedWords, trimmedCounts);
+    }
+
+    /**
+     * A snapshot reader together with the vertex it is currently on
+     */
+    private static class Cursor {
+
+        private final MarkovGraphIO.Reader reader;
+        private MarkovGraphIO.VertexRecord current;
+
+        /**
+         * Creates a cursor before the first vertex of the reader
+         *
+         * @param reader MarkovGraphIO.Reader of one snapshot
+         */
+        private Cursor(MarkovGraphIO.Reader reader){
+            this.reader = reader;
+        }
+
+        /**
+         * Reads the next vertex
+         *
+         * @return boolean true if there was another vertex
+         * @throws IOException if reading fails
+         */
+        private boolean advance() throws IOException {
+            current = reader.next();
+            return current != null;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package comprehensive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelMergerTest {
+
+    private Path directory;
+    private MarkovGraph news;
+    private MarkovGraph books;
+
+    @BeforeEach
+    void setup() throws IOException {
+        directory = Files.createTempDirectory("markov");
+        news = new MarkovGraph(List.of("the", "cat", "sat", "the", "dog"));
+        books = new MarkovGraph(List.of("a", "cat", "sat", "the", "cat"));
+    }
+
+    @Test
+    void testMergeSnapshots() throws IOException {
+        MarkovGraphIO.write(news, directory.resolve("news.mkv"));
+        MarkovGraphIO.write(books, directory.resolve("books.mkv"));
+        MarkovGraphIO.write(new MarkovGraph(), directory.resolve("empty.mkv"));
+
+        Path output = directory.resolve("merged.mkv");
+        ModelMerger.merge(List.of(directory.resolve("news.mkv"), directory.resolve("books.mkv"),
+                directory.resolve("empty.mkv")), output);
+        assertMerged(MarkovGraphIO.read(output));
+    }
+
+    @Test
+    void testMergeInMemory(){
+        assertMerged(ModelMerger.merge(List.of(news, books)));
+    }
+
+    private void assertMerged(MarkovGraph merged){
+        assertNull(merged.getLastWord());
+        assertEquals(5, merged.getVertices().size());
+        assertEquals(3, merged.getVertex("the").getNumOccurrences());
+        assertEquals(Map.of("cat", 2, "dog", 1), merged.getVertex("the").getOutWords());
+        assertEquals(Map.of("sat", 2), merged.getVertex("cat").getOutWords());
+        assertEquals(3, merged.getVertex("cat").getNumOccurrences());
+        assertEquals(Map.of("cat", 1), merged.getVertex("a").getOutWords());
+    }
+}
@@ -0,0 +1,310 @@
+package comprehensive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class that serves many named models from one process while keeping only as many of them in memory as fit in a budget.
+ * Each model is registered with the snapshot file MarkovGraphIO wrote for it and is loaded the first time it is asked
+ * for. Loaded models are kept in least recently used order with an estimate of their memory footprint, and when the
+ * total goes over the budget the least recently used ones are dropped, to be loaded again on their next request.
+ * Requests for a model that is still loading wait for the same load instead of starting another one.
+ * Every load remembers the file it was started for, and is only kept if the model still points at that file and was
+ * not unloaded while it ran, so a model registered again during a load is read from its new file on the next request.
+ * A query that is still running on a dropped model finishes normally, since dropping only removes the registry's
+ * reference to it.
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class ModelRegistry {
+
+    /**
+     * Loads a model from its snapshot file
+     */
+    interface ModelLoader {
+
+        /**
+         * Loads a model
+         *
+         * @param path Path of the model's snapshot file
+         * @return MarkovGraph of the model
+         * @throws IOException if the model cannot be read
+         */
+        MarkovGraph load(Path path) throws IOException;
+    }
+
+    /**
+     * Load, eviction and hit statistics of the registry
+     *
+     * @param hits number of requests answered by a model already in memory
+     * @param loads number of requests that loaded their model
+     * @param sharedLoads number of requests that waited for a load another request had started
+     * @param failedLoads number of loads that failed
+     * @param evictions number of models dropped to stay under the memory budget
+     * @param residentModels number of models currently in memory
+     * @param residentBytes estimated bytes used by the models in memory
+     */
+    public record Stats(long hits, long loads, long sharedLoads, long failedLoads, long evictions,
+                        int residentModels, long residentBytes){
+
+        /**
+         * Returns the fraction of requests that found their model already in memory
+         *
+         * @return double hit rate, or 0 if there have been no requests
+         */
+        public double hitRate(){
+            long requests = hits + loads + sharedLoads;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+    }
+
+    /**
+     * A load of a model, started or finished
+     *
+     * @param source Path the model was loaded from
+     * @param future CompletableFuture of the loaded model
+     */
+    private record Load(Path source, CompletableFuture<MarkovGraph> future){}
+
+    private final long memoryBudget;
+    private final ModelLoader loader;
+    private final ConcurrentHashMap<String, Path> sources = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Load> models = new ConcurrentHashMap<>();
+
+    // loaded models and their estimated footprints in access order, guarded by its own lock,
+    // which is also held whenever a load is removed from models so the two never disagree
+    private final LinkedHashMap<String, Long> residentOrder = new LinkedHashMap<>(16, 0.75f, true);
+    private long residentBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong sharedLoads = new AtomicLong();
+    private final AtomicLong failedLoads = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates a registry that loads models with MarkovGraphIO
+     *
+     * @param memoryBudget long estimated bytes the loaded models may use together
+     */
+    public ModelRegistry(long memoryBudget){
+        this(memoryBudget, MarkovGraphIO::read);
+    }
+
+    /**
+     * Creates a registry with its own way of loading models
+     *
+     * @param memoryBudget long estimated bytes the loaded models may use together
+     * @param loader ModelLoader that reads a model from its file
+     */
+    ModelRegistry(long memoryBudget, ModelLoader loader){
+        if(memoryBudget <= 0){
+            throw new IllegalArgumentException("Memory budget must be positive");
+        }
+        this.memoryBudget = memoryBudget;
+        this.loader = loader;
+    }
+
+    /**
+     * Registers a model, or points an existing name at a new file. A model already in memory or still loading is
+     * dropped, so the next request loads the new file.
+     *
+     * @param name String name of the model
+     * @param snapshot Path of the snapshot file written by MarkovGraphIO
+     */
+    public void register(String name, Path snapshot){
+        sources.put(name, snapshot);
+        unload(name);
+    }
+
+    /**
+     * Returns a model, loading it if it is not in memory. A model loaded by this call may cause less recently used
+     * models to be dropped.
+     *
+     * @param name String name of the model
+     * @return MarkovGraph of the model
+     * @throws IOException if the model has to be loaded and cannot be read
+     */
+    public MarkovGraph get(String name) throws IOException {
+        Path source = sources.get(name);
+        if(source == null){
+            throw new NoSuchElementException("No model named " + name);
+        }
+
+        Load created = new Load(source, new CompletableFuture<>());
+        Load existing = models.putIfAbsent(name, created);
+
+        // another request already loaded the model or is loading it
+        if(existing != null){
+            CompletableFuture<MarkovGraph> future = existing.future();
+            if(future.isDone() && !future.isCompletedExceptionally()){
+                hits.incrementAndGet();
+                touch(name);
+                return future.join();
+            }
+            sharedLoads.incrementAndGet();
+            return await(future);
+        }
+
+        // this request loads the model, outside of any lock, and every request waiting on it gets the result
+        loads.incrementAndGet();
+        MarkovGraph graph;
+        try{
+            graph = loader.load(source);
+        }
+        catch(IOException | RuntimeException e){
+            failedLoads.incrementAndGet();
+            models.remove(name, created);
+            created.future().completeExceptionally(e);
+            throw e;
+        }
+
+        // counts the model against the budget before anyone can see it, unless it was unloaded or re-registered
+        admit(name, created, graph.estimatedMemoryBytes());
+        created.future().complete(graph);
+        return graph;
+    }
+
+    /**
+     * Returns the k most probable next words of a seed in a model
+     *
+     * @param name String name of the model
+     * @param seed String the seed word
+     * @param k int the number of words to return
+     * @return List of most probable words that come after the seed word
+     * @throws IOException if the model has to be loaded and cannot be read
+     */
+    public List<String> findKLargest(String name, String seed, int k) throws IOException {
+        return get(name).findKLargest(seed, k);
+    }
+
+    /**
+     * Generates a weighted random chain from a model
+     *
+     * @param name String name of the model
+     * @param seed String the starting word
+     * @param k int the length of the output chain
+     * @return List of weighted random next words that form a chain
+     * @throws IOException if the model has to be loaded and cannot be read
+     */
+    public List<String> generateWRS(String name, String seed, int k) throws IOException {
+        return get(name).generateWRS(seed, k);
+    }
+
+    /**
+     * Drops a model from memory, if it is loaded. A load still running finishes for the requests waiting on it but
+     * is not kept. The model is loaded again on its next request.
+     *
+     * @param name String name of the model
+     */
+    public void unload(String name){
+        synchronized(residentOrder){
+            models.remove(name);
+            Long bytes = residentOrder.remove(name);
+            if(bytes != null){
+                residentBytes -= bytes;
+            }
+        }
+    }
+
+    /**
+     * Returns the names of the models currently in memory, least recently used first
+     *
+     * @return List of model names
+     */
+    public List<String> residentModels(){
+        synchronized(residentOrder){
+            return new ArrayList<>(residentOrder.keySet());
+        }
+    }
+
+    /**
+     * Returns the statistics of the registry
+     *
+     * @return Stats with the counts so far and the models in memory now
+     */
+    public Stats getStats(){
+        synchronized(residentOrder){
+            return new Stats(hits.get(), loads.get(), sharedLoads.get(), failedLoads.get(), evictions.get(),
+                    residentOrder.size(), residentBytes);
+        }
+    }
+
+    /**
+     * Adds a newly loaded model to the least recently used order and drops the least recently used models
+     * until the total fits the budget. The newest model is never dropped, even if it alone is over the budget.
+     * A load that was unloaded while it ran, or whose file is no longer the one registered, is not added.
+     *
+     * @param name String name of the model
+     * @param load Load that finished
+     * @param bytes long estimated footprint of the model
+     */
+    private void admit(String name, Load load, long bytes){
+        synchronized(residentOrder){
+            if(models.get(name) != load || !load.source().equals(sources.get(name))){
+                models.remove(name, load);
+                return;
+            }
+            Long previous = residentOrder.put(name, bytes);
+            residentBytes += bytes - (previous == null ? 0 : previous);
+
+            // removes the dropped models too, so their next request loads them again
+            Iterator<Map.Entry<String, Long>> eldest = residentOrder.entrySet().iterator();
+            while(residentBytes > memoryBudget && eldest.hasNext()){
+                Map.Entry<String, Long> entry = eldest.next();
+                if(entry.getKey().equals(name)){
+                    break;
+                }
+                residentBytes -= entry.getValue();
+                models.remove(entry.getKey());
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Marks a model as the most recently used
+     *
+     * @param name String name of the model
+     */
+    private void touch(String name){
+        synchronized(residentOrder){
+            residentOrder.get(name);
+        }
+    }
+
+    /**
+     * Waits for a load started by another request
+     *
+     * @param future CompletableFuture of the load
+     * @return MarkovGraph that was loaded
+     * @throws IOException if the load failed
+     */
+    private static MarkovGraph await(CompletableFuture<MarkovGraph> future) throws IOException {
+        try{
+            return future.join();
+        }
+        catch(CompletionException e){
+            if(e.getCause() instanceof IOException io){
+                throw io;
+            }
+            if(e.getCause() instanceof RuntimeException runtime){
+                throw runtime;
+            }
+            throw new UncheckedIOException(new IOException(e.getCause()));
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package comprehensive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelRegistryTest {
+
+    private Path directory;
+    private long modelBytes;
+
+    @BeforeEach
+    void setup() throws IOException {
+        directory = Files.createTempDirectory("registry");
+        String[] moods = {"Happy", "Sad", "Angry"};
+        for(String mood : moods){
+            MarkovGraph graph = new MarkovGraph(List.of("I", "Am", mood, "I", "Am", mood, "I", "Am", "Here"));
+            MarkovGraphIO.write(graph, directory.resolve(mood + ".mkv"));
+            modelBytes = Math.max(modelBytes, MarkovGraphIO.read(directory.resolve(mood + ".mkv")).estimatedMemoryBytes());
+        }
+    }
+
+    @Test
+    void testLeastRecentlyUsedModelIsEvicted() throws IOException {
+
+        // room for two of the three models
+        ModelRegistry registry = new ModelRegistry(modelBytes * 2 + modelBytes / 2);
+        for(String mood : new String[] {"Happy", "Sad", "Angry"}){
+            registry.register(mood, directory.resolve(mood + ".mkv"));
+        }
+
+        assertEquals(List.of("Happy"), registry.findKLargest("Happy", "Am", 1));
+        assertEquals(List.of("Sad"), registry.findKLargest("Sad", "Am", 1));
+        assertEquals(List.of("Happy"), registry.findKLargest("Happy", "Am", 1));
+        assertEquals(List.of("Angry"), registry.findKLargest("Angry", "Am", 1));
+        assertEquals(List.of("Happy", "Angry"), registry.residentModels());
+
+        // the dropped model loads again on its next request
+        assertEquals(List.of("Sad"), registry.findKLargest("Sad", "Am", 1));
+        ModelRegistry.Stats stats = registry.getStats();
+        assertEquals(4, stats.loads());
+        assertEquals(1, stats.hits());
+        assertEquals(2, stats.evictions());
+        assertEquals(2, stats.residentModels());
+        assertTrue(stats.residentBytes() <= modelBytes * 2 + modelBytes / 2);
+    }
+
+    @Test
+    void testConcurrentRequestsShareOneLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ModelRegistry registry = new ModelRegistry(Long.MAX_VALUE, path -> {
+            loading.countDown();
+            try{
+                release.await();
+            }
+            catch(InterruptedException e){
+                throw new IOException(e);
+            }
+            return MarkovGraphIO.read(path);
+        });
+        registry.register("Happy", directory.resolve("Happy.mkv"));
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<MarkovGraph>> requests = new ArrayList<>();
+        requests.add(pool.submit(() -> registry.get("Happy")));
+        loading.await();
+        for(int i = 0; i < 7; i++){
+            requests.add(pool.submit(() -> registry.get("Happy")));
+        }
+
+        // lets the other requests reach the load before it finishes
+        while(registry.getStats().sharedLoads() < 7){
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        MarkovGraph first = requests.get(0).get();
+        for(Future<MarkovGraph> request : requests){
+            assertSame(first, request.get());
+        }
+        pool.shutdown();
+        assertEquals(1, registry.getStats().loads());
+        assertEquals(7, registry.getStats().sharedLoads());
+    }
+
+    @Test
+    void testLoadStartedBeforeRegisterIsNotKept() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Path happy = directory.resolve("Happy.mkv");
+        ModelRegistry registry = new ModelRegistry(Long.MAX_VALUE, path -> {
+            if(path.equals(happy)){
+                loading.countDown();
+                try{
+                    release.await();
+                }
+                catch(InterruptedException e){
+                    throw new IOException(e);
+                }
+            }
+            return MarkovGraphIO.read(path);
+        });
+        registry.register("Mood", happy);
+
+        // points the model at a new file while the old one is still loading
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<MarkovGraph> stale = pool.submit(() -> registry.get("Mood"));
+        loading.await();
+        registry.register("Mood", directory.resolve("Sad.mkv"));
+        release.countDown();
+        assertEquals(List.of("Happy"), stale.get().findKLargest("Am", 1));
+        pool.shutdown();
+
+        // the old load was not kept, so the next request reads the new file
+        assertEquals(List.of(), registry.residentModels());
+        assertEquals(0, registry.getStats().residentBytes());
+        assertEquals(List.of("Sad"), registry.findKLargest("Mood", "Am", 1));
+        assertEquals(List.of("Mood"), registry.residentModels());
+    }
+
+    @Test
+    void testUnloadDuringLoadIsNotResident() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ModelRegistry registry = new ModelRegistry(Long.MAX_VALUE, path -> {
+            loading.countDown();
+            try{
+                release.await();
+            }
+            catch(InterruptedException e){
+                throw new IOException(e);
+            }
+            return MarkovGraphIO.read(path);
+        });
+        registry.register("Happy", directory.resolve("Happy.mkv"));
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<MarkovGraph> request = pool.submit(() -> registry.get("Happy"));
+        loading.await();
+        registry.unload("Happy");
+        release.countDown();
+        assertEquals(List.of("Happy"), request.get().findKLargest("Am", 1));
+        pool.shutdown();
+
+        assertEquals(List.of(), registry.residentModels());
+        assertEquals(0, registry.getStats().residentModels());
+    }
+
+    @Test
+    void testFailedLoadIsRetried() throws IOException {
+        ModelRegistry registry = new ModelRegistry(Long.MAX_VALUE);
+        registry.register("Missing", directory.resolve("Missing.mkv"));
+        assertThrows(IOException.class, () -> registry.get("Missing"));
+
+        MarkovGraphIO.write(new MarkovGraph(List.of("I", "Am")), directory.resolve("Missing.mkv"));
+        assertEquals(List.of("Am"), registry.findKLargest("Missing", "I", 1));
+        assertEquals(1, registry.getStats().failedLoads());
+        assertEquals(2, registry.getStats().loads());
+    }
+}
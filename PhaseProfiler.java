@@ -0,0 +1,255 @@
+package comprehensive;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Class that measures the phases of a run one after another on the calling thread.
+ * For each phase it records wall time, CPU time and bytes allocated by the thread (through
+ * com.sun.management.ThreadMXBean), and the number of garbage collections and total collection time across the JVM.
+ * Work a phase hands to other threads is counted too if those threads are tracked, such as the workers of a pool
+ * created for the phase, whose CPU time and allocation are added to the calling thread's.
+ * Extra counts, such as the size of the graph, can be added, and everything is reported as one JSON object.
+ * Measurements the JVM does not support are reported as -1.
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class PhaseProfiler {
+
+    /**
+     * The measurements of one finished phase
+     *
+     * @param name name of the phase
+     * @param wallNanos elapsed wall clock time in nanoseconds
+     * @param cpuNanos CPU time of the calling thread and tracked threads in nanoseconds, or -1
+     * @param allocatedBytes bytes allocated by the calling thread and tracked threads, or -1
+     * @param gcCount number of garbage collections during the phase
+     * @param gcMillis milliseconds spent in garbage collection during the phase
+     */
+    public record Phase(String name, long wallNanos, long cpuNanos, long allocatedBytes, long gcCount, long gcMillis){}
+
+    private final com.sun.management.ThreadMXBean threads;
+    private final List<Phase> phases = new ArrayList<>();
+    private final Map<String, Object> counts = new LinkedHashMap<>();
+    private final List<Long> trackedThreads = new CopyOnWriteArrayList<>(); // ids of the tracked threads
+
+    private String currentName;
+    private long startWall;
+    private long startCpu;
+    private long startAllocated;
+    private long startGcCount;
+    private long startGcMillis;
+
+    /**
+     * Creates a profiler, turning on thread CPU time and allocation measurement if the JVM supports them
+     */
+    public PhaseProfiler(){
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        threads = bean instanceof com.sun.management.ThreadMXBean sunBean ? sunBean : null;
+
+        if(bean.isCurrentThreadCpuTimeSupported()){
+            bean.setThreadCpuTimeEnabled(true);
+        }
+        if(threads != null && threads.isThreadAllocatedMemorySupported()){
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    /**
+     * Starts a phase, ending the current one first if there is one
+     *
+     * @param name String name of the phase
+     */
+    public void start(String name){
+        if(currentName != null){
+            stop();
+        }
+        currentName = name;
+        startGcCount = gcCount();
+        startGcMillis = gcMillis();
+        startAllocated = allocatedBytes();
+        startCpu = cpuNanos();
+        startWall = System.nanoTime();
+    }
+
+    /**
+     * Ends the current phase and records its measurements
+     */
+    public void stop(){
+        long wall = System.nanoTime() - startWall;
+        long cpu = cpuNanos();
+        long allocated = allocatedBytes();
+        if(currentName == null){
+            throw new IllegalStateException("No phase has been started");
+        }
+
+        phases.add(new Phase(currentName, wall, startCpu < 0 ? -1 : cpu - startCpu,
+                startAllocated < 0 ? -1 : allocated - startAllocated, gcCount() - startGcCount, gcMillis() - startGcMillis));
+        currentName = null;
+    }
+
+    /**
+     * Counts the CPU time and allocation of another thread in every phase from now on. A thread started during a
+     * phase counts everything it did in that phase. A thread must stay alive until the phases it worked in are
+     * stopped, since a thread that has ended can no longer be measured.
+     *
+     * @param thread Thread to measure along with the calling thread
+     */
+    public void track(Thread thread){
+        trackedThreads.add(thread.getId());
+    }
+
+    /**
+     * Stops counting a thread tracked with track, which must be done between phases before the thread ends if
+     * more phases follow, since the phase running when it ended would otherwise lose what the thread did before
+     *
+     * @param thread Thread to stop measuring
+     */
+    public void untrack(Thread thread){
+        trackedThreads.remove(thread.getId());
+    }
+
+    /**
+     * Adds a value to the report, such as a count describing the result of the run
+     *
+     * @param key String name of the value
+     * @param value Object number or String to report
+     */
+    public void put(String key, Object value){
+        counts.put(key, value);
+    }
+
+    /**
+     * Returns the phases finished so far
+     *
+     * @return List of Phases in the order they ran
+     */
+    public List<Phase> getPhases(){
+        return List.copyOf(phases);
+    }
+
+    /**
+     * Returns the report as a single line JSON object, with the added values followed by a "phases" array
+     *
+     * @return String JSON report
+     */
+    public String toJson(){
+        StringBuilder json = new StringBuilder("{");
+        for(Map.Entry<String, Object> entry : counts.entrySet()){
+            appendString(json, entry.getKey());
+            json.append(':');
+            if(entry.getValue() instanceof Number){
+                json.append(entry.getValue());
+            }
+            else{
+                appendString(json, String.valueOf(entry.getValue()));
+            }
+            json.append(',');
+        }
+
+        json.append("\"phases\":[");
+        for(int i = 0; i < phases.size(); i++){
+            Phase phase = phases.get(i);
+            if(i > 0){
+                json.append(',');
+            }
+            json.append("{\"name\":");
+            appendString(json, phase.name());
+            json.append(",\"wallNanos\":").append(phase.wallNanos())
+                    .append(",\"cpuNanos\":").append(phase.cpuNanos())
+                    .append(",\"allocatedBytes\":").append(phase.allocatedBytes())
+                    .append(",\"gcCount\":").append(phase.gcCount())
+                    .append(",\"gcMillis\":").append(phase.gcMillis())
+                    .append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Appends a JSON string with quotes, backslashes and control characters escaped
+     *
+     * @param json StringBuilder to append to
+     * @param value String to append
+     */
+    private static void appendString(StringBuilder json, String value){
+        json.append('"');
+        for(int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            if(c == '"' || c == '\\'){
+                json.append('\\').append(c);
+            }
+            else if(c < 0x20){
+                json.append(String.format("\\u%04x", (int) c));
+            }
+            else{
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Returns the CPU time of the calling thread and the tracked threads
+     *
+     * @return long nanoseconds, or -1 if not supported
+     */
+    private long cpuNanos(){
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if(!bean.isCurrentThreadCpuTimeSupported()){
+            return -1;
+        }
+        long total = bean.getCurrentThreadCpuTime();
+        for(long id : trackedThreads){
+            total += Math.max(0, bean.getThreadCpuTime(id));
+        }
+        return total;
+    }
+
+    /**
+     * Returns the bytes allocated so far by the calling thread and the tracked threads
+     *
+     * @return long bytes, or -1 if not supported
+     */
+    private long allocatedBytes(){
+        if(threads == null || !threads.isThreadAllocatedMemoryEnabled()){
+            return -1;
+        }
+        long total = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        for(long id : trackedThreads){
+            total += Math.max(0, threads.getThreadAllocatedBytes(id));
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of garbage collections so far, summed over every collector
+     *
+     * @return long number of collections
+     */
+    private static long gcCount(){
+        long total = 0;
+        for(GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()){
+            total += Math.max(0, collector.getCollectionCount());
+        }
+        return total;
+    }
+
+    /**
+     * Returns the time spent in garbage collection so far, summed over every collector
+     *
+     * @return long milliseconds
+     */
+    private static long gcMillis(){
+        long total = 0;
+        for(GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()){
+            total += Math.max(0, collector.getCollectionTime());
+        }
+        return total;
+    }
+}
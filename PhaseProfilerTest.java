@@ -0,0 +1,79 @@
+package comprehensive;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhaseProfilerTest {
+
+    @Test
+    void testPhasesAreRecordedInOrder(){
+        PhaseProfiler profiler = new PhaseProfiler();
+        profiler.start("allocate");
+        long[][] garbage = new long[100][];
+        for(int i = 0; i < garbage.length; i++){
+            garbage[i] = new long[1000];
+        }
+        profiler.start("second");
+        profiler.stop();
+
+        List<PhaseProfiler.Phase> phases = profiler.getPhases();
+        assertEquals(2, phases.size());
+        assertEquals("allocate", phases.get(0).name());
+        assertTrue(phases.get(0).wallNanos() > 0);
+
+        // 100 arrays of 1000 longs, unless the JVM cannot measure allocation
+        long allocated = phases.get(0).allocatedBytes();
+        assertTrue(allocated == -1 || allocated >= 100 * 8000, "allocated " + allocated);
+    }
+
+    @Test
+    void testTrackedThreadIsCounted() throws InterruptedException {
+        PhaseProfiler profiler = new PhaseProfiler();
+        CountDownLatch allocated = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        Thread worker = new Thread(() -> {
+            long[][] garbage = new long[100][];
+            for(int i = 0; i < garbage.length; i++){
+                garbage[i] = new long[1000];
+            }
+            allocated.countDown();
+
+            // stays alive until the phase is stopped, since an ended thread can no longer be measured
+            try{
+                stopped.await();
+            }
+            catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+        });
+        profiler.track(worker);
+
+        // the phase allocates only on the worker
+        profiler.start("work");
+        worker.start();
+        allocated.await();
+        profiler.stop();
+        stopped.countDown();
+        worker.join();
+
+        long bytes = profiler.getPhases().get(0).allocatedBytes();
+        assertTrue(bytes == -1 || bytes >= 100 * 8000, "allocated " + bytes);
+    }
+
+    @Test
+    void testJson(){
+        PhaseProfiler profiler = new PhaseProfiler();
+        profiler.put("input", "dir/\"quoted\"\\name");
+        profiler.put("vertices", 12);
+        profiler.start("build");
+        profiler.stop();
+
+        String json = profiler.toJson();
+        assertTrue(json.startsWith("{\"input\":\"dir/\\\"quoted\\\"\\\\name\",\"vertices\":12,\"phases\":[{\"name\":\"build\",\"wallNanos\":"), json);
+        assertTrue(json.endsWith("}]}"), json);
+    }
+}
@@ -0,0 +1,228 @@
+package comprehensive;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * InputStream that reads its source on a dedicated thread, ahead of the reader.
+ * The reading thread fills a fixed ring of reusable buffers and hands them over through a queue, so an expensive
+ * source (such as a decompressor) runs at the same time as whatever consumes the bytes, and memory stays at
+ * a fixed number of buffers however large the source is.
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class ReadAheadInputStream extends InputStream {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    private static final int DEFAULT_NUM_BUFFERS = 4;
+
+    private final InputStream source;
+    private final BlockingQueue<Chunk> free;
+    private final BlockingQueue<Chunk> filled;
+    private final Thread reader;
+
+    private volatile IOException failure;
+    private Chunk current;
+    private int position;
+    private boolean closed;
+
+    /**
+     * A buffer and the number of bytes in it, or -1 for the end of the source
+     */
+    private static class Chunk {
+        private final byte[] data;
+        private int length;
+
+        /**
+         * Creates a chunk with a buffer of the given size
+         *
+         * @param size int size of the buffer
+         */
+        private Chunk(int size){
+            data = new byte[size];
+        }
+    }
+
+    /**
+     * Creates a stream with four 64 KB buffers
+     *
+     * @param source InputStream to read ahead of, closed when this stream is closed
+     */
+    public ReadAheadInputStream(InputStream source){
+        this(source, DEFAULT_BUFFER_SIZE, DEFAULT_NUM_BUFFERS);
+    }
+
+    /**
+     * Creates a stream and starts the thread reading the source
+     *
+     * @param source InputStream to read ahead of, closed when this stream is closed
+     * @param bufferSize int size of each buffer
+     * @param numBuffers int number of buffers in the ring, at least 2 so reading and consuming can overlap
+     */
+    public ReadAheadInputStream(InputStream source, int bufferSize, int numBuffers){
+        if(bufferSize < 1 || numBuffers < 2){
+            throw new IllegalArgumentException("Need at least two non-empty buffers");
+        }
+        this.source = source;
+        this.free = new ArrayBlockingQueue<>(numBuffers);
+        this.filled = new ArrayBlockingQueue<>(numBuffers);
+        for(int i = 0; i < numBuffers; i++){
+            free.add(new Chunk(bufferSize));
+        }
+
+        reader = new Thread(this::readAhead, "read-ahead");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Runs on the reading thread: fills free buffers from the source until it ends, fails, or this stream is closed
+     */
+    private void readAhead(){
+        try{
+            while(true){
+                Chunk chunk = free.take();
+                chunk.length = fill(chunk.data);
+                filled.put(chunk);
+                if(chunk.length < 0){
+                    return;
+                }
+            }
+        } catch (InterruptedException e){
+            // the stream was closed
+        }
+    }
+
+    /**
+     * Reads from the source until the buffer is full or the source ends
+     *
+     * @param data byte array to fill
+     * @return int number of bytes read, or -1 if the source had already ended or failed
+     */
+    private int fill(byte[] data){
+        if(failure != null){
+            return -1;
+        }
+
+        int total = 0;
+        try{
+            while(total < data.length){
+                int read = source.read(data, total, data.length - total);
+                if(read < 0){
+                    break;
+                }
+                total += read;
+            }
+        } catch (IOException e){
+            failure = e;
+        }
+
+        // the bytes read before a failure are still handed over, the failure is reported after them
+        return total == 0 ? -1 : total;
+    }
+
+    /**
+     * Makes sure current has unread bytes, waiting for the reading thread if needed
+     *
+     * @return boolean false at the end of the source
+     * @throws IOException if the source failed or the stream is closed
+     */
+    private boolean ensureData() throws IOException {
+        if(closed){
+            throw new IOException("Stream closed");
+        }
+
+        while(current == null || (current.length >= 0 && position == current.length)){
+
+            // gives the used buffer back to the reading thread before waiting for the next one
+            if(current != null){
+                free.add(current);
+            }
+            try{
+                current = filled.take();
+            } catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for data", e);
+            }
+            position = 0;
+        }
+
+        if(current.length < 0){
+            if(failure != null){
+                throw failure;
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reads one byte
+     *
+     * @return int the byte, or -1 at the end of the source
+     * @throws IOException if the source failed
+     */
+    @Override
+    public int read() throws IOException {
+        if(!ensureData()){
+            return -1;
+        }
+        return current.data[position++] & 0xFF;
+    }
+
+    /**
+     * Reads up to len bytes into the array
+     *
+     * @param b byte array to read into
+     * @param off int offset in b to start at
+     * @param len int maximum number of bytes to read
+     * @return int number of bytes read, or -1 at the end of the source
+     * @throws IOException if the source failed
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if(len == 0){
+            return 0;
+        }
+        if(!ensureData()){
+            return -1;
+        }
+        int count = Math.min(len, current.length - position);
+        System.arraycopy(current.data, position, b, off, count);
+        position += count;
+        return count;
+    }
+
+    /**
+     * Returns the number of bytes that can be read without waiting for the reading thread
+     *
+     * @return int bytes left in the current buffer
+     */
+    @Override
+    public int available() {
+        return current == null || current.length < 0 ? 0 : current.length - position;
+    }
+
+    /**
+     * Stops the reading thread and closes the source
+     *
+     * @throws IOException if closing the source fails
+     */
+    @Override
+    public void close() throws IOException {
+        if(closed){
+            return;
+        }
+        closed = true;
+        reader.interrupt();
+        try{
+            reader.join();
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        source.close();
+    }
+}
@@ -0,0 +1,246 @@
+package comprehensive;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+/**
+ * Times each phase of the pipeline (tokenizing text, building the graph and querying it) over Zipf distributed corpora
+ * of growing size, and writes the results as CSV with the same "n, time in ns" layout as TimingResults.
+ * After the sweep it prints how fast each phase grows, as the exponent b of time ~ n^b fitted over every size,
+ * so a phase that has become superlinear shows up as b well above 1. Query time is also reported per following word of
+ * the queried seeds, since seeds gain following words as the corpus grows and a query scans all of them.
+ * Run with: ScalingBenchmark output.csv maxWords [vocabularySize] [skew] [bigramStrength]
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class ScalingBenchmark extends TimerTemplate {
+
+    private static final int STEPS = 10;
+    private static final int TIMES_TO_LOOP = 5;
+    private static final int QUERIES = 1000;
+    private static final int K = 10;
+    private static final long CORPUS_SEED = 49;
+
+    /**
+     * A phase of the pipeline
+     */
+    enum Phase {
+        /** cleaning up the words of the text */
+        TOKENIZE,
+        /** building a MarkovGraph from the cleaned words */
+        BUILD,
+        /** answering QUERIES findKLargest queries, reported per query */
+        QUERY
+    }
+
+    private final Phase phase;
+    private final int vocabularySize;
+    private final double skew;
+    private final double bigramStrength;
+
+    private String text;
+    private List<String> tokens;
+    private MarkovGraph graph;
+    private String[] seeds;
+
+    /**
+     * Creates a timer for one phase
+     *
+     * @param problemSizes array of corpus sizes in words
+     * @param phase Phase to time
+     * @param vocabularySize int number of distinct words in the generated corpora
+     * @param skew double Zipf exponent of the generated corpora
+     * @param bigramStrength double bigram strength of the generated corpora
+     */
+    public ScalingBenchmark(int[] problemSizes, Phase phase, int vocabularySize, double skew, double bigramStrength){
+        super(problemSizes, TIMES_TO_LOOP);
+        this.phase = phase;
+        this.vocabularySize = vocabularySize;
+        this.skew = skew;
+        this.bigramStrength = bigramStrength;
+    }
+
+    /**
+     * Generates a corpus of n words and prepares the input of the timed phase
+     *
+     * @param n problem size to be timed
+     */
+    @Override
+    protected void setup(int n){
+        text = corpus(n, vocabularySize, skew, bigramStrength);
+        tokens = null;
+        graph = null;
+
+        if(phase != Phase.TOKENIZE){
+            tokens = TextGenerator.cleanTokens(new Scanner(text));
+        }
+        if(phase == Phase.QUERY){
+            graph = new MarkovGraph(tokens);
+
+            seeds = querySeeds(tokens);
+        }
+
+        // runs the phase once untimed so the first sizes are not timed before the JIT has compiled it
+        timingIteration(n);
+    }
+
+    /**
+     * Runs the phase once
+     *
+     * @param n the problem size to be timed
+     */
+    @Override
+    protected void timingIteration(int n){
+        switch(phase){
+            case TOKENIZE -> TextGenerator.cleanTokens(new Scanner(text));
+            case BUILD -> new MarkovGraph(tokens);
+            case QUERY -> {
+                for(String seed : seeds){
+                    graph.findKLargest(seed, K);
+                }
+            }
+        }
+    }
+
+    /**
+     * Nothing to subtract out
+     *
+     * @param n problem size being timed
+     */
+    @Override
+    protected void compensationIteration(int n){
+
+    }
+
+    /**
+     * Draws the seeds of the query phase from the text, so frequent words are queried as often as they appear
+     *
+     * @param tokens List of cleaned words of the corpus
+     * @return String array of QUERIES seeds, the same every time for the same words
+     */
+    static String[] querySeeds(List<String> tokens){
+        Random random = new Random(CORPUS_SEED);
+        String[] seeds = new String[QUERIES];
+        for(int i = 0; i < QUERIES; i++){
+            seeds[i] = tokens.get(random.nextInt(tokens.size()));
+        }
+        return seeds;
+    }
+
+    /**
+     * Returns the average number of following words of the queried seeds, which a findKLargest query scans
+     *
+     * @param graph MarkovGraph being queried
+     * @param seeds String array of queried seeds
+     * @return double mean out-degree over the queries
+     */
+    static double meanDegree(MarkovGraph graph, String[] seeds){
+        long total = 0;
+        for(String seed : seeds){
+            total += graph.getVertex(seed).getOutWords().size();
+        }
+        return (double) total / seeds.length;
+    }
+
+    /**
+     * Generates the corpus of a size, the same text every time for the same arguments
+     *
+     * @param n int number of words
+     * @param vocabularySize int number of distinct words
+     * @param skew double Zipf exponent
+     * @param bigramStrength double bigram strength
+     * @return String of generated text
+     */
+    static String corpus(int n, int vocabularySize, double skew, double bigramStrength){
+        return new ZipfCorpusGenerator(vocabularySize, skew, 8, bigramStrength, CORPUS_SEED).generate(n);
+    }
+
+    /**
+     * Fits time ~ n^b to every measurement with a least squares line through log n and log time
+     *
+     * @param results array of Results of one phase
+     * @return double growth exponent b
+     */
+    static double growthExponent(Result[] results){
+        double meanX = 0;
+        double meanY = 0;
+        for(Result result : results){
+            meanX += Math.log(result.n()) / results.length;
+            meanY += Math.log(result.avgNanoSecs()) / results.length;
+        }
+
+        double covariance = 0;
+        double variance = 0;
+        for(Result result : results){
+            double dx = Math.log(result.n()) - meanX;
+            covariance += dx * (Math.log(result.avgNanoSecs()) - meanY);
+            variance += dx * dx;
+        }
+        return variance == 0 ? 0 : covariance / variance;
+    }
+
+    /**
+     * Sweeps corpus sizes through every phase and writes one CSV row per size
+     *
+     * @param args output CSV path, the largest corpus size in words, and optionally the vocabulary size,
+     *             Zipf skew and bigram strength
+     */
+    public static void main(String[] args){
+        if(args.length < 2){
+            throw new IllegalArgumentException("Usage: ScalingBenchmark output.csv maxWords [vocabularySize] [skew] [bigramStrength]");
+        }
+        Path output = Path.of(args[0]);
+        int maxWords = Integer.parseInt(args[1]);
+        int vocabularySize = args.length > 2 ? Integer.parseInt(args[2]) : 50000;
+        double skew = args.length > 3 ? Double.parseDouble(args[3]) : 1.07;
+        double bigramStrength = args.length > 4 ? Double.parseDouble(args[4]) : 0.5;
+
+        int[] nSizes = new int[STEPS];
+        for(int i = 0; i < STEPS; i++){
+            nSizes[i] = Math.max(1, maxWords / STEPS * (i + 1));
+        }
+
+        // times each phase over every size
+        Phase[] phases = Phase.values();
+        Result[][] results = new Result[phases.length][];
+        for(int p = 0; p < phases.length; p++){
+            System.err.println("Timing " + phases[p]);
+            results[p] = new ScalingBenchmark(nSizes, phases[p], vocabularySize, skew, bigramStrength).run();
+        }
+
+        Result[] perDegree = new Result[nSizes.length];
+        try(PrintWriter writer = new PrintWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8))){
+            writer.println("Zipf corpus: vocabulary " + vocabularySize + ", skew " + skew + ", bigram strength " + bigramStrength);
+            writer.println("n, vertices, edges, tokenize, build, query, seed degree, query per degree");
+
+            for(int i = 0; i < nSizes.length; i++){
+                List<String> tokens = TextGenerator.cleanTokens(new Scanner(
+                        corpus(nSizes[i], vocabularySize, skew, bigramStrength)));
+                MarkovGraph graph = new MarkovGraph(tokens);
+                double degree = meanDegree(graph, querySeeds(tokens));
+                double perQuery = results[2][i].avgNanoSecs() / QUERIES;
+                perDegree[i] = new Result(nSizes[i], perQuery / degree);
+                writer.println(nSizes[i] + ", " + graph.vertexCount() + ", " + graph.edgeCount() + ", "
+                        + results[0][i].avgNanoSecs() + ", " + results[1][i].avgNanoSecs() + ", "
+                        + perQuery + ", " + degree + ", " + perDegree[i].avgNanoSecs());
+            }
+        } catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+
+        // reports the growth of each phase. A query scans the seed's following words, and seeds gain following
+        // words as the corpus grows, so queries grow with n too, while the cost per following word should stay flat
+        for(int p = 0; p < phases.length; p++){
+            System.err.printf("%s grows as n^%.2f%n", phases[p], growthExponent(results[p]));
+        }
+        System.err.printf("QUERY per following word grows as n^%.2f%n", growthExponent(perDegree));
+    }
+}
@@ -0,0 +1,227 @@
+package comprehensive;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.stream.IntStream;
+
+/**
+ * Class that scores how likely word sequences are under a graph.
+ * The probability of one word following another is the count of that edge divided by the number of words that have
+ * followed the first word, and a sequence's log probability is the sum over its transitions (natural log).
+ * Perplexity is exp(-log probability / number of scored transitions).
+ * Sequences are scored over int ids of an IndexedMarkovGraph, so scoring a batch creates no objects per sequence,
+ * and batches are scored in parallel.
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class SequenceScorer {
+
+    /**
+     * What to do with a transition the graph has never seen, including transitions from or to unknown words
+     */
+    public enum Unseen {
+        /** leave the transition out of the score and the perplexity */
+        SKIP,
+        /** score the transition with the floor probability */
+        FLOOR,
+        /** give the whole sequence probability 0 */
+        ZERO
+    }
+
+    /**
+     * The score of one sequence
+     *
+     * @param logProbability natural log of the probability of the sequence
+     * @param scoredTransitions number of transitions included in the score
+     * @param unseenTransitions number of transitions the graph has never seen
+     */
+    public record Score(double logProbability, int scoredTransitions, int unseenTransitions){
+
+        /**
+         * Returns the perplexity of the sequence
+         *
+         * @return double exp(-logProbability / scoredTransitions), or 1 if no transitions were scored
+         */
+        public double perplexity(){
+            return SequenceScorer.perplexity(logProbability, scoredTransitions);
+        }
+    }
+
+    private final IndexedMarkovGraph graph;
+    private final Unseen unseen;
+    private final double logFloor;
+
+    /**
+     * Creates a scorer
+     *
+     * @param graph IndexedMarkovGraph to score against
+     * @param unseen Unseen policy for transitions the graph has never seen
+     * @param floorProbability double probability given to unseen transitions with the FLOOR policy
+     */
+    public SequenceScorer(IndexedMarkovGraph graph, Unseen unseen, double floorProbability){
+        if(unseen == Unseen.FLOOR && (floorProbability <= 0 || floorProbability > 1)){
+            throw new IllegalArgumentException("Floor probability must be in (0, 1]");
+        }
+        this.graph = graph;
+        this.unseen = unseen;
+        this.logFloor = Math.log(floorProbability);
+    }
+
+    /**
+     * Cleans up text with the same rules as TextGenerator.FileToTextCleanup and turns it into ids
+     *
+     * @param text String text to tokenize
+     * @return int array of word ids, with -1 for words that are not in the graph
+     */
+    public int[] toIds(String text){
+        List<String> words = TextGenerator.cleanTokens(new Scanner(text));
+        int[] ids = new int[words.size()];
+        for(int i = 0; i < ids.length; i++){
+            ids[i] = graph.idOf(words.get(i));
+        }
+        return ids;
+    }
+
+    /**
+     * Scores text
+     *
+     * @param text String text to score
+     * @return Score of the cleaned up words of the text
+     */
+    public Score score(String text){
+        int[] ids = toIds(text);
+        return score(ids, 0, ids.length);
+    }
+
+    /**
+     * Scores a sequence of ids
+     *
+     * @param ids int array of word ids, -1 for unknown words
+     * @param from int index of the first word
+     * @param to int index after the last word
+     * @return Score of the sequence
+     */
+    public Score score(int[] ids, int from, int to){
+        double[] logProbability = new double[1];
+        long counts = scoreInto(ids, from, to, logProbability, 0);
+        return new Score(logProbability[0], scoredCount(counts), unseenCount(counts));
+    }
+
+    /**
+     * Scores every text of a batch in parallel
+     *
+     * @param texts List of texts to score
+     * @return List of Scores in the same order as the texts
+     */
+    public List<Score> scoreTexts(List<String> texts){
+        Score[] scores = new Score[texts.size()];
+        IntStream.range(0, scores.length).parallel().forEach(i -> scores[i] = score(texts.get(i)));
+
+        List<Score> output = new ArrayList<>(scores.length);
+        for(Score score : scores){
+            output.add(score);
+        }
+        return output;
+    }
+
+    /**
+     * Scores a batch of id sequences in parallel, writing the results into arrays instead of creating objects
+     *
+     * @param sequences int arrays of word ids, -1 for unknown words
+     * @param logProbabilities double array receiving the log probability of each sequence
+     * @param perplexities double array receiving the perplexity of each sequence
+     */
+    public void scoreBatch(int[][] sequences, double[] logProbabilities, double[] perplexities){
+        if(logProbabilities.length < sequences.length || perplexities.length < sequences.length){
+            throw new IllegalArgumentException("Output arrays are shorter than the batch");
+        }
+
+        //the log probability goes straight into the output array and the counts come back packed, so no sequence allocates
+        IntStream.range(0, sequences.length).parallel().forEach(i -> {
+            long counts = scoreInto(sequences[i], 0, sequences[i].length, logProbabilities, i);
+            perplexities[i] = perplexity(logProbabilities[i], scoredCount(counts));
+        });
+    }
+
+    /**
+     * Adds up the log probabilities of the transitions of a sequence, applying the unseen policy
+     *
+     * @param ids int array of word ids, -1 for unknown words
+     * @param from int index of the first word
+     * @param to int index after the last word
+     * @param logProbabilities double array receiving the natural log of the probability of the sequence
+     * @param slot int index of logProbabilities to write
+     * @return long number of scored transitions in the high 32 bits and of unseen transitions in the low 32 bits
+     */
+    private long scoreInto(int[] ids, int from, int to, double[] logProbabilities, int slot){
+        double logProbability = 0;
+        int scored = 0;
+        int unseenCount = 0;
+
+        for(int i = from + 1; i < to; i++){
+            double logP = logProbability(ids[i - 1], ids[i]);
+            if(Double.isNaN(logP)){
+                unseenCount++;
+                if(unseen == Unseen.SKIP){
+                    continue;
+                }
+                logP = unseen == Unseen.FLOOR ? logFloor : Double.NEGATIVE_INFINITY;
+            }
+            logProbability += logP;
+            scored++;
+        }
+        logProbabilities[slot] = logProbability;
+        return ((long) scored << 32) | unseenCount;
+    }
+
+    /**
+     * Returns the number of scored transitions packed by scoreInto
+     *
+     * @param counts long packed counts
+     * @return int number of scored transitions
+     */
+    private static int scoredCount(long counts){
+        return (int) (counts >>> 32);
+    }
+
+    /**
+     * Returns the number of unseen transitions packed by scoreInto
+     *
+     * @param counts long packed counts
+     * @return int number of unseen transitions
+     */
+    private static int unseenCount(long counts){
+        return (int) counts;
+    }
+
+    /**
+     * Returns the log probability of one word following another
+     *
+     * @param from int id of the first word, or -1
+     * @param to int id of the following word, or -1
+     * @return double natural log of the probability, or NaN if the graph has never seen the transition
+     */
+    private double logProbability(int from, int to){
+        if(from < 0 || to < 0){
+            return Double.NaN;
+        }
+        int count = graph.getEdgeCount(from, to);
+        if(count == 0){
+            return Double.NaN;
+        }
+        return Math.log((double) count / graph.getNumAfterWords(from));
+    }
+
+    /**
+     * Computes perplexity from a log probability
+     *
+     * @param logProbability double natural log of the probability of the sequence
+     * @param scoredTransitions int number of transitions included
+     * @return double perplexity, or 1 if no transitions were scored
+     */
+    private static double perplexity(double logProbability, int scoredTransitions){
+        return scoredTransitions == 0 ? 1 : Math.exp(-logProbability / scoredTransitions);
+    }
+}
@@ -0,0 +1,259 @@
+package comprehensive;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Class that ranks words by how often a long weighted random walk visits them, which is the stationary distribution
+ * of the chain generateWRS follows. The graph is treated as a sparse stochastic matrix where word u moves to word v
+ * with probability count(u, v) / numAfterWords(u), and the distribution is found by power iteration.
+ * A walk that reaches a word with no following words either goes back to a seed, as generateWRS does, or teleports to
+ * a uniformly random word. An optional teleport probability restarts the walk at a random word from anywhere, which
+ * makes the iteration converge on graphs where the plain walk would cycle forever.
+ *
+ * The matrix is stored transposed in flat arrays: the edges into each word with the probability of taking them.
+ * Each iteration is a pull sparse matrix-vector product, where every word sums what flows into it, so words are
+ * split into blocks that are computed in parallel with no shared writes. Iteration stops once the L1 change between
+ * two iterations is below the tolerance or after the maximum number of iterations, and whether it converged is kept.
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class StationaryDistribution {
+
+    private static final int BLOCK = 4096; // words per parallel task
+
+    /**
+     * Where a walk goes from a word that no word has followed
+     */
+    public enum DeadEnds {
+        /** back to the seed word, like generateWRS */
+        RESET_TO_SEED,
+        /** to a uniformly random word */
+        TELEPORT
+    }
+
+    private final IndexedMarkovGraph graph;
+    private final double[] probabilities;
+    private final int iterations;
+    private final double residual;
+    private final boolean converged;
+    private final int mostVisited; // id of the most visited word, -1 for an empty graph
+
+    /**
+     * Computes the distribution of a graph with dead ends teleporting, no teleport probability,
+     * a tolerance of 1e-10 and at most 1000 iterations
+     *
+     * @param graph IndexedMarkovGraph to rank the words of
+     */
+    public StationaryDistribution(IndexedMarkovGraph graph){
+        this(graph, DeadEnds.TELEPORT, null, 0, 1e-10, 1000);
+    }
+
+    /**
+     * Computes the distribution of a graph
+     *
+     * @param graph IndexedMarkovGraph to rank the words of
+     * @param deadEnds DeadEnds where a walk goes from a word with no following words
+     * @param seed String word dead ends go back to for RESET_TO_SEED, ignored for TELEPORT
+     * @param teleport double probability in [0, 1) of restarting at a random word on every step
+     * @param tolerance double L1 change between iterations at which the iteration has converged
+     * @param maxIterations int most iterations to run
+     */
+    public StationaryDistribution(IndexedMarkovGraph graph, DeadEnds deadEnds, String seed, double teleport,
+                                  double tolerance, int maxIterations){
+        if(teleport < 0 || teleport >= 1){
+            throw new IllegalArgumentException("Teleport probability must be in [0, 1)");
+        }
+        if(maxIterations < 1){
+            throw new IllegalArgumentException("Maximum iterations must be positive");
+        }
+        int numWords = graph.vertexCount();
+        int seedId = -1;
+        if(deadEnds == DeadEnds.RESET_TO_SEED){
+            seedId = seed == null ? -1 : graph.idOf(seed);
+            if(seedId < 0){
+                throw new IllegalArgumentException("Seed word is not in graph");
+            }
+        }
+        this.graph = graph;
+
+        // builds the transposed matrix: for each word, the words that lead to it and the probability they do
+        int[] inStart = new int[numWords + 1];
+        for(int from = 0; from < numWords; from++){
+            for(int edge = graph.edgeStart(from); edge < graph.edgeStart(from + 1); edge++){
+                inStart[graph.edgeTarget(edge) + 1]++;
+            }
+        }
+        for(int id = 0; id < numWords; id++){
+            inStart[id + 1] += inStart[id];
+        }
+        int[] inSource = new int[inStart[numWords]];
+        double[] inProbability = new double[inStart[numWords]];
+        int[] fill = Arrays.copyOf(inStart, numWords);
+        int[] deadEndIds = new int[numWords];
+        int numDeadEnds = 0;
+        for(int from = 0; from < numWords; from++){
+            int start = graph.edgeStart(from);
+            int end = graph.edgeStart(from + 1);
+            if(start == end){
+                deadEndIds[numDeadEnds++] = from;
+            }
+            double after = graph.getNumAfterWords(from);
+            for(int edge = start; edge < end; edge++){
+                int slot = fill[graph.edgeTarget(edge)]++;
+                inSource[slot] = from;
+                inProbability[slot] = graph.countOf(edge, start) / after;
+            }
+        }
+
+        // starts from the uniform distribution
+        double[] current = new double[numWords];
+        double[] next = new double[numWords];
+        Arrays.fill(current, numWords == 0 ? 0 : 1.0 / numWords);
+        int numBlocks = (numWords + BLOCK - 1) / BLOCK;
+        double[] blockChange = new double[numBlocks];
+
+        int iteration = 0;
+        double change = Double.POSITIVE_INFINITY;
+        while(iteration < maxIterations && change > tolerance && numWords > 0){
+            iteration++;
+
+            // the probability sitting on dead ends this step, which is spread by the dead end rule
+            double deadMass = 0;
+            for(int i = 0; i < numDeadEnds; i++){
+                deadMass += current[deadEndIds[i]];
+            }
+            double uniform = teleport / numWords + (deadEnds == DeadEnds.TELEPORT ? (1 - teleport) * deadMass / numWords : 0);
+            double toSeed = deadEnds == DeadEnds.RESET_TO_SEED ? (1 - teleport) * deadMass : 0;
+            int seedTarget = seedId;
+            double[] from = current;
+            double[] to = next;
+
+            // each block pulls the probability flowing into its words and records how much they changed
+            IntStream.range(0, numBlocks).parallel().forEach(block -> {
+                int low = block * BLOCK;
+                int high = Math.min(low + BLOCK, numWords);
+                double blockSum = 0;
+                for(int id = low; id < high; id++){
+                    double flow = 0;
+                    for(int edge = inStart[id]; edge < inStart[id + 1]; edge++){
+                        flow += inProbability[edge] * from[inSource[edge]];
+                    }
+                    double value = (1 - teleport) * flow + uniform + (id == seedTarget ? toSeed : 0);
+                    to[id] = value;
+                    blockSum += Math.abs(value - from[id]);
+                }
+                blockChange[block] = blockSum;
+            });
+
+            change = 0;
+            for(double blockSum : blockChange){
+                change += blockSum;
+            }
+            double[] swap = current;
+            current = next;
+            next = swap;
+        }
+
+        this.probabilities = current;
+        this.iterations = iteration;
+        this.residual = numWords == 0 ? 0 : change;
+        this.converged = residual <= tolerance;
+
+        int best = -1;
+        for(int id = 0; id < numWords; id++){
+            if(best < 0 || current[id] > current[best]){
+                best = id;
+            }
+        }
+        this.mostVisited = best;
+    }
+
+    /**
+     * Returns the long run probability of a word
+     *
+     * @param word String the word
+     * @return double probability of the word, 0 if it is not in the graph
+     */
+    public double probability(String word){
+        int id = graph.idOf(word);
+        return id < 0 ? 0 : probabilities[id];
+    }
+
+    /**
+     * Returns the long run probability of a word id
+     *
+     * @param id int id of the word in the graph
+     * @return double probability of the word
+     */
+    public double probability(int id){
+        return probabilities[id];
+    }
+
+    /**
+     * Returns the word a long walk visits most, ties broken by smaller id
+     *
+     * @return String the most visited word, or null if the graph is empty
+     */
+    public String mostVisitedWord(){
+        return mostVisited < 0 ? null : graph.wordOf(mostVisited);
+    }
+
+    /**
+     * Returns the k words a long walk visits most, in descending order, ties broken by smaller id
+     *
+     * @param k int number of words to return
+     * @return List of the most visited words
+     */
+    public List<String> topWords(int k){
+        if(k < 0){
+            throw new IllegalArgumentException("k is out of bounds");
+        }
+
+        // ranks the ids with a heap of indices, ordering equal probabilities by smaller id
+        int numWords = probabilities.length;
+        Integer[] ids = new Integer[numWords];
+        for(int id = 0; id < numWords; id++){
+            ids[id] = id;
+        }
+        BinaryMaxHeapComp<Integer> heap = new BinaryMaxHeapComp<>(Arrays.asList(ids),
+                (id1, id2) -> probabilities[id1] != probabilities[id2]
+                        ? Double.compare(probabilities[id1], probabilities[id2]) : Integer.compare(id2, id1));
+
+        List<String> output = new ArrayList<>();
+        for(int i = 0; i < Math.min(k, numWords); i++){
+            output.add(graph.wordOf(heap.extractMax()));
+        }
+        return output;
+    }
+
+    /**
+     * Returns the number of iterations that were run
+     *
+     * @return int number of iterations
+     */
+    public int getIterations(){
+        return iterations;
+    }
+
+    /**
+     * Returns the L1 change made by the last iteration
+     *
+     * @return double residual of the last iteration
+     */
+    public double getResidual(){
+        return residual;
+    }
+
+    /**
+     * Returns whether the iteration reached the tolerance before the maximum number of iterations
+     *
+     * @return boolean true if the distribution converged
+     */
+    public boolean hasConverged(){
+        return converged;
+    }
+}
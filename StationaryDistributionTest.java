@@ -0,0 +1,110 @@
+package comprehensive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileNotFoundException;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StationaryDistributionTest {
+
+    private MarkovGraph shrek;
+
+    @BeforeEach
+    void setup() throws FileNotFoundException {
+        shrek = new MarkovGraph(TextGenerator.FileToTextCleanup("src/comprehensive/shrek.txt"));
+    }
+
+    @Test
+    void testTwoWordChain(){
+
+        // a follows a twice and b once, b is always followed by a, so a is visited 3/4 of the time
+        IndexedMarkovGraph graph = IndexedMarkovGraph.from(new MarkovGraph(List.of("a", "a", "a", "b", "a")));
+        StationaryDistribution distribution = new StationaryDistribution(graph);
+        assertTrue(distribution.hasConverged());
+        assertEquals(0.75, distribution.probability("a"), 1e-9);
+        assertEquals(0.25, distribution.probability("b"), 1e-9);
+        assertEquals(List.of("a", "b"), distribution.topWords(5));
+    }
+
+    @Test
+    void testResetToSeedAndIterationCap(){
+
+        // c is a dead end that goes back to a, which makes the walk alternate between a and {b, c} forever
+        IndexedMarkovGraph graph = IndexedMarkovGraph.from(new MarkovGraph(List.of("a", "b", "a", "c")));
+        StationaryDistribution cycling = new StationaryDistribution(graph,
+                StationaryDistribution.DeadEnds.RESET_TO_SEED, "a", 0, 1e-10, 100);
+        assertFalse(cycling.hasConverged());
+        assertEquals(100, cycling.getIterations());
+
+        // restarting at a random word now and then breaks the cycle
+        StationaryDistribution damped = new StationaryDistribution(graph,
+                StationaryDistribution.DeadEnds.RESET_TO_SEED, "a", 0.1, 1e-10, 1000);
+        assertTrue(damped.hasConverged());
+        assertTrue(damped.getIterations() < 1000);
+        assertEquals(1.0, damped.probability("a") + damped.probability("b") + damped.probability("c"), 1e-9);
+        assertEquals(damped.probability("b"), damped.probability("c"), 1e-9);
+        assertEquals("a", damped.mostVisitedWord());
+    }
+
+    @Test
+    void testTextVisitsFollowOccurrences(){
+
+        // in a plain walk over one continuous text, each word is visited about as often as it occurs
+        StationaryDistribution distribution = new StationaryDistribution(IndexedMarkovGraph.from(shrek));
+        assertTrue(distribution.hasConverged());
+        long total = 0;
+        for(VertexNode node : shrek.getVertices()){
+            total += node.getNumOccurrences();
+        }
+        VertexNode you = shrek.getVertex("you");
+        assertEquals((double) you.getNumOccurrences() / total, distribution.probability("you"), 1e-3);
+        assertEquals("you", distribution.mostVisitedWord());
+
+        // the graph's own distribution restarts now and then, which leaves the most visited words in place
+        StationaryDistribution damped = shrek.stationaryDistribution();
+        assertTrue(damped.hasConverged());
+        assertEquals("you", damped.mostVisitedWord());
+        assertEquals("you", damped.topWords(3).get(0));
+    }
+
+    @Test
+    void testRecomputeInterval(){
+        StationaryDistribution first = shrek.stationaryDistribution();
+        shrek.addWords(List.of("xylophone", "xylophone"));
+        assertSame(first, shrek.stationaryDistribution());
+
+        // with no interval the next call sees the new word
+        shrek.setStationaryRecomputeInterval(0);
+        assertNotSame(first, shrek.stationaryDistribution());
+        assertTrue(shrek.stationaryDistribution().probability("xylophone") > 0);
+    }
+
+    @Test
+    void testSeedFallback(){
+        assertThrows(NoSuchElementException.class, () -> shrek.findKLargest("xylophone", 3));
+
+        shrek.enableSeedFallback();
+        assertEquals(shrek.findKLargest("you", 3), shrek.findKLargest("xylophone", 3));
+        assertEquals("you", shrek.generateWRS("xylophone", 5).get(0));
+        assertEquals(shrek.generateMostProbableChain("you", 5), shrek.generateMostProbableChain("xylophone", 5));
+        assertEquals(shrek.findKLargestPredecessors("you", 3), shrek.findKLargestPredecessors("xylophone", 3));
+        assertEquals(shrek.generateBackwardMostProbableChain("you", 5),
+                shrek.generateBackwardMostProbableChain("xylophone", 5));
+        assertEquals("you", shrek.generateBackwardWRS("xylophone", 5).get(4));
+    }
+
+    @Test
+    void testWarmTopKCache(){
+        assertThrows(IllegalStateException.class, () -> shrek.warmTopKCache(10, 5));
+        shrek.enableTopKCache(1000);
+        assertEquals(10, shrek.warmTopKCache(10, 5));
+        assertEquals(10, shrek.getTopKCacheStats().entries());
+
+        shrek.findKLargest("you", 5);
+        assertEquals(1, shrek.getTopKCacheStats().hits());
+    }
+}
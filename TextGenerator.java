@@ -1,16 +1,31 @@
 package comprehensive;
 
-import java.io.File;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Consumer;
 
 /**
  * Class to run a predictive AI model in the main method
- * Takes an input file path, a seed word, a k value
+ * Takes an input file path (or a directory or glob pattern of files), a seed word, a k value
  * and either no fourth argument, or "one" or "all" as the fourth argument
- * and returns either a possible chain of k length or the k most likely next words
+ * and returns either a possible chain of k length or the k most likely next words.
+ * With "--profile" it also prints the time, CPU time, allocation and garbage collection of each phase as JSON
+ * to standard error. With "--batch file" (or "--batch -" for standard input) the seed and k arguments are left out,
+ * and every line of the file is answered as a query by BatchQueryRunner.
  *
  * @author Andy Martins and Sherry Pan
  * @version April 23, 2024
@@ -26,49 +41,141 @@ public class TextGenerator {
 
     public static void main(String[] args) {
 
-        List<String> cleanedWords;
+        // "--profile" and "--batch file" can appear anywhere and are removed before the other arguments are read
+        PhaseProfiler profiler = null;
+        String batchInput = null;
+        List<String> positional = new ArrayList<>();
+        for(int i = 0; i < args.length; i++){
+            if(args[i].equals("--profile")){
+                profiler = new PhaseProfiler();
+            } else if (args[i].equals("--batch")) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("--batch needs a query file, or - for standard input");
+                }
+                batchInput = args[++i];
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        args = positional.toArray(new String[0]);
+
+        MarkovGraph graph;
 
-        // Takes a file and cleans up the valid words into a List if the file exists.
+        // Takes a file, directory or glob pattern and builds the graph from the cleaned up words if the files exist.
         try {
-            cleanedWords = FileToTextCleanup(args[0]);
+            if (CorpusLoader.isCorpusPattern(args[0])) {
+                graph = new CorpusLoader().load(args[0], profiler);
+            } else {
+                graph = fileToGraph(args[0], profiler);
+            }
         } catch (FileNotFoundException e){
             throw new IllegalArgumentException("File does not exist");
+        } catch (IOException e){
+            throw new UncheckedIOException(e);
         }
 
-        MarkovGraph graph = new MarkovGraph(cleanedWords);
+        if (profiler != null) {
+            profiler.put("input", args[0]);
+            profiler.put("tokens", graph.tokenCount());
+            profiler.start("query");
+        }
+
+        // in batch mode every query is read from the batch input instead of the arguments
+        if (batchInput != null) {
+            ForkJoinPool pool = profiler == null ? null : profiledPool(profiler);
+            runBatch(graph, batchInput, pool);
+            if (profiler != null) {
+                profiler.stop();
+                pool.shutdown();
+                profiler.put("vertices", graph.vertexCount());
+                profiler.put("edges", graph.edgeCount());
+                System.err.println(profiler.toJson());
+            }
+            return;
+        }
 
         // Stores the seed and the k value
         String seed = args[1];
         int k =  Integer.parseInt(args[2]);
 
+        String text;
+
         // if there are only 3 arguments, calls the findKLargest method which returns the k most probable next words.
         if(args.length == 3){
-            String text = buildTextFromList(graph.findKLargest(seed,k));
-            System.out.println(text);
+            text = buildTextFromList(graph.findKLargest(seed,k));
 
             /*
              if the fourth argument is "all", calls generateWRS method which takes the seed and k int and generates
              chain picking based on the weighted random of all words that come after each seed word.
              */
         } else if (args[3].equals("all")) {
-            String text = buildTextFromList(graph.generateWRS(seed,k));
-            System.out.println(text);
+            text = buildTextFromList(graph.generateWRS(seed,k));
 
             /*
              if the fourth argument is "one", calls generateMostProbableChain and makes a chain
              by picking the most probable word for each seed
              */
         } else if (args[3].equals("one")) {
-            String text = buildTextFromList(graph.generateMostProbableChain(seed,k));
-            System.out.println(text);
+            text = buildTextFromList(graph.generateMostProbableChain(seed,k));
         }
         else{
             throw new IllegalArgumentException("4th argument not a valid command");
         }
 
+        // the profile goes to standard error so the generated text on standard output is unchanged
+        if (profiler != null) {
+            profiler.stop();
+            profiler.put("vertices", graph.vertexCount());
+            profiler.put("edges", graph.edgeCount());
+            System.err.println(profiler.toJson());
+        }
+        System.out.println(text);
 
     }
 
+    /**
+     * Answers every query of a batch file, or of standard input if the file is "-", writing the answers to standard
+     * output in input order and the number of queries per second to standard error
+     *
+     * @param graph MarkovGraph to answer the queries from
+     * @param batchInput String path to the query file, or "-" for standard input
+     * @param pool ForkJoinPool the queries are answered on, or null for the common pool
+     */
+    private static void runBatch(MarkovGraph graph, String batchInput, ForkJoinPool pool) {
+
+        long start = System.nanoTime();
+        long answered;
+        BufferedWriter out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+
+        try (BufferedReader in = batchInput.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(batchInput), StandardCharsets.UTF_8)) {
+            answered = new BatchQueryRunner(graph, 4096, pool).run(in, out);
+        } catch (NoSuchFileException e) {
+            throw new IllegalArgumentException("Batch file does not exist");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Answered %d queries in %.3f s (%.0f queries/s)%n", answered, seconds, answered / seconds);
+    }
+
+    /**
+     * Creates a pool with one worker per core whose threads the profiler tracks, so the CPU time and allocation of
+     * queries answered on it are counted in the "query" phase along with the main thread's
+     *
+     * @param profiler PhaseProfiler to track the workers
+     * @return ForkJoinPool to answer batch queries on, which must be shut down after the phase is stopped
+     */
+    private static ForkJoinPool profiledPool(PhaseProfiler profiler) {
+        return new ForkJoinPool(Runtime.getRuntime().availableProcessors(), forkJoinPool -> {
+            ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            profiler.track(worker);
+            return worker;
+        }, null, false);
+    }
+
     /**
      * Takes an input file and returns a list with the input cleaned up
      * so that all letters are lowercase, punctuation is removed,
@@ -79,8 +186,84 @@ public class TextGenerator {
      */
     public static List<String> FileToTextCleanup(String filePath) throws FileNotFoundException {
 
+        try (Scanner fileReader = openScanner(filePath)) {
+            return cleanTokens(fileReader);
+        }
+    }
+
+    /**
+     * Builds a MarkovGraph from a file, adding each cleaned up word to the graph as soon as it is read
+     * instead of collecting the whole file into a List first. For a compressed file this means decompressing,
+     * cleaning and building the graph all happen at the same time.
+     *
+     * @param filePath String path to input file
+     * @return MarkovGraph built from the cleaned up words of the file
+     */
+    public static MarkovGraph fileToGraph(String filePath) throws FileNotFoundException {
+        return fileToGraph(filePath, null);
+    }
+
+    /**
+     * Builds a MarkovGraph from a file like fileToGraph(filePath), recording it as a "load" phase of a profiler.
+     * Reading, cleaning and building happen together in one pass, so the phase covers all of them.
+     *
+     * @param filePath String path to input file
+     * @param profiler PhaseProfiler to record the phase in, or null
+     * @return MarkovGraph built from the cleaned up words of the file
+     */
+    static MarkovGraph fileToGraph(String filePath, PhaseProfiler profiler) throws FileNotFoundException {
+
+        MarkovGraph graph = new MarkovGraph();
+        try (Scanner fileReader = openScanner(filePath)) {
+            if (profiler != null) {
+                profiler.start("load");
+            }
+            cleanTokens(fileReader, graph::addWord);
+            if (profiler != null) {
+                profiler.stop();
+                profiler.put("files", 1);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Opens a Scanner over a file, decompressing it first if it is compressed in a format CompressedInput knows
+     *
+     * @param filePath String path to input file
+     * @return Scanner over the text of the file
+     */
+    static Scanner openScanner(String filePath) throws FileNotFoundException {
+        try {
+            return new Scanner(CompressedInput.open(Paths.get(filePath)));
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException(filePath);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads every token from a Scanner and returns a list with the tokens cleaned up the same way as FileToTextCleanup
+     *
+     * @param fileReader Scanner to read tokens from
+     * @return List of String containing cleaned up words
+     */
+    static List<String> cleanTokens(Scanner fileReader) {
+
         List<String> cleanedList = new ArrayList<>();
-        Scanner fileReader = new Scanner(new File(filePath));
+        cleanTokens(fileReader, cleanedList::add);
+        return cleanedList;
+    }
+
+    /**
+     * Reads every token from a Scanner, cleans it up, and passes every valid word to the output
+     *
+     * @param fileReader Scanner to read tokens from
+     * @param output Consumer that receives each cleaned up word
+     */
+    static void cleanTokens(Scanner fileReader, Consumer<String> output) {
+
         String cleanedWord;
 
         /*
@@ -92,11 +275,9 @@ public class TextGenerator {
             cleanedWord = cleanWord(fileReader.next());
 
             if( cleanedWord != null && !(cleanedWord.equals(""))) {
-                cleanedList.add(cleanedWord);
+                output.accept(cleanedWord);
             }
         }
-
-        return cleanedList;
     }
 
     /**
@@ -106,7 +287,7 @@ public class TextGenerator {
      * @param word String input word
      * @return String the cleaned up word in front of any punctuation
      */
-    private static String cleanWord(String word){
+    static String cleanWord(String word){
         String input = word;
         input = input.toLowerCase(); // takes a string input and turns it to lowercase
 
@@ -0,0 +1,254 @@
+package comprehensive;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class that caches the results of top-k queries per seed word, bounded by the total number of words held.
+ * The cache is split into segments that each keep their own least recently used order under their own lock,
+ * so threads looking up different seeds rarely wait on each other.
+ * A cached list for some k also answers any smaller k, and a list that holds every following word answers any k.
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class TopKCache {
+
+    private static final int NUM_SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Hit and miss statistics of the cache
+     *
+     * @param hits number of lookups answered from the cache
+     * @param misses number of lookups that were not
+     * @param evictions number of entries removed to stay under the size limit
+     * @param entries number of seeds currently cached
+     * @param cachedWords number of words currently cached
+     */
+    public record Stats(long hits, long misses, long evictions, long entries, long cachedWords){
+
+        /**
+         * Returns the fraction of lookups that were hits
+         *
+         * @return double hit rate, or 0 if there have been no lookups
+         */
+        public double hitRate(){
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    /**
+     * Creates a cache that holds at most the given number of words across every cached list
+     *
+     * @param maxCachedWords long total number of words the cache may hold
+     */
+    public TopKCache(long maxCachedWords){
+        if(maxCachedWords <= 0){
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        segments = new Segment[NUM_SEGMENTS];
+        for(int i = 0; i < NUM_SEGMENTS; i++){
+            segments[i] = new Segment(Math.max(1, maxCachedWords / NUM_SEGMENTS));
+        }
+    }
+
+    /**
+     * Looks up the k most probable words after a seed
+     *
+     * @param seed String the seed word
+     * @param k int number of words wanted
+     * @return List of the k most probable words, or null if the cache cannot answer the query
+     */
+    public List<String> get(String seed, int k){
+        Entry entry = segmentFor(seed).get(seed);
+
+        if(entry == null || (k > entry.words.size() && !entry.complete)){
+            misses.incrementAndGet();
+            return null;
+        }
+
+        hits.incrementAndGet();
+        return entry.words.subList(0, Math.min(k, entry.words.size()));
+    }
+
+    /**
+     * Caches the result of a top-k query. A result for a larger k that is already cached is kept instead.
+     *
+     * @param seed String the seed word
+     * @param k int the k the result was computed for
+     * @param words List of the most probable words, in descending order
+     */
+    public void put(String seed, int k, List<String> words){
+        segmentFor(seed).put(seed, new Entry(List.copyOf(words), words.size() < k));
+    }
+
+    /**
+     * Removes the cached result for a seed, called when the words following it change
+     *
+     * @param seed String the seed word
+     */
+    public void invalidate(String seed){
+        segmentFor(seed).remove(seed);
+    }
+
+    /**
+     * Removes every cached result
+     */
+    public void clear(){
+        for(Segment segment : segments){
+            segment.clear();
+        }
+    }
+
+    /**
+     * Returns the current statistics of the cache
+     *
+     * @return Stats with hits, misses, evictions and size
+     */
+    public Stats getStats(){
+        long entries = 0;
+        long cachedWords = 0;
+        for(Segment segment : segments){
+            synchronized(segment){
+                entries += segment.map.size();
+                cachedWords += segment.weight;
+            }
+        }
+        return new Stats(hits.get(), misses.get(), evictions.get(), entries, cachedWords);
+    }
+
+    /**
+     * Returns the segment responsible for a seed
+     *
+     * @param seed String the seed word
+     * @return Segment holding the seed
+     */
+    private Segment segmentFor(String seed){
+        int hash = seed.hashCode();
+        hash ^= hash >>> 16;
+        return segments[hash & (NUM_SEGMENTS - 1)];
+    }
+
+    /**
+     * A cached result: the most probable words, and whether they are every word that follows the seed
+     */
+    private static class Entry {
+
+        private final List<String> words;
+        private final boolean complete;
+
+        /**
+         * Creates an entry
+         *
+         * @param words List of most probable words in descending order
+         * @param complete boolean true if no other words follow the seed
+         */
+        private Entry(List<String> words, boolean complete){
+            this.words = words;
+            this.complete = complete;
+        }
+
+        /**
+         * Returns the number of words this entry counts against the cache size
+         *
+         * @return int weight of the entry
+         */
+        private int weight(){
+            return words.size() + 1;
+        }
+    }
+
+    /**
+     * One part of the cache, a LinkedHashMap in access order guarded by its own lock
+     */
+    private class Segment {
+
+        private final LinkedHashMap<String, Entry> map = new LinkedHashMap<>(16, 0.75f, true);
+        private final long maxWeight;
+        private long weight;
+
+        /**
+         * Creates a segment
+         *
+         * @param maxWeight long number of words the segment may hold
+         */
+        private Segment(long maxWeight){
+            this.maxWeight = maxWeight;
+        }
+
+        /**
+         * Returns the entry for a seed and marks it as most recently used
+         *
+         * @param seed String the seed word
+         * @return Entry or null
+         */
+        private synchronized Entry get(String seed){
+            return map.get(seed);
+        }
+
+        /**
+         * Adds an entry, then removes least recently used entries until the segment is under its size limit,
+         * skipping entries that are heavier than the segment limit on their own
+         *
+         * @param seed String the seed word
+         * @param entry Entry to add
+         */
+        private synchronized void put(String seed, Entry entry){
+            // an entry heavier than the whole segment would evict everything else and still not fit
+            if(entry.weight() > maxWeight){
+                return;
+            }
+            Entry old = map.get(seed);
+
+            // keeps whichever result answers more queries
+            if(old != null && (old.complete || old.words.size() >= entry.words.size())){
+                return;
+            }
+            if(old != null){
+                weight -= old.weight();
+            }
+            map.put(seed, entry);
+            weight += entry.weight();
+
+            Iterator<Map.Entry<String, Entry>> eldest = map.entrySet().iterator();
+            while(weight > maxWeight && eldest.hasNext()){
+                Map.Entry<String, Entry> next = eldest.next();
+                if(next.getValue() == entry){
+                    break;
+                }
+                weight -= next.getValue().weight();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+
+        /**
+         * Removes the entry for a seed
+         *
+         * @param seed String the seed word
+         */
+        private synchronized void remove(String seed){
+            Entry old = map.remove(seed);
+            if(old != null){
+                weight -= old.weight();
+            }
+        }
+
+        /**
+         * Removes every entry
+         */
+        private synchronized void clear(){
+            map.clear();
+            weight = 0;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package comprehensive;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Class that creates a vertex node containing the word and a HashMap of the words that follow the current word.
@@ -19,6 +20,15 @@ public class VertexNode {
     // hashmap of all nodes/words that follow this word and the number of times it comes after the word
     private HashMap<String,Integer> outWords = new HashMap<>();
 
+    // following words sorted by frequency with their running totals, built by the first random pick after a change
+    private volatile SamplingTable samplingTable;
+
+    // counts saved for the checkpoint being written, see MarkovGraph.beginCheckpoint, guarded by this node's lock
+    private volatile int preservedEpoch; // last checkpoint this node has saved its counts for or been read by
+    private int preservedOccurrences;
+    private String[] preservedWords; // following words and their counts, in the order of the map
+    private int[] preservedCounts;
+
     /**
      * Constructor that sets the word to the give word and the number of occurrences to 1
      *
@@ -46,7 +56,97 @@ public class VertexNode {
         }
 
         numAfterWords++;
+        if(samplingTable != null){
+            samplingTable = null;
+        }
+
+    }
+
+    /**
+     * Adds count to the number of times next word follows this word
+     *
+     * @param nextWord String the word that comes after this word
+     * @param count int number of times to add the edge
+     */
+    void addEdge(String nextWord, int count){
+        outWords.merge(nextWord, count, Integer::sum);
+        numAfterWords += count;
+        if(samplingTable != null){
+            samplingTable = null;
+        }
+    }
+
+    /**
+     * Saves a copy of the counts for the active checkpoint, if the node has not saved them or been read by it yet.
+     * Called before every change while a checkpoint is active, and returns after one volatile read once the node
+     * has been saved or read.
+     *
+     * @param epoch int number of the active checkpoint, or 0 if there is none
+     */
+    void preserve(int epoch){
+        if(epoch == 0 || preservedEpoch >= epoch){
+            return;
+        }
+        synchronized(this){
+            if(preservedEpoch < epoch){
+                preservedOccurrences = numOccurrences;
+                copyOutWords();
+                preservedEpoch = epoch;
+            }
+        }
+    }
 
+    /**
+     * Returns the counts as they were when a checkpoint started: the saved copy if the node has changed since,
+     * otherwise the current counts, after which the node no longer needs to save them for this checkpoint.
+     * The live counts are copied under the node's lock and sorted after it is released.
+     *
+     * @param epoch int number of the checkpoint
+     * @return MarkovGraphIO.VertexRecord of the counts
+     */
+    MarkovGraphIO.VertexRecord checkpointRecord(int epoch){
+        int occurrences;
+        String[] words;
+        int[] counts;
+        synchronized(this){
+            if(preservedEpoch != epoch){
+                preservedOccurrences = numOccurrences;
+                copyOutWords();
+                preservedEpoch = epoch;
+            }
+            occurrences = preservedOccurrences;
+            words = preservedWords;
+            counts = preservedCounts;
+            preservedWords = null;
+            preservedCounts = null;
+        }
+        return MarkovGraphIO.toRecord(word, occurrences, words, counts);
+    }
+
+    /**
+     * Copies the following words and their counts into flat arrays, which is much cheaper than copying the map
+     */
+    private void copyOutWords(){
+        preservedWords = new String[outWords.size()];
+        preservedCounts = new int[outWords.size()];
+        int i = 0;
+        for(Map.Entry<String,Integer> entry : outWords.entrySet()){
+            preservedWords[i] = entry.getKey();
+            preservedCounts[i] = entry.getValue();
+            i++;
+        }
+    }
+
+    /**
+     * Drops anything saved for a checkpoint that will not read this node, because it failed
+     * or because the node was created after it started
+     *
+     * @param epoch int number of the checkpoint
+     */
+    synchronized void excludeFromCheckpoint(int epoch){
+        preservedEpoch = Math.max(preservedEpoch, epoch);
+        preservedWords = null;
+        preservedCounts = null;
     }
 
     /**
@@ -65,6 +165,33 @@ public class VertexNode {
         numOccurrences++;
     }
 
+    /**
+     * Increases the number of times this word occurs in the input by the given amount
+     *
+     * @param count int number of occurrences to add
+     */
+    void addOccurrences(int count){
+        numOccurrences += count;
+    }
+
+    /**
+     * Getter method for the number of words that have come after this word
+     *
+     * @return int the sum of the counts of every following word
+     */
+    public int getNumAfterWords(){
+        return numAfterWords;
+    }
+
+    /**
+     * Returns a read-only view of the words that follow this word and how many times each one follows it
+     *
+     * @return Map from following word to count
+     */
+    Map<String, Integer> getOutWords(){
+        return Collections.unmodifiableMap(outWords);
+    }
+
     /**
      * Getter method for the word
      *
@@ -125,41 +252,88 @@ public class VertexNode {
             throw new IllegalArgumentException("k is out of bounds");
         }
 
-        BinaryMaxHeapComp<String> wordHeap = createHeap(); // creates a heap from the map of following words
-        List<String> kOutput = new ArrayList<>();
+        int degree = outWords.size();
+        String[] words = new String[degree];
+        int[] counts = new int[degree];
+        long[] keys = new long[degree];
+
+        // copies the map into parallel arrays once, so the heap only ever compares primitive (count, index) keys
+        int index = 0;
+        for (Map.Entry<String, Integer> entry : outWords.entrySet()) {
+            words[index] = entry.getKey();
+            counts[index] = entry.getValue();
+            keys[index] = LongDaryMaxHeap.pack(counts[index], index);
+            index++;
+        }
 
-        int count = Math.min(k, wordHeap.size()); // figures out if the number of following words or k is smaller
+        // selects the k largest keys from the heap without extracting every one of them
+        long[] top = new LongDaryMaxHeap(keys).topK(k);
+        List<String> kOutput = new ArrayList<>(top.length);
+
+        // the packed index only breaks ties arbitrarily, so each run of equal counts is put in lexicographical order
+        int start = 0;
+        while (start < top.length) {
+            int count = LongDaryMaxHeap.unpackCount(top[start]);
+            int end = start;
+            while (end < top.length && LongDaryMaxHeap.unpackCount(top[end]) == count) {
+                end++;
+            }
 
-        // extracts the max word from the heap count times
-        for (int i = 0; i < count; i++) {
-            kOutput.add(wordHeap.extractMax());
+            // the last run may have been cut off at k, so it is chosen from every word with that count
+            String[] run;
+            if (end == top.length) {
+                run = smallestWithCount(words, counts, count, end - start);
+            }
+            else {
+                run = new String[end - start];
+                for (int i = start; i < end; i++) {
+                    run[i - start] = words[LongDaryMaxHeap.unpackId(top[i])];
+                }
+                Arrays.sort(run);
+            }
+            kOutput.addAll(Arrays.asList(run));
+            start = end;
         }
         return kOutput;
     }
 
     /**
-     * Creates a heap using the map of words that follow the current word
-     * Uses our heap implementation from assignment 10
+     * Returns the lexicographically smallest words with a count, in order, in one pass that keeps only the best
+     * ones found so far, so a long tail of words sharing the count costs one comparison each for most of them
      *
-     * @return BinaryMaxHeap ordered with the word with the most occurrences after the current word at the top
+     * @param words String array of the following words
+     * @param counts int array of their counts
+     * @param count int the count to select words with
+     * @param size int number of words to return, at most the number of words with the count
+     * @return String array of the smallest words with the count in lexicographical order
      */
-        private BinaryMaxHeapComp<String> createHeap(){
-
-            List<String> heapList = new ArrayList<>();
-
-            // goes through every word that follows the current word from the map and adds it to the heap
-            for (String word : outWords.keySet()){
-                heapList.add(word);
+    private static String[] smallestWithCount(String[] words, int[] counts, int count, int size) {
+        String[] best = new String[size];
+        int found = 0;
+        for (int i = 0; i < words.length; i++) {
+            if (counts[i] != count) {
+                continue;
+            }
+            String candidate = words[i];
+            if (found == size && candidate.compareTo(best[size - 1]) >= 0) {
+                continue;
             }
 
-            // returns the heap ordered with the largest element at the top
-//            return new BinaryMaxHeapComp<>(heapList, (o1, o2) -> outWords.get(o1).compareTo(outWords.get(o2)));
-            return new BinaryMaxHeapComp<>(heapList, new compareByFrequency());
+            // inserts the word in order, dropping the largest word if the array is full
+            int position = Arrays.binarySearch(best, 0, found, candidate);
+            position = position < 0 ? -position - 1 : position;
+            int moved = Math.min(found, size - 1) - position;
+            System.arraycopy(best, position, best, position + 1, moved);
+            best[position] = candidate;
+            found = Math.min(found + 1, size);
         }
+        return best;
+    }
 
     /**
-     * Creates a BinaryMaxHeap out of the Map of words that follow the current word
-     * and creates a random which is used to decide which word to return.
+     * Picks a random following word, weighted by the number of times each word follows this word.
+     * Uses a cached table of the following words sorted by frequency and a binary search over their running totals,
+     * which picks words with the same probabilities as extracting them from a heap in order of frequency did.
      *
      * @return String the randomly chosen following word
      */
@@ -171,28 +345,247 @@ public class VertexNode {
         }
 
         // creates a random int with the upper boundary being the number of times a word follows the current word
-        Random rand = new Random();
-        int randomNum = rand.nextInt(numAfterWords + 1);
-
-        // creates a heap with all the words that follow the current word
-        BinaryMaxHeapComp<String> heap = createHeap();
-        
-        String current;
+        int randomNum = ThreadLocalRandom.current().nextInt(numAfterWords + 1);
 
         /*
-        while the random number is greater than 0, extracts the most probable word and subtracts the times it
-        appears after the current word from the random number. Stops when the word is 0 and returns the current
-        following word it is at
+        the heap version subtracted counts in order of frequency until the random number was used up, which
+        stops at the first word whose running total reaches the random number (and at the first word for 0)
+         */
+        SamplingTable table = samplingTable();
+        return table.words[firstReaching(table.cumulative, table.words.length, Math.max(randomNum, 1))];
+    }
+
+    /**
+     * Picks a random following word with temperature and nucleus (top-p) sampling.
+     * Each word's weight is its count raised to the power 1 / temperature, so temperatures below 1 favor frequent words
+     * and temperatures above 1 flatten the distribution. Then only the most frequent words whose weights add up to at
+     * least topP of the total are kept, and one of them is picked in proportion to its weight.
+     * Weighted tables are cached per temperature, so each pick is two binary searches and allocates nothing.
+     *
+     * @param temperature double greater than 0, where 1 keeps the raw counts
+     * @param topP double in (0, 1], the share of the total weight to sample from, where 1 keeps every word
+     * @return String the chosen following word, or null if no word follows this word
+     */
+    public String sampleNextWord(double temperature, double topP){
+        return sampleNextWord(temperature, topP, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Picks a random following word with temperature and nucleus (top-p) sampling, drawing from the given Random
+     *
+     * @param temperature double greater than 0, where 1 keeps the raw counts
+     * @param topP double in (0, 1], the share of the total weight to sample from, where 1 keeps every word
+     * @param random Random to draw from
+     * @return String the chosen following word, or null if no word follows this word
+     */
+    String sampleNextWord(double temperature, double topP, Random random){
+        if(!(temperature > 0) || !(topP > 0 && topP <= 1)){
+            throw new IllegalArgumentException("Temperature must be positive and top-p must be in (0, 1]");
+        }
+        if(outWords.isEmpty()){
+            return null;
+        }
+
+        SamplingTable table = samplingTable();
+        int size = table.words.length;
+
+        // with temperature 1 the integer running totals are used directly
+        if(temperature == 1){
+            int[] cumulative = table.cumulative;
+            int cutoff = firstReaching(cumulative, size, topP * cumulative[size - 1]);
+            return table.words[firstReaching(cumulative, cutoff + 1, random.nextInt(cumulative[cutoff]) + 1)];
+        }
+
+        // a temperature only changes the weights, not their order, so the same sorted words are used
+        double[] cumulative = table.temperatureTable(temperature);
+        int cutoff = firstReaching(cumulative, size, topP * cumulative[size - 1]);
+        return table.words[firstAbove(cumulative, cutoff + 1, random.nextDouble() * cumulative[cutoff])];
+    }
+
+    /**
+     * Returns the sampling table, building it if words were added since it was last built
+     *
+     * @return SamplingTable of the current following words
+     */
+    private SamplingTable samplingTable(){
+        SamplingTable table = samplingTable;
+        if(table == null){
+            String[] words = outWords.keySet().toArray(new String[0]);
+            Arrays.sort(words, new compareByFrequency().reversed());
+
+            int[] cumulative = new int[words.length];
+            int total = 0;
+            for(int i = 0; i < words.length; i++){
+                total += outWords.get(words[i]);
+                cumulative[i] = total;
+            }
+            table = new SamplingTable(words, cumulative);
+            samplingTable = table;
+        }
+        return table;
+    }
+
+    /**
+     * Finds the first index whose running total is at least the target with a binary search
+     *
+     * @param cumulative int array of increasing running totals
+     * @param length int number of totals to search
+     * @param target double value to reach
+     * @return int the first index with cumulative[index] >= target, or length - 1 if none reaches it
+     */
+    private static int firstReaching(int[] cumulative, int length, double target){
+        int low = 0;
+        int high = length - 1;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(cumulative[mid] >= target){
+                high = mid;
+            }
+            else{
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the first index whose running total is at least the target with a binary search
+     *
+     * @param cumulative double array of increasing running totals
+     * @param length int number of totals to search
+     * @param target double value to reach
+     * @return int the first index with cumulative[index] >= target, or length - 1 if none reaches it
+     */
+    private static int firstReaching(double[] cumulative, int length, double target){
+        int low = 0;
+        int high = length - 1;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(cumulative[mid] >= target){
+                high = mid;
+            }
+            else{
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the first index whose running total is greater than the target with a binary search
+     *
+     * @param cumulative double array of increasing running totals
+     * @param length int number of totals to search
+     * @param target double value to pass
+     * @return int the first index with cumulative[index] > target, or length - 1 if none passes it
+     */
+    private static int firstAbove(double[] cumulative, int length, double target){
+        int low = 0;
+        int high = length - 1;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(cumulative[mid] > target){
+                high = mid;
+            }
+            else{
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * The following words of a vertex sorted by frequency, ties broken lexicographically, with the running totals
+     * of their counts. Never changed once built, a new table replaces it when words are added.
+     */
+    private static class SamplingTable {
+
+        private static final int MAX_TEMPERATURES = 8;
+
+        private final String[] words;
+        private final int[] cumulative;
+
+        // running totals of the weights for each temperature used, null until a temperature other than 1 is used
+        private volatile TemperatureTables temperatureTables;
+
+        /**
+         * Creates a table
+         *
+         * @param words String array of the following words in descending order of frequency
+         * @param cumulative int array of the running totals of their counts
          */
-        do {
-            current = heap.extractMax();
-            randomNum -= outWords.get(current);
+        private SamplingTable(String[] words, int[] cumulative){
+            this.words = words;
+            this.cumulative = cumulative;
         }
-        while(randomNum > 0);
 
-        return current;
+        /**
+         * Returns the running totals of the weights count^(1 / temperature), building them the first time
+         * a temperature is used. Counts are divided by the largest count first so large counts cannot overflow.
+         *
+         * @param temperature double greater than 0
+         * @return double array of running totals in the same order as words
+         */
+        private double[] temperatureTable(double temperature){
+            long key = Double.doubleToLongBits(temperature);
+            TemperatureTables cached = temperatureTables;
+            if(cached != null){
+                for(int i = 0; i < cached.keys().length; i++){
+                    if(cached.keys()[i] == key){
+                        return cached.tables()[i];
+                    }
+                }
+            }
+
+            // builds the table once for this temperature
+            double[] table = new double[words.length];
+            double largest = cumulative[0];
+            double total = 0;
+            for(int i = 0; i < words.length; i++){
+                int count = i == 0 ? cumulative[0] : cumulative[i] - cumulative[i - 1];
+                total += Math.pow(count / largest, 1 / temperature);
+                table[i] = total;
+            }
+
+            // two threads adding at once may lose one of the tables, which is only built again on its next use
+            temperatureTables = cached == null
+                    ? new TemperatureTables(new long[] {key}, new double[][] {table}, 0) : cached.with(key, table);
+            return table;
+        }
     }
 
+    /**
+     * The cached temperature tables of a SamplingTable, keyed by the bits of the temperature. Never changed once
+     * built, adding a table makes a new copy, which replaces the oldest table once MAX_TEMPERATURES are cached.
+     *
+     * @param keys long array of Double.doubleToLongBits of each temperature
+     * @param tables double arrays of running totals, in the same order as keys
+     * @param oldest int index of the table replaced next once the cache is full
+     */
+    private record TemperatureTables(long[] keys, double[][] tables, int oldest){
+
+        /**
+         * Returns a copy with one more table
+         *
+         * @param key long bits of the temperature
+         * @param table double array of running totals for the temperature
+         * @return TemperatureTables with the table added
+         */
+        private TemperatureTables with(long key, double[] table){
+            if(keys.length < SamplingTable.MAX_TEMPERATURES){
+                long[] newKeys = Arrays.copyOf(keys, keys.length + 1);
+                double[][] newTables = Arrays.copyOf(tables, tables.length + 1);
+                newKeys[keys.length] = key;
+                newTables[tables.length] = table;
+                return new TemperatureTables(newKeys, newTables, oldest);
+            }
+            long[] newKeys = keys.clone();
+            double[][] newTables = tables.clone();
+            newKeys[oldest] = key;
+            newTables[oldest] = table;
+            return new TemperatureTables(newKeys, newTables, (oldest + 1) % keys.length);
+        }
+    }
 
     /**
      * This comparator compares by the number of times the string came after the word
@@ -3,7 +3,10 @@ package comprehensive;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -40,4 +43,78 @@ class VertexNodeTest {
         assertEquals(List.of("stinky","brubber","shewwwyyy!!!!"), node.kMostProbable(3));
     }
 
-}
\ No newline at end of file
+    @Test
+    void testKMostProbableLongTailOfTies(){
+
+        // a thousand words follow once each, in no particular order, behind the three set up already
+        for(int i = 999; i >= 0; i--){
+            node.addEdge("w" + (i * 7919 % 1000 + 1000));
+        }
+        assertEquals(List.of("stinky","brubber","shewwwyyy!!!!","w1000","w1001"), node.kMostProbable(5));
+        assertEquals(List.of("w1000","w1001","w1002"), node.kMostProbable(6).subList(3, 6));
+    }
+
+    @Test
+    void testWeightedRandomKeepsDistribution(){
+
+        // a random number from 0 to 6 picks stinky for 0 to 3, brubber for 4 and 5, and the last word for 6
+        Map<String, Integer> picks = new HashMap<>();
+        for(int i = 0; i < 70000; i++){
+            picks.merge(node.getWeightedRandomNextWord(), 1, Integer::sum);
+        }
+        assertEquals(4.0 / 7, picks.get("stinky") / 70000.0, 0.02);
+        assertEquals(2.0 / 7, picks.get("brubber") / 70000.0, 0.02);
+        assertEquals(1.0 / 7, picks.get("shewwwyyy!!!!") / 70000.0, 0.02);
+    }
+
+    @Test
+    void testTopP(){
+        Random random = new Random(3);
+        for(int i = 0; i < 1000; i++){
+
+            // stinky alone is half the count, stinky and brubber together are five sixths
+            assertEquals("stinky", node.sampleNextWord(1, 0.5, random));
+            assertFalse(node.sampleNextWord(1, 0.8, random).equals("shewwwyyy!!!!"));
+        }
+    }
+
+    @Test
+    void testTemperature(){
+        Random random = new Random(3);
+        int cold = 0;
+        int hot = 0;
+        for(int i = 0; i < 10000; i++){
+            cold += node.sampleNextWord(0.05, 1, random).equals("stinky") ? 1 : 0;
+            hot += node.sampleNextWord(100, 1, random).equals("stinky") ? 1 : 0;
+        }
+
+        // a low temperature almost always picks the most frequent word, a high one picks every word about equally
+        assertTrue(cold > 9900, "cold " + cold);
+        assertEquals(1.0 / 3, hot / 10000.0, 0.03);
+        assertThrows(IllegalArgumentException.class, () -> node.sampleNextWord(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> node.sampleNextWord(1, 0));
+    }
+
+    @Test
+    void testManyTemperatures(){
+        Random random = new Random(3);
+
+        // cycles through more temperatures than are cached, so tables are replaced while others are still in use
+        for(int i = 0; i < 2000; i++){
+            double temperature = 0.01 * (1 + i % 12);
+            assertEquals("stinky", node.sampleNextWord(temperature, 0.4, random));
+            assertFalse(node.sampleNextWord(temperature, 0.8, random).equals("shewwwyyy!!!!"));
+        }
+    }
+
+    @Test
+    void testSamplingSeesNewEdges(){
+        Random random = new Random(3);
+        assertEquals("stinky", node.sampleNextWord(0.5, 0.3, random));
+        for(int i = 0; i < 5; i++){
+            node.addEdge("brubber");
+        }
+        assertEquals("brubber", node.sampleNextWord(0.5, 0.3, random));
+        assertEquals("brubber", node.sampleNextWord(1, 0.3, random));
+    }
+}
@@ -0,0 +1,159 @@
+package comprehensive;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+
+/**
+ * Times generateWRS over Zipf distributed corpora of growing size on three layouts of the same graph: the HashMap of
+ * VertexNodes in MarkovGraph, an IndexedMarkovGraph with ids in lexicographical order, and the same graph after
+ * renumberByFrequency. Once the graph no longer fits in the CPU caches, a walk on the first two layouts misses the
+ * cache on nearly every step, while the frequency layout keeps the vertices most steps land on together.
+ * Prints "n, vertices, edges" and the nanoseconds per generated word of each layout as CSV.
+ * Run with: WalkBenchmark maxWords [vocabularySize] [skew]
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class WalkBenchmark extends TimerTemplate {
+
+    private static final int STEPS = 8;
+    private static final int TIMES_TO_LOOP = 20;
+    private static final int CHAIN_LENGTH = 100000;
+    private static final double BIGRAM_STRENGTH = 0.5;
+
+    /**
+     * A layout of the graph
+     */
+    enum Layout {
+        /** MarkovGraph's HashMap of VertexNodes */
+        HASH_MAP,
+        /** IndexedMarkovGraph with ids in lexicographical order */
+        LEXICOGRAPHICAL,
+        /** IndexedMarkovGraph renumbered by descending occurrences */
+        FREQUENCY
+    }
+
+    private final Layout layout;
+    private final int vocabularySize;
+    private final double skew;
+
+    private MarkovGraph graph;
+    private IndexedMarkovGraph indexed;
+    private String seed;
+
+    /**
+     * Creates a timer for one layout
+     *
+     * @param problemSizes array of corpus sizes in words
+     * @param layout Layout to time
+     * @param vocabularySize int number of distinct words in the generated corpora
+     * @param skew double Zipf exponent of the generated corpora
+     */
+    public WalkBenchmark(int[] problemSizes, Layout layout, int vocabularySize, double skew){
+        super(problemSizes, TIMES_TO_LOOP);
+        this.layout = layout;
+        this.vocabularySize = vocabularySize;
+        this.skew = skew;
+    }
+
+    /**
+     * Generates a corpus of n words and builds the graph in the timed layout
+     *
+     * @param n problem size to be timed
+     */
+    @Override
+    protected void setup(int n){
+        String text = ScalingBenchmark.corpus(n, vocabularySize, skew, BIGRAM_STRENGTH);
+        graph = null;
+        indexed = null;
+
+        if(layout == Layout.HASH_MAP){
+            graph = new MarkovGraph(TextGenerator.cleanTokens(new Scanner(text)));
+        }
+        else{
+            try{
+                indexed = IndexedMarkovGraph.fromStream(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+            } catch(IOException e){
+                throw new UncheckedIOException(e);
+            }
+            if(layout == Layout.FREQUENCY){
+                indexed = indexed.renumberByFrequency();
+            }
+        }
+
+        // starts every walk from the most frequent word, which is where a walk spends most of its time anyway
+        seed = ZipfCorpusGenerator.wordOf(0);
+
+        // runs a walk untimed so the first sizes are not timed before the JIT has compiled it
+        timingIteration(n);
+    }
+
+    /**
+     * Generates one chain
+     *
+     * @param n the problem size to be timed
+     */
+    @Override
+    protected void timingIteration(int n){
+        if(graph != null){
+            graph.generateWRS(seed, CHAIN_LENGTH);
+        }
+        else{
+            indexed.generateWRS(seed, CHAIN_LENGTH);
+        }
+    }
+
+    /**
+     * Nothing to subtract out
+     *
+     * @param n problem size being timed
+     */
+    @Override
+    protected void compensationIteration(int n){
+
+    }
+
+    /**
+     * Sweeps corpus sizes through every layout and prints one CSV row per size
+     *
+     * @param args the largest corpus size in words, and optionally the vocabulary size and Zipf skew
+     */
+    public static void main(String[] args){
+        if(args.length < 1){
+            throw new IllegalArgumentException("Usage: WalkBenchmark maxWords [vocabularySize] [skew]");
+        }
+        int maxWords = Integer.parseInt(args[0]);
+        int vocabularySize = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+        double skew = args.length > 2 ? Double.parseDouble(args[2]) : 1.07;
+
+        int[] nSizes = new int[STEPS];
+        for(int i = 0; i < STEPS; i++){
+            nSizes[i] = Math.max(1, maxWords / STEPS * (i + 1));
+        }
+
+        Layout[] layouts = Layout.values();
+        Result[][] results = new Result[layouts.length][];
+        for(int l = 0; l < layouts.length; l++){
+            System.err.println("Timing " + layouts[l]);
+            results[l] = new WalkBenchmark(nSizes, layouts[l], vocabularySize, skew).run();
+        }
+
+        System.out.println("Zipf corpus: vocabulary " + vocabularySize + ", skew " + skew + ", nanoseconds per word");
+        System.out.println("n, vertices, edges, hashMap, lexicographical, frequency");
+        for(int i = 0; i < nSizes.length; i++){
+            IndexedMarkovGraph sized;
+            try{
+                sized = IndexedMarkovGraph.fromStream(new ByteArrayInputStream(
+                        ScalingBenchmark.corpus(nSizes[i], vocabularySize, skew, BIGRAM_STRENGTH).getBytes(StandardCharsets.UTF_8)));
+            } catch(IOException e){
+                throw new UncheckedIOException(e);
+            }
+            System.out.println(nSizes[i] + ", " + sized.vertexCount() + ", " + sized.edgeCount() + ", "
+                    + results[0][i].avgNanoSecs() / CHAIN_LENGTH + ", " + results[1][i].avgNanoSecs() / CHAIN_LENGTH
+                    + ", " + results[2][i].avgNanoSecs() / CHAIN_LENGTH);
+        }
+    }
+}
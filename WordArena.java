@@ -0,0 +1,249 @@
+package comprehensive;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Class that stores a vocabulary of words packed as UTF-8 bytes in one contiguous byte array, with an array of offsets
+ * marking where each word starts. Each word gets an int id in the order it was added.
+ * Words are looked up by hashing their bytes directly in an open addressing table of ids, so a token read from
+ * a file can be found or added without ever creating a String for it. A String is only created by getWord.
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class WordArena {
+
+    private byte[] bytes;
+    private int used;           // number of bytes in use
+    private int[] offsets;      // offsets[id] is where word id starts, offsets[size] is where the next word will start
+    private int[] hashes;       // hash of each word, kept so the table can grow without rehashing bytes
+    private int size;
+
+    private int[] table;        // open addressing table holding id + 1, or 0 for an empty slot
+
+    /**
+     * Creates an empty arena
+     */
+    public WordArena(){
+        bytes = new byte[1 << 12];
+        offsets = new int[257];
+        hashes = new int[256];
+        table = new int[512];
+    }
+
+    /**
+     * Returns the id of a word, adding it to the arena if it is not already there
+     *
+     * @param word byte array holding the UTF-8 bytes of the word
+     * @param off int offset of the word in the array
+     * @param len int number of bytes in the word
+     * @return int id of the word
+     */
+    public int intern(byte[] word, int off, int len){
+        int hash = hash(word, off, len);
+        int mask = table.length - 1;
+        int slot = hash & mask;
+
+        // probes until the word or an empty slot is found
+        while(table[slot] != 0){
+            int id = table[slot] - 1;
+            if(hashes[id] == hash && equals(id, word, off, len)){
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int id = append(word, off, len, hash);
+        table[slot] = id + 1;
+
+        // keeps the table at most half full so probe sequences stay short
+        if(size * 2 > table.length){
+            growTable();
+        }
+        return id;
+    }
+
+    /**
+     * Returns the id of a word, or -1 if it is not in the arena
+     *
+     * @param word byte array holding the UTF-8 bytes of the word
+     * @param off int offset of the word in the array
+     * @param len int number of bytes in the word
+     * @return int id of the word, or -1
+     */
+    public int find(byte[] word, int off, int len){
+        int hash = hash(word, off, len);
+        int mask = table.length - 1;
+        int slot = hash & mask;
+
+        while(table[slot] != 0){
+            int id = table[slot] - 1;
+            if(hashes[id] == hash && equals(id, word, off, len)){
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the id of a word, or -1 if it is not in the arena
+     *
+     * @param word String the word
+     * @return int id of the word, or -1
+     */
+    public int find(String word){
+        byte[] encoded = word.getBytes(StandardCharsets.UTF_8);
+        return find(encoded, 0, encoded.length);
+    }
+
+    /**
+     * Creates a String for a word
+     *
+     * @param id int id of the word
+     * @return String the word
+     */
+    public String getWord(int id){
+        checkId(id);
+        return new String(bytes, offsets[id], offsets[id + 1] - offsets[id], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Copies the UTF-8 bytes of a word into another arena, returning its id there
+     *
+     * @param id int id of the word in this arena
+     * @param other WordArena to add the word to
+     * @return int id of the word in the other arena
+     */
+    int copyTo(int id, WordArena other){
+        checkId(id);
+        return other.intern(bytes, offsets[id], offsets[id + 1] - offsets[id]);
+    }
+
+    /**
+     * Compares two words by their UTF-8 bytes, which is the same as comparing them by code point.
+     * This matches String.compareTo except for characters outside the Basic Multilingual Plane.
+     *
+     * @param id1 int id of the first word
+     * @param id2 int id of the second word
+     * @return negative int if the first word is smaller, 0 if they are equal, positive int if it is larger
+     */
+    public int compare(int id1, int id2){
+        checkId(id1);
+        checkId(id2);
+        return Arrays.compareUnsigned(bytes, offsets[id1], offsets[id1 + 1], bytes, offsets[id2], offsets[id2 + 1]);
+    }
+
+    /**
+     * Returns the number of words in the arena
+     *
+     * @return int number of words
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Estimates the memory used by the arena's arrays
+     *
+     * @return long number of bytes
+     */
+    public long memoryBytes(){
+        return bytes.length + 4L * (offsets.length + hashes.length + table.length);
+    }
+
+    /**
+     * Shrinks the byte and offset arrays to the words actually stored, once no more words will be added
+     */
+    public void trim(){
+        bytes = Arrays.copyOf(bytes, used);
+        offsets = Arrays.copyOf(offsets, size + 1);
+        hashes = Arrays.copyOf(hashes, size);
+    }
+
+    /**
+     * Adds a new word to the end of the arena
+     *
+     * @param word byte array holding the word
+     * @param off int offset of the word
+     * @param len int number of bytes in the word
+     * @param hash int hash of the word
+     * @return int id given to the word
+     */
+    private int append(byte[] word, int off, int len, int hash){
+        if(used + len > bytes.length){
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, used + len));
+        }
+        if(size + 2 > offsets.length){
+            offsets = Arrays.copyOf(offsets, Math.max(16, offsets.length * 2));
+        }
+        if(size + 1 > hashes.length){
+            hashes = Arrays.copyOf(hashes, Math.max(16, hashes.length * 2));
+        }
+
+        System.arraycopy(word, off, bytes, used, len);
+        used += len;
+        hashes[size] = hash;
+        offsets[size + 1] = used;
+        return size++;
+    }
+
+    /**
+     * Doubles the table and reinserts every id using its saved hash
+     */
+    private void growTable(){
+        int[] newTable = new int[table.length * 2];
+        int mask = newTable.length - 1;
+
+        for(int id = 0; id < size; id++){
+            int slot = hashes[id] & mask;
+            while(newTable[slot] != 0){
+                slot = (slot + 1) & mask;
+            }
+            newTable[slot] = id + 1;
+        }
+        table = newTable;
+    }
+
+    /**
+     * Returns true if word id has the same bytes as the given word
+     *
+     * @param id int id of the stored word
+     * @param word byte array holding the other word
+     * @param off int offset of the other word
+     * @param len int length of the other word
+     * @return boolean true if the bytes are equal
+     */
+    private boolean equals(int id, byte[] word, int off, int len){
+        int start = offsets[id];
+        return offsets[id + 1] - start == len && Arrays.equals(bytes, start, start + len, word, off, off + len);
+    }
+
+    /**
+     * Hashes bytes with FNV-1a and spreads the result so the low bits used for the table are well mixed
+     *
+     * @param word byte array holding the word
+     * @param off int offset of the word
+     * @param len int length of the word
+     * @return int hash of the word
+     */
+    private static int hash(byte[] word, int off, int len){
+        int hash = 0x811C9DC5;
+        for(int i = off; i < off + len; i++){
+            hash = (hash ^ word[i]) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Throws if an id does not belong to a word in the arena
+     *
+     * @param id int id to check
+     */
+    private void checkId(int id){
+        if(id < 0 || id >= size){
+            throw new IndexOutOfBoundsException("No word with id " + id);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package comprehensive;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Class that generates synthetic text with a realistic word distribution for benchmarks.
+ * Word frequencies follow Zipf's law: the word of rank r is picked with probability proportional to 1 / (r + 1)^skew.
+ * To give the text bigram structure, every word also has a few preferred following words. With probability
+ * bigramStrength the next word is one of the previous word's preferred words (the first ones being more likely),
+ * and otherwise it is drawn from the whole vocabulary. Preferred words are derived by hashing the previous word's rank,
+ * so they take no memory and are the same every time for a given seed.
+ * Words are made of lowercase letters only, so TextGenerator's cleanup leaves them unchanged.
+ *
+ * @author Andy Martins and Sherry Pan
+ * @version October 19, 2026
+ */
+public class ZipfCorpusGenerator {
+
+    private static final int WORDS_PER_LINE = 16;
+
+    private final long seed;
+    private final double bigramStrength;
+    private final double[] cumulative;          // cumulative Zipf weights of the vocabulary, ending at 1
+    private final double[] successorCumulative; // cumulative Zipf weights of the preferred word slots
+    private final Random random;
+    private int prevWord = -1;
+
+    /**
+     * Creates a generator
+     *
+     * @param vocabularySize int number of distinct words
+     * @param skew double Zipf exponent, around 1 for natural language
+     * @param successorsPerWord int number of preferred following words of each word
+     * @param bigramStrength double probability of picking one of the previous word's preferred words, between 0 and 1
+     * @param seed long seed of the random numbers, the same seed always gives the same text
+     */
+    public ZipfCorpusGenerator(int vocabularySize, double skew, int successorsPerWord, double bigramStrength, long seed){
+        if(vocabularySize < 1 || successorsPerWord < 1){
+            throw new IllegalArgumentException("Vocabulary and successor counts must be positive");
+        }
+        if(skew < 0 || bigramStrength < 0 || bigramStrength > 1){
+            throw new IllegalArgumentException("Skew must not be negative and bigram strength must be in [0, 1]");
+        }
+        this.seed = seed;
+        this.bigramStrength = bigramStrength;
+        this.cumulative = zipfCumulative(vocabularySize, skew);
+        this.successorCumulative = zipfCumulative(successorsPerWord, skew);
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Returns the rank of the next word of the text
+     *
+     * @return int rank of the word, 0 being the most frequent
+     */
+    public int nextRank(){
+        int rank;
+
+        // follows the previous word's preferences some of the time, otherwise draws from the whole vocabulary
+        if(prevWord >= 0 && random.nextDouble() < bigramStrength){
+            int slot = sample(successorCumulative, random.nextDouble());
+            rank = sample(cumulative, unitHash(prevWord, slot));
+        }
+        else{
+            rank = sample(cumulative, random.nextDouble());
+        }
+        prevWord = rank;
+        return rank;
+    }
+
+    /**
+     * Returns the next word of the text
+     *
+     * @return String the next word
+     */
+    public String nextWord(){
+        return wordOf(nextRank());
+    }
+
+    /**
+     * Generates text of the given number of words, with a line break every few words
+     *
+     * @param numWords int number of words to generate
+     * @return String of the generated text
+     */
+    public String generate(int numWords){
+        StringBuilder text = new StringBuilder(numWords * 6);
+        for(int i = 0; i < numWords; i++){
+            text.append(nextWord());
+            text.append((i + 1) % WORDS_PER_LINE == 0 ? '\n' : ' ');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Writes generated text to a file, so large corpora can be made without holding them in memory
+     *
+     * @param path Path of the file to write
+     * @param numWords long number of words to generate
+     * @throws IOException if the file cannot be written
+     */
+    public void writeTo(Path path, long numWords) throws IOException {
+        try(BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)){
+            for(long i = 0; i < numWords; i++){
+                writer.write(nextWord());
+                writer.write((i + 1) % WORDS_PER_LINE == 0 ? '\n' : ' ');
+            }
+        }
+    }
+
+    /**
+     * Returns the word of a rank, writing the rank in bijective base 26 with letters a to z
+     *
+     * @param rank int rank of the word
+     * @return String the word, "a" for rank 0, "z" for rank 25, "aa" for rank 26 and so on
+     */
+    public static String wordOf(int rank){
+        StringBuilder word = new StringBuilder();
+        int remaining = rank + 1;
+        while(remaining > 0){
+            remaining--;
+            word.append((char) ('a' + remaining % 26));
+            remaining /= 26;
+        }
+        return word.reverse().toString();
+    }
+
+    /**
+     * Builds the cumulative distribution of Zipf weights
+     *
+     * @param size int number of ranks
+     * @param skew double Zipf exponent
+     * @return double array where entry r is the probability of a rank of at most r
+     */
+    private static double[] zipfCumulative(int size, double skew){
+        double[] weights = new double[size];
+        double total = 0;
+        for(int rank = 0; rank < size; rank++){
+            total += Math.pow(rank + 1, -skew);
+            weights[rank] = total;
+        }
+        for(int rank = 0; rank < size; rank++){
+            weights[rank] /= total;
+        }
+        weights[size - 1] = 1;
+        return weights;
+    }
+
+    /**
+     * Finds the first rank whose cumulative probability is greater than u with a binary search
+     *
+     * @param cumulative double array of cumulative probabilities
+     * @param u double uniform number in [0, 1)
+     * @return int the sampled rank
+     */
+    private static int sample(double[] cumulative, double u){
+        int low = 0;
+        int high = cumulative.length - 1;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(cumulative[mid] > u){
+                high = mid;
+            }
+            else{
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Hashes a word and one of its preferred word slots into a number in [0, 1), mixing with the SplitMix64 finalizer
+     *
+     * @param rank int rank of the previous word
+     * @param slot int preferred word slot
+     * @return double uniform looking number that is always the same for the same seed, rank and slot
+     */
+    private double unitHash(int rank, int slot){
+        long h = seed + 0x9E3779B97F4A7C15L * (((long) rank << 20) + slot + 1);
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        h ^= h >>> 31;
+        return (h >>> 11) * 0x1.0p-53;
+    }
+}
@@ -0,0 +1,48 @@
+package comprehensive;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZipfCorpusGeneratorTest {
+
+    @Test
+    void testSameSeedSameText(){
+        String first = new ZipfCorpusGenerator(1000, 1.0, 4, 0.5, 7).generate(500);
+        assertEquals(first, new ZipfCorpusGenerator(1000, 1.0, 4, 0.5, 7).generate(500));
+        assertFalse(first.equals(new ZipfCorpusGenerator(1000, 1.0, 4, 0.5, 8).generate(500)));
+    }
+
+    @Test
+    void testWordsSurviveCleanup(){
+        assertEquals("a", ZipfCorpusGenerator.wordOf(0));
+        assertEquals("z", ZipfCorpusGenerator.wordOf(25));
+        assertEquals("aa", ZipfCorpusGenerator.wordOf(26));
+
+        String text = new ZipfCorpusGenerator(5000, 1.1, 8, 0.5, 1).generate(2000);
+        assertEquals(2000, TextGenerator.cleanTokens(new Scanner(text)).size());
+    }
+
+    @Test
+    void testZipfFrequencies(){
+        ZipfCorpusGenerator generator = new ZipfCorpusGenerator(100, 1.0, 4, 0.0, 3);
+        int[] counts = new int[100];
+        for(int i = 0; i < 100000; i++){
+            counts[generator.nextRank()]++;
+        }
+
+        // with skew 1 the most frequent word occurs about twice as often as the second and ten times as often as the tenth
+        assertEquals(2.0, (double) counts[0] / counts[1], 0.2);
+        assertEquals(10.0, (double) counts[0] / counts[9], 1.5);
+    }
+
+    @Test
+    void testBigramStructureConcentratesSuccessors(){
+        MarkovGraph loose = new MarkovGraph(List.of(new ZipfCorpusGenerator(2000, 1.0, 4, 0.0, 5).generate(50000).split("\\s+")));
+        MarkovGraph tight = new MarkovGraph(List.of(new ZipfCorpusGenerator(2000, 1.0, 4, 0.9, 5).generate(50000).split("\\s+")));
+        assertTrue(tight.edgeCount() < loose.edgeCount());
+    }
+}